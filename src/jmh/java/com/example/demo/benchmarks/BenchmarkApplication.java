@@ -0,0 +1,28 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.DemoApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Starts the application without the web server against its own in-memory database
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String databaseName) {
+        return new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:" + databaseName,
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.show-sql=false",
+                        "spring.h2.console.enabled=false",
+                        // Benchmarks repeat the same criteria, with the query cache on they would only measure cache hits
+                        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+                )
+                .run();
+    }
+}
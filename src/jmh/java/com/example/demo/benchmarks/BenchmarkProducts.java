@@ -0,0 +1,36 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.products.domain.models.Product;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+// Seeded product rows shared by the benchmarks: prices spread evenly over 0-1000 and quantities over 0-49
+final class BenchmarkProducts {
+
+    private static final int INSERT_BATCH = 10_000;
+
+    private BenchmarkProducts() {
+    }
+
+    static List<Product> insert(JdbcTemplate jdbcTemplate, int rows) {
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            products.add(new Product(UUID.randomUUID(), "product-" + i,
+                    Math.round(random.nextDouble() * 100_000) / 100.0, (long) random.nextInt(50)));
+        }
+
+        for (int from = 0; from < rows; from += INSERT_BATCH) {
+            List<Object[]> batch = products.subList(from, Math.min(from + INSERT_BATCH, rows)).stream()
+                    .map(product -> new Object[]{product.getId(), product.getName(), product.getPrice(), product.getQuantity()})
+                    .toList();
+            jdbcTemplate.batchUpdate("INSERT INTO products (id, name, price, quantity) VALUES (?, ?, ?, ?)", batch);
+        }
+        jdbcTemplate.update("UPDATE product_counters SET counter_value = counter_value + ? WHERE name = 'products' AND stripe = 0", rows);
+        return products;
+    }
+}
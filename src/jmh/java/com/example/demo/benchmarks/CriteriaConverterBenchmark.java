@@ -0,0 +1,107 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.common.domain.criteria.*;
+import com.example.demo.common.infrastructure.criteria.CriteriaSpecificationConverter;
+import com.example.demo.common.infrastructure.criteria.HibernateCriteriaConverter;
+import com.example.demo.common.infrastructure.criteria.PredicateFactory;
+import com.example.demo.products.infrastructure.entities.ProductEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CriteriaConverterBenchmark {
+
+    private static final int FILTERS_PER_GROUP = 5;
+
+    @Param({"1", "10", "50"})
+    public int filters;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private PredicateFactory predicateFactory;
+    private HibernateCriteriaConverter<ProductEntity> cachedConverter;
+    private CriteriaBuilder builder;
+    private Criteria criteria;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("criteria-converter-benchmark");
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        predicateFactory = context.getBean(PredicateFactory.class);
+        cachedConverter = new HibernateCriteriaConverter<>(entityManager, predicateFactory, 256);
+        builder = entityManager.getCriteriaBuilder();
+        criteria = criteria(filters);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    // Same criteria shape every time, only the parameters are bound after the first invocation
+    @Benchmark
+    public TypedQuery<ProductEntity> hibernateConvertCached() {
+        return cachedConverter.convert(criteria, ProductEntity.class);
+    }
+
+    // A fresh converter has an empty plan cache, so the query tree is built on every invocation
+    @Benchmark
+    public TypedQuery<ProductEntity> hibernateConvertUncached() {
+        return new HibernateCriteriaConverter<ProductEntity>(entityManager, predicateFactory, 1)
+                .convert(criteria, ProductEntity.class);
+    }
+
+    @Benchmark
+    public Predicate specificationToPredicate() {
+        CriteriaQuery<ProductEntity> query = builder.createQuery(ProductEntity.class);
+        Root<ProductEntity> root = query.from(ProductEntity.class);
+        return new CriteriaSpecificationConverter<ProductEntity>(criteria, predicateFactory).toPredicate(root, query, builder);
+    }
+
+    // Top level single filters plus OR groups of five nested in an AND, so larger criteria also nest deeper
+    static Criteria criteria(int filterCount) {
+        List<Filter> topLevel = new ArrayList<>();
+        List<Filter> group = new ArrayList<>();
+        List<Filter> groups = new ArrayList<>();
+
+        for (int i = 0; i < filterCount; i++) {
+            Filter filter = switch (i % 4) {
+                case 0 -> new SingleFilter<>("price", SingleFilterOperator.GT, (double) i);
+                case 1 -> new SingleFilter<>("quantity", SingleFilterOperator.LT, (long) i + 100);
+                case 2 -> new SingleFilter<>("name", SingleFilterOperator.CONTAINS, "product-" + i);
+                default -> new SingleFilter<>("name", SingleFilterOperator.NOT_EQUAL, "product-" + i);
+            };
+
+            if (filterCount < FILTERS_PER_GROUP) {
+                topLevel.add(filter);
+                continue;
+            }
+
+            group.add(filter);
+            if (group.size() == FILTERS_PER_GROUP) {
+                groups.add(new CompoundFilter(CompoundFilterOperator.OR, group));
+                group = new ArrayList<>();
+            }
+        }
+
+        if (!groups.isEmpty()) {
+            topLevel.add(new CompoundFilter(CompoundFilterOperator.AND, groups));
+        }
+        topLevel.addAll(group);
+        return new Criteria(topLevel, Order.asc("name"));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.common.domain.criteria.*;
+import com.example.demo.products.domain.models.Product;
+import com.example.demo.products.infrastructure.adapters.repositories.ProductRepositoryAdapter;
+import com.example.demo.products.infrastructure.index.NameTrigramIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// name CONTAINS answered by LIKE '%x%' in the database, by the trigram index alone, and by the trigram index
+// followed by the id lookup GET /products/criteria?nameContains= runs
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class NameContainsBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    // A handful of matches and a few thousand at 1M rows ("product-<n>" names)
+    @Param({"12345", "777"})
+    public String fragment;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepositoryAdapter productRepository;
+    private NameTrigramIndex index;
+    private Criteria likeCriteria;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("name-contains-benchmark-" + rows);
+        productRepository = context.getBean(ProductRepositoryAdapter.class);
+        List<Product> products = BenchmarkProducts.insert(context.getBean(JdbcTemplate.class), rows);
+
+        index = new NameTrigramIndex();
+        products.forEach(product -> index.add(product.getId(), product.getName()));
+
+        likeCriteria = new Criteria(new ArrayList<>(List.of(
+                new SingleFilter<>("name", SingleFilterOperator.CONTAINS, fragment)
+        )), Order.none());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> like() {
+        return productRepository.getProductsByCriteria(likeCriteria);
+    }
+
+    @Benchmark
+    public int[] trigramSearch() {
+        return index.search(fragment);
+    }
+
+    @Benchmark
+    public List<Product> trigramSearchThenIdLookup() {
+        int[] matches = index.search(fragment);
+        List<UUID> ids = new ArrayList<>(matches.length);
+        for (int row : matches) {
+            ids.add(index.id(row));
+        }
+        return productRepository.getProductsByCriteria(new Criteria(new ArrayList<>(List.of(
+                new SingleFilter<>("id", SingleFilterOperator.IN, ids)
+        )), Order.none()));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.common.application.dtos.PaginationCursor;
+import com.example.demo.common.application.dtos.PaginationResponseDto;
+import com.example.demo.products.application.dtos.request.GetPaginatedProductsQueryDto;
+import com.example.demo.products.domain.models.Product;
+import com.example.demo.products.infrastructure.adapters.repositories.ProductRepositoryAdapter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// GET /products/paginated at the first page and deep into the table, offset pages (LIMIT/OFFSET) against
+// keyset pages (seek after the cursor of the previous page's last row)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PaginationDepthBenchmark {
+
+    private static final int LIMIT = 50;
+
+    // Page 10,000 of 50 rows needs at least 500,050 rows
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"0", "10000"})
+    public int page;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepositoryAdapter productRepository;
+    private GetPaginatedProductsQueryDto offsetQuery;
+    private GetPaginatedProductsQueryDto keysetQuery;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("pagination-depth-benchmark");
+        productRepository = context.getBean(ProductRepositoryAdapter.class);
+        List<Product> products = BenchmarkProducts.insert(context.getBean(JdbcTemplate.class), rows);
+
+        offsetQuery = new GetPaginatedProductsQueryDto(LIMIT, page, null, false, null, false);
+
+        // The cursor a client would hold after reading every page before this one, names are unique so the
+        // keyset order is the name order
+        String cursor = null;
+        if (page > 0) {
+            Product last = products.stream()
+                    .sorted(Comparator.comparing(Product::getName))
+                    .skip((long) page * LIMIT - 1)
+                    .findFirst()
+                    .orElseThrow();
+            cursor = new PaginationCursor(last.getName(), last.getId()).encode();
+        }
+        keysetQuery = new GetPaginatedProductsQueryDto(LIMIT, page, cursor, true, null, false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PaginationResponseDto<Product> offset() {
+        return productRepository.getPaginatedProducts(offsetQuery);
+    }
+
+    @Benchmark
+    public PaginationResponseDto<Product> keyset() {
+        return productRepository.getKeysetPaginatedProducts(keysetQuery);
+    }
+}
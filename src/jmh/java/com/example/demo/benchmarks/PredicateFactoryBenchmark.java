@@ -0,0 +1,70 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.common.domain.criteria.SingleFilter;
+import com.example.demo.common.domain.criteria.SingleFilterOperator;
+import com.example.demo.common.infrastructure.criteria.PredicateFactory;
+import com.example.demo.products.infrastructure.entities.ProductEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PredicateFactoryBenchmark {
+
+    @Param({"EQUAL", "NOT_EQUAL", "GT", "LT", "CONTAINS", "NOT_CONTAINS", "IN", "NOT_IN"})
+    public SingleFilterOperator operator;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private PredicateFactory predicateFactory;
+    private CriteriaBuilder builder;
+    private Path<?> path;
+    private SingleFilter<?> filter;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("predicate-factory-benchmark");
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        predicateFactory = context.getBean(PredicateFactory.class);
+        builder = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<ProductEntity> query = builder.createQuery(ProductEntity.class);
+        Root<ProductEntity> root = query.from(ProductEntity.class);
+
+        switch (operator) {
+            case GT, LT -> {
+                path = root.get("price");
+                filter = new SingleFilter<>("price", operator, 10.0);
+            }
+            case IN, NOT_IN -> {
+                path = root.get("name");
+                filter = new SingleFilter<>("name", operator, "Soap,Coffee,Water");
+            }
+            default -> {
+                path = root.get("name");
+                filter = new SingleFilter<>("name", operator, "Soap");
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public Predicate generateSingleFilterPredicate() {
+        return predicateFactory.generateSingleFilterPredicate(builder, filter, path);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.common.domain.criteria.*;
+import com.example.demo.products.domain.models.Product;
+import com.example.demo.products.infrastructure.adapters.repositories.ProductRepositoryAdapter;
+import com.example.demo.products.infrastructure.criteria.ProductCriteriaEngine;
+import com.example.demo.products.infrastructure.index.ColumnarProductIndex;
+import com.example.demo.products.infrastructure.index.ColumnarProductSnapshot;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The GET /products/criteria filters (price range and hasStock) answered by the database, the columnar
+// index and the in-memory criteria engine over the same rows
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductCriteriaPathsBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepositoryAdapter productRepository;
+    private ProductCriteriaEngine criteriaEngine;
+    private ColumnarProductSnapshot snapshot;
+    private List<Product> products;
+    private Criteria criteria;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("product-criteria-paths-benchmark");
+        productRepository = context.getBean(ProductRepositoryAdapter.class);
+        criteriaEngine = context.getBean(ProductCriteriaEngine.class);
+        products = BenchmarkProducts.insert(context.getBean(JdbcTemplate.class), rows);
+
+        snapshot = ColumnarProductSnapshot.empty().append(products);
+
+        // About 1% of the rows: price between 100 and 110 with stock
+        criteria = new Criteria(new ArrayList<>(List.of(
+                new SingleFilter<>("price", SingleFilterOperator.GT, 100.0),
+                new SingleFilter<>("price", SingleFilterOperator.LT, 110.0),
+                new SingleFilter<>("quantity", SingleFilterOperator.GT, 0L)
+        )), Order.none());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> hibernateCriteria() {
+        return productRepository.getProductsByCriteria(criteria);
+    }
+
+    @Benchmark
+    public List<Product> specification() {
+        return productRepository.getProductsByCriteriaSpecification(criteria);
+    }
+
+    @Benchmark
+    public long[] columnarMatch() {
+        return ColumnarProductIndex.match(snapshot, criteria.getFilters());
+    }
+
+    @Benchmark
+    public List<Product> columnarMatchAndMaterialize() {
+        return snapshot.materialize(ColumnarProductIndex.match(snapshot, criteria.getFilters()));
+    }
+
+    @Benchmark
+    public List<Product> inMemoryEngine() {
+        return criteriaEngine.apply(criteria, products);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.common.infrastructure.json.JsonOutputBuffer;
+import com.example.demo.common.infrastructure.json.JsonOutputBufferPool;
+import com.example.demo.products.application.dtos.response.GetProductResponseDto;
+import com.example.demo.products.domain.models.Product;
+import com.example.demo.products.infrastructure.json.ProductJsonWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Product list -> JSON bytes, Jackson through the DTO list against ProductJsonWriter straight from the models.
+// Run with -PjmhProfilers=gc to compare gc.alloc.rate.norm (bytes per operation) as well.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductJsonWriterBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int products;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ProductJsonWriter productJsonWriter = new ProductJsonWriter();
+    private final JsonOutputBufferPool bufferPool = new JsonOutputBufferPool(4, 65536);
+    private final OutputStream outputStream = OutputStream.nullOutputStream();
+
+    private List<Product> models;
+
+    @Setup
+    public void setUp() {
+        models = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            models.add(new Product(UUID.randomUUID(), "product-" + i, 1.25 + i, (long) i));
+        }
+    }
+
+    @Benchmark
+    public void jackson() throws IOException {
+        List<GetProductResponseDto> dtos = models.stream().map(GetProductResponseDto::new).toList();
+        objectMapper.writeValue(outputStream, dtos);
+    }
+
+    @Benchmark
+    public void productJsonWriter() throws IOException {
+        JsonOutputBuffer buffer = bufferPool.acquire();
+        try {
+            buffer.writeByte('[');
+            for (int i = 0; i < models.size(); i++) {
+                if (i > 0) buffer.writeByte(',');
+                productJsonWriter.write(buffer, models.get(i));
+                if (buffer.size() >= bufferPool.flushThreshold()) buffer.drainTo(outputStream);
+            }
+            buffer.writeByte(']');
+            buffer.drainTo(outputStream);
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+}
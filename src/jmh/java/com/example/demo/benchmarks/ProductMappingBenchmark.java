@@ -0,0 +1,38 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.products.application.dtos.response.GetProductResponseDto;
+import com.example.demo.products.infrastructure.entities.ProductEntity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// ProductEntity -> Product -> GetProductResponseDto, the chain every list endpoint goes through
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductMappingBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int products;
+
+    private List<ProductEntity> entities;
+
+    @Setup
+    public void setUp() {
+        entities = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            entities.add(new ProductEntity(UUID.randomUUID(), "product-" + i, 1.0 + i, (long) i));
+        }
+    }
+
+    @Benchmark
+    public List<GetProductResponseDto> toResponseDtos() {
+        return entities.stream()
+                .map(ProductEntity::toModel)
+                .map(GetProductResponseDto::new)
+                .toList();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.common.domain.criteria.*;
+import com.example.demo.products.application.dtos.request.ProductFields;
+import com.example.demo.products.domain.models.Product;
+import com.example.demo.products.infrastructure.adapters.repositories.ProductRepositoryAdapter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The same criteria read through managed entities mapped to products afterwards, and selected straight into
+// products (all fields and a sparse fieldset). Run with -PjmhIncludes=ProductProjection -PjmhProfilers=gc
+// to compare gc.alloc.rate.norm, the bytes allocated per call.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ProductProjectionBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    // About 1,000 and 10,000 matching rows
+    @Param({"10", "100"})
+    public double maxPrice;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepositoryAdapter productRepository;
+    private Criteria criteria;
+    private ProductFields idAndName;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("product-projection-benchmark");
+        productRepository = context.getBean(ProductRepositoryAdapter.class);
+        BenchmarkProducts.insert(context.getBean(JdbcTemplate.class), rows);
+
+        criteria = new Criteria(new ArrayList<>(List.of(
+                new SingleFilter<>("price", SingleFilterOperator.LT, maxPrice)
+        )), Order.none());
+        idAndName = ProductFields.parse("id,name");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> entities() {
+        return productRepository.getProductsByCriteria(criteria);
+    }
+
+    @Benchmark
+    public List<Product> projection() {
+        return productRepository.getProductViewsByCriteria(criteria, ProductFields.all());
+    }
+
+    @Benchmark
+    public List<Product> sparseProjection() {
+        return productRepository.getProductViewsByCriteria(criteria, idAndName);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.common.domain.criteria.*;
+import com.example.demo.products.domain.models.Product;
+import com.example.demo.products.infrastructure.adapters.repositories.ProductRepositoryAdapter;
+import com.example.demo.products.infrastructure.index.IndexSuggestionDto;
+import com.example.demo.products.infrastructure.index.ProductIndexAdvisor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Range queries of GET /products/criteria on the products table before (indexed=false) and after (indexed=true)
+// the indexes suggested by ProductIndexAdvisor for the same traffic have been created
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductRangeIndexBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepositoryAdapter productRepository;
+    private Criteria narrowPriceRange;
+    private Criteria priceRange;
+    private Criteria priceRangeWithQuantity;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("product-range-index-benchmark-" + indexed);
+        productRepository = context.getBean(ProductRepositoryAdapter.class);
+        BenchmarkProducts.insert(context.getBean(JdbcTemplate.class), rows);
+
+        // About 0.1% and 1% of the rows, the last one also asks for an exact quantity (about 2% of the rows)
+        narrowPriceRange = priceBetween(100.0, 101.0);
+        priceRange = priceBetween(100.0, 110.0);
+        priceRangeWithQuantity = new Criteria(new ArrayList<>(List.of(
+                new SingleFilter<>("price", SingleFilterOperator.GT, 100.0),
+                new SingleFilter<>("price", SingleFilterOperator.LT, 110.0),
+                new SingleFilter<>("quantity", SingleFilterOperator.EQUAL, 7L)
+        )), Order.none());
+
+        if (indexed) {
+            // Replays enough of the benchmarked traffic to pass products.index-advisor.min-queries, the LIMIT 1
+            // keeps the unindexed warm-up cheap and the tracker still records the filters
+            for (int i = 0; i < 100; i++) {
+                for (Criteria criteria : List.of(narrowPriceRange, priceRange, priceRangeWithQuantity)) {
+                    productRepository.getProductsByCriteria(new Criteria(criteria.getFilters(), Order.none(), 1, 0));
+                }
+            }
+
+            List<IndexSuggestionDto> created = context.getBean(ProductIndexAdvisor.class).apply();
+            created.forEach(index -> System.out.println("Created: " + index.getDdl()));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> narrowPriceRange() {
+        return productRepository.getProductsByCriteria(narrowPriceRange);
+    }
+
+    @Benchmark
+    public List<Product> priceRange() {
+        return productRepository.getProductsByCriteria(priceRange);
+    }
+
+    @Benchmark
+    public List<Product> priceRangeWithQuantity() {
+        return productRepository.getProductsByCriteria(priceRangeWithQuantity);
+    }
+
+    private static Criteria priceBetween(double from, double to) {
+        return new Criteria(new ArrayList<>(List.of(
+                new SingleFilter<>("price", SingleFilterOperator.GT, from),
+                new SingleFilter<>("price", SingleFilterOperator.LT, to)
+        )), Order.none());
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.common.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+@Getter
+@AllArgsConstructor
+public class PaginationCursor {
+    private static final char SEPARATOR = '\n';
+
+    private final String key; // Sort key of the last row in the page
+    private final UUID id; // Tie-breaker, the id of the last row in the page
+
+    public String encode() {
+        String raw = id.toString() + SEPARATOR + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Optional<PaginationCursor> decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return Optional.empty();
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = raw.indexOf(SEPARATOR);
+            if (separatorIndex < 0) return Optional.empty();
+
+            UUID id = UUID.fromString(raw.substring(0, separatorIndex));
+            return Optional.of(new PaginationCursor(raw.substring(separatorIndex + 1), id));
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+    }
+}
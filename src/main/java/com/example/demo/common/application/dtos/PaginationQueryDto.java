@@ -1,5 +1,6 @@
 package com.example.demo.common.application.dtos;
 
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -16,8 +17,34 @@ public class PaginationQueryDto {
     @Min(value = 0, message = "Page min value is 0" )
     public Integer page;
 
+    // Opaque cursor returned as nextCursor by a previous keyset page
+    public String cursor;
+
+    // Requests the first keyset page, when no cursor is available yet
+    public Boolean keyset;
+
     public PaginationQueryDto(Integer limit, Integer page){
+        this(limit, page, null, null);
+    }
+
+    public PaginationQueryDto(Integer limit, Integer page, String cursor, Boolean keyset){
         this.limit = Optional.ofNullable(limit).orElse(50);
         this.page = Optional.ofNullable(page).orElse(0);
+        this.cursor = cursor;
+        this.keyset = Optional.ofNullable(keyset).orElse(false);
+    }
+
+    @AssertTrue(message = "Cursor is not valid")
+    public boolean isCursorValid() {
+        if (cursor == null || cursor.isBlank()) return true;
+        return PaginationCursor.decode(cursor).isPresent();
+    }
+
+    public boolean isKeysetMode() {
+        return keyset || (cursor != null && !cursor.isBlank());
+    }
+
+    public Optional<PaginationCursor> getDecodedCursor() {
+        return PaginationCursor.decode(cursor);
     }
 }
@@ -11,6 +11,8 @@ public class PaginationResponseDto<T> {
     private List<T> content;
     private int pageNumber;
     private int pageSize;
-    private int totalPages;
-    private Long totalElements;
+    private Integer totalPages; // null on keyset pages and when the total was not requested
+    private Long totalElements; // null on keyset pages and when the total was not requested
+    private boolean hasNext;
+    private String nextCursor; // null on offset pages and on the last keyset page
 }
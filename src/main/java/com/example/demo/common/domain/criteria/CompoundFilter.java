@@ -10,4 +10,9 @@ import java.util.List;
 public class CompoundFilter implements Filter {
     private CompoundFilterOperator operator; // "AND", "OR"
     private List<Filter> filters;
+
+    // AND and OR are commutative, so nested filters are sorted and [a, b] serializes like [b, a]
+    public String serialize() {
+        return String.format("%s(%s)", operator.value(), Criteria.serializeUnordered(filters));
+    }
 }
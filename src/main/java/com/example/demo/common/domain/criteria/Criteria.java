@@ -2,7 +2,9 @@ package com.example.demo.common.domain.criteria;
 
 import lombok.Getter;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 
 @Getter
 public class Criteria {
@@ -65,4 +67,32 @@ public class Criteria {
     public void addFilter(Filter filter) {
         filters.add(filter);
     }
+
+    // Canonical form of the criteria: top level filters are ANDed, so their order does not change the key
+    public String serialize() {
+        String joins = criteriaJoins == null ? "" : criteriaJoins.stream()
+                .map(join -> String.format("%s.%s", join.getJoinPath(), join.getJoinTypeCriteria().getType()))
+                .sorted()
+                .map(Criteria::lengthPrefixed)
+                .reduce("", String::concat);
+
+        return String.format("filters[%s]order[%s]joins[%s]limit[%s]offset[%s]",
+                serializeUnordered(filters), order.serialize(), joins, limit, offset);
+    }
+
+    // Each part is length prefixed, so values containing separators can't make two different lists collide
+    static String serializeUnordered(List<Filter> filters) {
+        if (filters == null) return "";
+
+        return filters.stream()
+                .filter(Objects::nonNull)
+                .map(Filter::serialize)
+                .sorted(Comparator.naturalOrder())
+                .map(Criteria::lengthPrefixed)
+                .reduce("", String::concat);
+    }
+
+    static String lengthPrefixed(String part) {
+        return part.length() + ":" + part;
+    }
 }
@@ -1,4 +1,5 @@
 package com.example.demo.common.domain.criteria;
 
 public interface Filter {
+    String serialize();
 }
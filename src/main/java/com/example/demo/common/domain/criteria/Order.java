@@ -39,4 +39,8 @@ public class Order {
     public boolean hasOrder() {
         return !orderType.isNone();
     }
+
+    public String serialize() {
+        return hasOrder() ? String.format("%s.%s", orderBy.getField(), orderType.getType()) : OrderType.NONE.getType();
+    }
 }
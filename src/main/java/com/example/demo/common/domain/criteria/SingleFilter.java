@@ -3,6 +3,8 @@ package com.example.demo.common.domain.criteria;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.util.Collection;
+
 @Getter
 @AllArgsConstructor
 public class SingleFilter<T> implements Filter {
@@ -10,7 +12,23 @@ public class SingleFilter<T> implements Filter {
     private final SingleFilterOperator operator;
     private final T value;
 
+    // Every part is length prefixed and values carry their type, so a value containing a separator,
+    // "a,b" against ["a", "b"], or "5" against 5 never produce the same key
     public String serialize() {
-        return String.format("%s.%s.%s", field, operator.value(), value);
+        return Criteria.lengthPrefixed(field) + Criteria.lengthPrefixed(operator.value()) + serializeValue(value);
+    }
+
+    private static String serializeValue(Object value) {
+        if (value == null) return "null";
+
+        if (value instanceof Collection<?> values) {
+            StringBuilder serialized = new StringBuilder("list").append(values.size()).append('[');
+            for (Object element : values) {
+                serialized.append(Criteria.lengthPrefixed(serializeValue(element)));
+            }
+            return serialized.append(']').toString();
+        }
+
+        return value.getClass().getSimpleName() + Criteria.lengthPrefixed(value.toString());
     }
 }
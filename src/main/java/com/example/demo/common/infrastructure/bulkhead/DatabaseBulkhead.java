@@ -0,0 +1,103 @@
+package com.example.demo.common.infrastructure.bulkhead;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounds the number of callers inside the database layer to the size of the connection pools.
+// With virtual threads nothing else limits concurrency, so without it every request would queue on the pool.
+// The semaphore is fair, waiting callers get permits in arrival order and give up after the queue timeout.
+// Streams keep their connection until the client has read the last row, so a slow client would hold a permit
+// for as long as it likes. They get a separate share of the pool instead, carved out of the permits, and
+// never take a permit from short queries.
+//
+//   bulkhead.acquire();
+//   try { ... } finally { bulkhead.release(); }
+//
+//   bulkhead.acquireStream();
+//   try { ... } finally { bulkhead.releaseStream(); }
+@Component
+public class DatabaseBulkhead {
+
+    private final boolean enabled;
+    private final int permits;
+    private final long queueTimeoutNanos;
+    private final long retryAfterSeconds;
+    private final int streamPermits;
+    private final Semaphore semaphore;
+    private final Semaphore streamSemaphore;
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public DatabaseBulkhead(
+            @Value("${db.bulkhead.enabled:true}") boolean enabled,
+            @Value("${db.bulkhead.permits:10}") int permits,
+            @Value("${db.bulkhead.stream-permits:2}") int streamPermits,
+            @Value("${db.bulkhead.queue-timeout:500ms}") Duration queueTimeout,
+            @Value("${datasource.replicas.urls:}") List<String> replicaUrls,
+            @Value("${datasource.replicas.maximum-pool-size:10}") int replicaPoolSize
+    ) {
+        this.enabled = enabled;
+        // A permit is taken before the read is routed, so one semaphore covers the primary and every replica pool.
+        // Reads a client keeps on the primary after its write wait in Hikari for the primary's share.
+        int total = permits + replicaUrls.size() * replicaPoolSize;
+        if (streamPermits < 1 || streamPermits >= total) {
+            throw new IllegalArgumentException("Stream permits must be at least 1 and fewer than the " + total + " database permits");
+        }
+        this.permits = total - streamPermits;
+        this.streamPermits = streamPermits;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.retryAfterSeconds = Math.max(1, queueTimeout.toSeconds());
+        this.semaphore = new Semaphore(this.permits, true);
+        this.streamSemaphore = new Semaphore(streamPermits, true);
+    }
+
+    public void acquire() {
+        if (enabled) acquire(semaphore);
+    }
+
+    public void release() {
+        if (enabled) semaphore.release();
+    }
+
+    public void acquireStream() {
+        if (enabled) acquire(streamSemaphore);
+    }
+
+    public void releaseStream() {
+        if (enabled) streamSemaphore.release();
+    }
+
+    private void acquire(Semaphore semaphore) {
+        try {
+            if (!semaphore.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                rejected.increment();
+                throw new DatabaseBusyException(retryAfterSeconds);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            rejected.increment();
+            throw new DatabaseBusyException(retryAfterSeconds);
+        }
+        acquired.increment();
+    }
+
+    public DatabaseBulkheadStatsDto stats() {
+        return new DatabaseBulkheadStatsDto(
+                enabled,
+                permits,
+                semaphore.availablePermits(),
+                semaphore.getQueueLength(),
+                streamPermits,
+                streamSemaphore.availablePermits(),
+                streamSemaphore.getQueueLength(),
+                acquired.sum(),
+                rejected.sum()
+        );
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.common.infrastructure.bulkhead;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DatabaseBulkheadStatsDto {
+    private boolean enabled;
+    private int permits;
+    private int availablePermits;
+    private int queuedRequests;
+    private int streamPermits;
+    private int availableStreamPermits;
+    private int queuedStreams;
+    private long acquired;
+    private long rejected;
+}
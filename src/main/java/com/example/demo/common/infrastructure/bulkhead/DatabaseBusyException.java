@@ -0,0 +1,23 @@
+package com.example.demo.common.infrastructure.bulkhead;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// No database permit within the queue timeout, answered as 503 so clients back off instead of piling up
+public class DatabaseBusyException extends ResponseStatusException {
+
+    private final long retryAfterSeconds;
+
+    public DatabaseBusyException(long retryAfterSeconds) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Database is busy, try again later");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return headers;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.common.infrastructure.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.hibernate.stat.CacheRegionStatistics;
+
+@Data
+@AllArgsConstructor
+public class SecondLevelCacheStatsDto {
+    private String region;
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private double hitRatio;
+    private long putCount;
+
+    public static SecondLevelCacheStatsDto of(String region, CacheRegionStatistics stats) {
+        long lookups = stats.getHitCount() + stats.getMissCount();
+        return new SecondLevelCacheStatsDto(
+                region,
+                stats.getElementCountInMemory(),
+                stats.getHitCount(),
+                stats.getMissCount(),
+                lookups == 0 ? 0 : (double) stats.getHitCount() / lookups,
+                stats.getPutCount()
+        );
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.common.infrastructure.controllers;
+
+import com.example.demo.common.infrastructure.bulkhead.DatabaseBulkhead;
+import com.example.demo.common.infrastructure.bulkhead.DatabaseBulkheadStatsDto;
+import com.example.demo.common.infrastructure.cache.SecondLevelCacheStatsDto;
+import com.example.demo.common.infrastructure.criteria.FilterCombinationDto;
+import com.example.demo.common.infrastructure.datasource.ReadWriteRoutingDataSource;
+import com.example.demo.common.infrastructure.datasource.RoutingStatsDto;
+import com.example.demo.common.infrastructure.criteria.FilterUsageDto;
+import com.example.demo.common.infrastructure.criteria.FilterUsageTracker;
+import com.example.demo.common.infrastructure.metrics.LatencyMetrics;
+import com.example.demo.common.infrastructure.metrics.LatencySnapshotDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@RestController
+@RequestMapping("internal/metrics")
+public class MetricsController {
+
+    private static final String PROMETHEUS_TEXT = "text/plain;version=0.0.4;charset=utf-8";
+
+    private final LatencyMetrics latencyMetrics;
+    private final DatabaseBulkhead databaseBulkhead;
+    private final FilterUsageTracker filterUsageTracker;
+    private final Statistics hibernateStatistics;
+    private final ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+
+    public MetricsController(LatencyMetrics latencyMetrics, DatabaseBulkhead databaseBulkhead, FilterUsageTracker filterUsageTracker,
+                             EntityManagerFactory entityManagerFactory, ObjectProvider<ReadWriteRoutingDataSource> routingDataSource) {
+        this.latencyMetrics = latencyMetrics;
+        this.databaseBulkhead = databaseBulkhead;
+        this.filterUsageTracker = filterUsageTracker;
+        this.hibernateStatistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.routingDataSource = routingDataSource;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<LatencySnapshotDto>> getLatencies() {
+        return new ResponseEntity<>(this.latencyMetrics.snapshots(), HttpStatus.OK);
+    }
+
+    // Its own path rather than content negotiation on the JSON one, a produces mapping there would also win
+    // for Accept: */* and hide the JSON from curl and most clients
+    @GetMapping("prometheus")
+    public ResponseEntity<String> getPrometheusText() {
+        return ResponseEntity.ok().header("Content-Type", PROMETHEUS_TEXT).body(this.latencyMetrics.prometheus());
+    }
+
+    @GetMapping("bulkhead")
+    public ResponseEntity<DatabaseBulkheadStatsDto> getBulkheadStats() {
+        return new ResponseEntity<>(this.databaseBulkhead.stats(), HttpStatus.OK);
+    }
+
+    @GetMapping("filters")
+    public ResponseEntity<List<FilterUsageDto>> getFilterUsage() {
+        return new ResponseEntity<>(this.filterUsageTracker.usages(), HttpStatus.OK);
+    }
+
+    @GetMapping("filters/combinations")
+    public ResponseEntity<List<FilterCombinationDto>> getFilterCombinations() {
+        return new ResponseEntity<>(this.filterUsageTracker.combinations(), HttpStatus.OK);
+    }
+
+    // All zeros unless hibernate.generate_statistics is enabled
+    @GetMapping("second-level-cache")
+    public ResponseEntity<List<SecondLevelCacheStatsDto>> getSecondLevelCacheStats() {
+        List<SecondLevelCacheStatsDto> regions = new ArrayList<>();
+        Arrays.stream(this.hibernateStatistics.getSecondLevelCacheRegionNames()).sorted().forEach(region -> {
+            CacheRegionStatistics stats = this.hibernateStatistics.getCacheRegionStatistics(region);
+            if (stats != null) regions.add(SecondLevelCacheStatsDto.of(region, stats));
+        });
+        return new ResponseEntity<>(regions, HttpStatus.OK);
+    }
+
+    // 404 unless replica routing is configured
+    @GetMapping("datasource-routing")
+    public ResponseEntity<RoutingStatsDto> getDataSourceRoutingStats() {
+        ReadWriteRoutingDataSource routing = this.routingDataSource.getIfAvailable();
+        return routing == null
+                ? new ResponseEntity<>(HttpStatus.NOT_FOUND)
+                : new ResponseEntity<>(routing.stats(), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import com.example.demo.common.domain.criteria.CompoundFilter;
+import com.example.demo.common.domain.criteria.Filter;
+import com.example.demo.common.domain.criteria.SingleFilter;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaQuery;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A parameterized criteria query compiled for one CriteriaShape. Parameters are kept in
+// the same depth-first order the filters are visited in, so binding only walks the filter values.
+public class CompiledCriteriaQuery<T> {
+    @Getter
+    private final CriteriaQuery<T> query;
+    private final List<ParameterBinding> bindings;
+
+    public CompiledCriteriaQuery(CriteriaQuery<T> query, List<ParameterBinding> bindings) {
+        this.query = query;
+        this.bindings = List.copyOf(bindings);
+    }
+
+    public void bind(Query typedQuery, List<Filter> filters) {
+        List<Object> values = new ArrayList<>(bindings.size());
+        collectValues(filters, values);
+
+        if (values.size() != bindings.size()) {
+            throw new IllegalStateException("Filter values do not match the compiled query parameters");
+        }
+
+        for (int i = 0; i < bindings.size(); i++) {
+            bindings.get(i).bind(typedQuery, values.get(i));
+        }
+    }
+
+    private void collectValues(List<Filter> filters, List<Object> values) {
+        if (filters == null) return;
+
+        for (Filter filter : filters) {
+            if (filter instanceof SingleFilter<?> singleFilter) {
+                values.add(singleFilter.getValue());
+            } else if (filter instanceof CompoundFilter compoundFilter) {
+                collectValues(compoundFilter.getFilters(), values);
+            }
+        }
+    }
+}
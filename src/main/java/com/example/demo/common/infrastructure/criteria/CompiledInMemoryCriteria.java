@@ -0,0 +1,46 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+// A criteria turned into a predicate and comparator, reusable against any number of collections
+public class CompiledInMemoryCriteria<T> {
+
+    private final Predicate<T> predicate;
+    private final Comparator<T> comparator; // null when the criteria has no order
+    private final Integer limit;
+    private final Integer offset;
+    private final int parallelThreshold;
+
+    public CompiledInMemoryCriteria(Predicate<T> predicate, Comparator<T> comparator, Integer limit, Integer offset, int parallelThreshold) {
+        this.predicate = predicate;
+        this.comparator = comparator;
+        this.limit = limit;
+        this.offset = offset;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public boolean test(T aggregate) {
+        return predicate.test(aggregate);
+    }
+
+    public List<T> apply(Collection<T> aggregates) {
+        // Small collections are filtered on the calling thread, forking would cost more than the scan itself
+        Stream<T> stream = aggregates.size() >= parallelThreshold ? aggregates.parallelStream() : aggregates.stream();
+        stream = stream.filter(predicate);
+
+        if (comparator != null) {
+            stream = stream.sorted(comparator);
+        }
+        if (offset != null) {
+            stream = stream.skip(offset);
+        }
+        if (limit != null) {
+            stream = stream.limit(limit);
+        }
+        return stream.toList();
+    }
+}
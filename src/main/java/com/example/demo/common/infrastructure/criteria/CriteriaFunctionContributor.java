@@ -0,0 +1,22 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+// SQL functions used by the criteria converters, registered with Hibernate through
+// META-INF/services/org.hibernate.boot.model.FunctionContributor
+public class CriteriaFunctionContributor implements FunctionContributor {
+
+    // in_array(column, array) renders column = ANY(array)
+    public static final String IN_ARRAY = "in_array";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        functionContributions.getFunctionRegistry().registerPattern(
+                IN_ARRAY,
+                "(?1 = any(?2))",
+                functionContributions.getTypeConfiguration().getBasicTypeRegistry().resolve(StandardBasicTypes.BOOLEAN)
+        );
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import com.example.demo.common.domain.criteria.CompoundFilter;
+import com.example.demo.common.domain.criteria.Criteria;
+import com.example.demo.common.domain.criteria.CriteriaJoin;
+import com.example.demo.common.domain.criteria.Filter;
+import com.example.demo.common.domain.criteria.SingleFilter;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+// Normalized, value free description of a Criteria. Two criteria with the same shape
+// compile to the same parameterized query and only differ in the values bound to it.
+public final class CriteriaShape {
+
+    private CriteriaShape() {
+    }
+
+    // arrayBound tells the IN/NOT_IN filters bound as a single array parameter, they compile to different SQL
+    public static String of(Criteria criteria, Class<?> aggregateClass, Predicate<SingleFilter<?>> arrayBound) {
+        StringBuilder shape = new StringBuilder(aggregateClass.getName());
+
+        shape.append("|joins[");
+        List<CriteriaJoin> criteriaJoins = criteria.getCriteriaJoins();
+        if (criteriaJoins != null) {
+            for (CriteriaJoin criteriaJoin : criteriaJoins) {
+                shape.append(criteriaJoin.getJoinPath()).append(':').append(criteriaJoin.getJoinTypeCriteria().getType()).append(',');
+            }
+        }
+
+        shape.append("]|filters[");
+        appendFilters(shape, criteria.getFilters(), arrayBound);
+
+        shape.append("]|order[");
+        if (criteria.getOrder().hasOrder()) {
+            shape.append(criteria.getOrder().orderBy().getField()).append(':').append(criteria.getOrder().orderType().getType());
+        }
+
+        shape.append("]|limit:").append(criteria.getLimit() != null)
+                .append("|offset:").append(criteria.getOffset() != null);
+
+        return shape.toString();
+    }
+
+    private static void appendFilters(StringBuilder shape, List<Filter> filters, Predicate<SingleFilter<?>> arrayBound) {
+        if (filters == null) return;
+
+        for (Filter filter : filters) {
+            if (filter instanceof SingleFilter<?> singleFilter) {
+                shape.append(singleFilter.getField()).append(':').append(singleFilter.getOperator().name());
+                if (arrayBound.test(singleFilter)) {
+                    shape.append(":array");
+                }
+            } else if (filter instanceof CompoundFilter compoundFilter) {
+                shape.append(compoundFilter.getOperator().value()).append('(');
+                appendFilters(shape, compoundFilter.getFilters(), arrayBound);
+                shape.append(')');
+            }
+            shape.append(',');
+        }
+    }
+}
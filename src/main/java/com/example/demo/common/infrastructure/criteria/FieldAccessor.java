@@ -0,0 +1,169 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import com.example.demo.common.domain.criteria.SingleFilterOperator;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+// Typed getter for one field of an in-memory aggregate. Each kind builds predicates specialized for its
+// type, the filter value is converted once at compile time and numeric fields are compared as primitives.
+public sealed interface FieldAccessor<T> {
+
+    Predicate<T> predicate(SingleFilterOperator operator, Object value);
+
+    Comparator<T> comparator();
+
+    // Primitive fields must not be null on the aggregates being filtered
+    record DoubleField<T>(String name, ToDoubleFunction<T> getter) implements FieldAccessor<T> {
+
+        @Override
+        public Predicate<T> predicate(SingleFilterOperator operator, Object value) {
+            return switch (operator) {
+                case EQUAL -> {
+                    double expected = number(name, value).doubleValue();
+                    yield aggregate -> getter.applyAsDouble(aggregate) == expected;
+                }
+                case NOT_EQUAL -> {
+                    double expected = number(name, value).doubleValue();
+                    yield aggregate -> getter.applyAsDouble(aggregate) != expected;
+                }
+                case GT -> {
+                    double bound = number(name, value).doubleValue();
+                    yield aggregate -> getter.applyAsDouble(aggregate) > bound;
+                }
+                case LT -> {
+                    double bound = number(name, value).doubleValue();
+                    yield aggregate -> getter.applyAsDouble(aggregate) < bound;
+                }
+                case IN, NOT_IN -> {
+                    double[] values = FilterValueCoercer.coerceAll(value, Double.class).stream()
+                            .mapToDouble(item -> ((Number) item).doubleValue())
+                            .sorted()
+                            .toArray();
+                    boolean in = operator == SingleFilterOperator.IN;
+                    yield aggregate -> (Arrays.binarySearch(values, getter.applyAsDouble(aggregate)) >= 0) == in;
+                }
+                default -> throw unsupported(name, operator);
+            };
+        }
+
+        @Override
+        public Comparator<T> comparator() {
+            return Comparator.comparingDouble(getter);
+        }
+    }
+
+    record LongField<T>(String name, ToLongFunction<T> getter) implements FieldAccessor<T> {
+
+        @Override
+        public Predicate<T> predicate(SingleFilterOperator operator, Object value) {
+            return switch (operator) {
+                case EQUAL -> {
+                    long expected = number(name, value).longValue();
+                    yield aggregate -> getter.applyAsLong(aggregate) == expected;
+                }
+                case NOT_EQUAL -> {
+                    long expected = number(name, value).longValue();
+                    yield aggregate -> getter.applyAsLong(aggregate) != expected;
+                }
+                case GT -> {
+                    long bound = number(name, value).longValue();
+                    yield aggregate -> getter.applyAsLong(aggregate) > bound;
+                }
+                case LT -> {
+                    long bound = number(name, value).longValue();
+                    yield aggregate -> getter.applyAsLong(aggregate) < bound;
+                }
+                case IN, NOT_IN -> {
+                    long[] values = FilterValueCoercer.coerceAll(value, Long.class).stream()
+                            .mapToLong(item -> ((Number) item).longValue())
+                            .sorted()
+                            .toArray();
+                    boolean in = operator == SingleFilterOperator.IN;
+                    yield aggregate -> (Arrays.binarySearch(values, getter.applyAsLong(aggregate)) >= 0) == in;
+                }
+                default -> throw unsupported(name, operator);
+            };
+        }
+
+        @Override
+        public Comparator<T> comparator() {
+            return Comparator.comparingLong(getter);
+        }
+    }
+
+    // Strings, UUIDs, enums... compared through equals and the given order, which has to be the database's order
+    // for the column (see UuidOrder). A null filter value is only accepted by EQUAL and NOT_EQUAL, as IS NULL and
+    // IS NOT NULL. Null fields never match any other filter.
+    record ComparableField<T, V>(String name, Class<V> type, Function<T, V> getter, Comparator<? super V> order) implements FieldAccessor<T> {
+
+        @Override
+        public Predicate<T> predicate(SingleFilterOperator operator, Object value) {
+            if (value == null) {
+                return switch (operator) {
+                    case EQUAL -> aggregate -> getter.apply(aggregate) == null;
+                    case NOT_EQUAL -> aggregate -> getter.apply(aggregate) != null;
+                    default -> throw new IllegalArgumentException("Error: operator " + operator + " on field '" + name + "' requires a value");
+                };
+            }
+
+            return switch (operator) {
+                case EQUAL -> {
+                    Object expected = FilterValueCoercer.coerce(value, type);
+                    yield aggregate -> expected.equals(getter.apply(aggregate));
+                }
+                case NOT_EQUAL -> {
+                    Object expected = FilterValueCoercer.coerce(value, type);
+                    yield aggregate -> {
+                        V actual = getter.apply(aggregate);
+                        return actual != null && !expected.equals(actual);
+                    };
+                }
+                case GT, LT -> {
+                    V bound = type.cast(FilterValueCoercer.coerce(value, type));
+                    int sign = operator == SingleFilterOperator.GT ? 1 : -1;
+                    yield aggregate -> {
+                        V actual = getter.apply(aggregate);
+                        return actual != null && Integer.signum(order.compare(actual, bound)) == sign;
+                    };
+                }
+                case CONTAINS, NOT_CONTAINS -> {
+                    String fragment = String.valueOf(value);
+                    boolean contains = operator == SingleFilterOperator.CONTAINS;
+                    yield aggregate -> {
+                        V actual = getter.apply(aggregate);
+                        return actual != null && actual.toString().contains(fragment) == contains;
+                    };
+                }
+                case IN, NOT_IN -> {
+                    Set<Object> values = Set.copyOf(FilterValueCoercer.coerceAll(value, type));
+                    boolean in = operator == SingleFilterOperator.IN;
+                    yield aggregate -> {
+                        V actual = getter.apply(aggregate);
+                        return actual != null && values.contains(actual) == in;
+                    };
+                }
+            };
+        }
+
+        @Override
+        public Comparator<T> comparator() {
+            return Comparator.comparing(getter, Comparator.nullsLast(order));
+        }
+    }
+
+    private static Number number(String name, Object value) {
+        if (value instanceof Number number) return number;
+        if (value instanceof String text) return (Number) FilterValueCoercer.coerce(text, Double.class);
+        throw new IllegalArgumentException("Error: filter value for field '" + name + "' must be a Number");
+    }
+
+    private static IllegalArgumentException unsupported(String name, SingleFilterOperator operator) {
+        return new IllegalArgumentException("Unsupported operator " + operator + " for numeric field '" + name + "'");
+    }
+}
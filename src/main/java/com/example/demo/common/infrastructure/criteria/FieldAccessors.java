@@ -0,0 +1,41 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+// Field name to accessor registry of one aggregate type, resolved once when a criteria is compiled
+public class FieldAccessors<T> {
+
+    private final Map<String, FieldAccessor<T>> accessors = new HashMap<>();
+
+    public FieldAccessors<T> doubleField(String name, ToDoubleFunction<T> getter) {
+        accessors.put(name, new FieldAccessor.DoubleField<>(name, getter));
+        return this;
+    }
+
+    public FieldAccessors<T> longField(String name, ToLongFunction<T> getter) {
+        accessors.put(name, new FieldAccessor.LongField<>(name, getter));
+        return this;
+    }
+
+    public <V extends Comparable<? super V>> FieldAccessors<T> comparableField(String name, Class<V> type, Function<T, V> getter) {
+        return comparableField(name, type, getter, Comparator.naturalOrder());
+    }
+
+    public <V> FieldAccessors<T> comparableField(String name, Class<V> type, Function<T, V> getter, Comparator<? super V> order) {
+        accessors.put(name, new FieldAccessor.ComparableField<>(name, type, getter, order));
+        return this;
+    }
+
+    public FieldAccessor<T> get(String name) {
+        FieldAccessor<T> accessor = accessors.get(name);
+        if (accessor == null) {
+            throw new IllegalArgumentException("Unknown field '" + name + "' for in-memory criteria");
+        }
+        return accessor;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class FilterCombinationDto {
+    private String entity;
+    private List<String> filters; // field:OPERATOR of the top-level filters, sorted
+    private long count;
+}
@@ -0,0 +1,14 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import com.example.demo.common.domain.criteria.SingleFilterOperator;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class FilterUsageDto {
+    private String entity;
+    private String field;
+    private SingleFilterOperator operator;
+    private long count;
+}
@@ -0,0 +1,133 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import com.example.demo.common.domain.criteria.CompoundFilter;
+import com.example.demo.common.domain.criteria.Filter;
+import com.example.demo.common.domain.criteria.SingleFilter;
+import com.example.demo.common.domain.criteria.SingleFilterOperator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts which fields and operators reach the database per executed query (not per compiled plan). The top-level
+// filters of a query are ANDed, so they are also counted together as a combination, with a few recent values
+// kept per combination to estimate its selectivity later. That's what a single-column or composite index would serve.
+@Component
+public class FilterUsageTracker {
+
+    private final boolean enabled;
+    private final int sampleSize;
+    private final Map<UsageKey, LongAdder> usages = new ConcurrentHashMap<>();
+    private final Map<CombinationKey, Combination> combinations = new ConcurrentHashMap<>();
+
+    public FilterUsageTracker(
+            @Value("${criteria.filter-usage.enabled:true}") boolean enabled,
+            @Value("${criteria.filter-usage.sample-size:32}") int sampleSize
+    ) {
+        this.enabled = enabled;
+        this.sampleSize = sampleSize;
+    }
+
+    public void record(Class<?> aggregateClass, List<Filter> filters) {
+        if (!enabled || filters == null || filters.isEmpty()) return;
+
+        String entity = aggregateClass.getSimpleName();
+        List<SingleFilter<?>> topLevel = new ArrayList<>(filters.size());
+        for (Filter filter : filters) {
+            if (filter instanceof SingleFilter<?> singleFilter) {
+                recordSingle(entity, singleFilter);
+                topLevel.add(singleFilter);
+            } else if (filter instanceof CompoundFilter compoundFilter) {
+                recordNested(entity, compoundFilter);
+            }
+        }
+        if (topLevel.isEmpty()) return;
+
+        topLevel.sort(Comparator.comparing(FilterUsageTracker::describe));
+        List<String> described = new ArrayList<>(topLevel.size());
+        Object[] values = new Object[topLevel.size()];
+        for (int i = 0; i < topLevel.size(); i++) {
+            described.add(describe(topLevel.get(i)));
+            values[i] = topLevel.get(i).getValue();
+        }
+
+        Combination combination = combinations.computeIfAbsent(new CombinationKey(entity, described), key -> new Combination(sampleSize));
+        combination.count.increment();
+        combination.recentValues.set((int) (combination.cursor.getAndIncrement() % sampleSize), values);
+    }
+
+    public List<FilterUsageDto> usages() {
+        return usages.entrySet().stream()
+                .map(entry -> new FilterUsageDto(entry.getKey().entity(), entry.getKey().field(),
+                        entry.getKey().operator(), entry.getValue().sum()))
+                .sorted(Comparator.comparingLong(FilterUsageDto::getCount).reversed())
+                .toList();
+    }
+
+    public List<FilterCombinationDto> combinations() {
+        return combinations.entrySet().stream()
+                .map(entry -> new FilterCombinationDto(entry.getKey().entity(), entry.getKey().filters(), entry.getValue().count.sum()))
+                .sorted(Comparator.comparingLong(FilterCombinationDto::getCount).reversed())
+                .toList();
+    }
+
+    // Most recent values seen for the combination, one array per query in the order of its filters, at most sample-size of them
+    public List<Object[]> recentValues(FilterCombinationDto combination) {
+        Combination tracked = combinations.get(new CombinationKey(combination.getEntity(), combination.getFilters()));
+        if (tracked == null) return List.of();
+
+        List<Object[]> values = new ArrayList<>(sampleSize);
+        for (int i = 0; i < tracked.recentValues.length(); i++) {
+            Object[] value = tracked.recentValues.get(i);
+            if (value != null) values.add(value);
+        }
+        return values;
+    }
+
+    // field:OPERATOR, the form used in FilterCombinationDto
+    public static String describe(SingleFilter<?> filter) {
+        return filter.getField() + ":" + filter.getOperator().name();
+    }
+
+    public void reset() {
+        usages.clear();
+        combinations.clear();
+    }
+
+    private void recordNested(String entity, CompoundFilter filter) {
+        for (Filter nested : filter.getFilters()) {
+            if (nested instanceof SingleFilter<?> singleFilter) {
+                recordSingle(entity, singleFilter);
+            } else if (nested instanceof CompoundFilter compoundFilter) {
+                recordNested(entity, compoundFilter);
+            }
+        }
+    }
+
+    private void recordSingle(String entity, SingleFilter<?> filter) {
+        usages.computeIfAbsent(new UsageKey(entity, filter.getField(), filter.getOperator()), key -> new LongAdder()).increment();
+    }
+
+    private record UsageKey(String entity, String field, SingleFilterOperator operator) {
+    }
+
+    private record CombinationKey(String entity, List<String> filters) {
+    }
+
+    private static final class Combination {
+        private final LongAdder count = new LongAdder();
+        private final AtomicLong cursor = new AtomicLong();
+        private final AtomicReferenceArray<Object[]> recentValues;
+
+        private Combination(int sampleSize) {
+            this.recentValues = new AtomicReferenceArray<>(sampleSize);
+        }
+    }
+}
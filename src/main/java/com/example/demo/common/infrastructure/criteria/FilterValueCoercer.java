@@ -0,0 +1,112 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Converts filter values to the Java type of the attribute they are compared against
+public final class FilterValueCoercer {
+
+    private static final Map<Class<?>, Class<?>> PRIMITIVE_WRAPPERS = Map.of(
+            int.class, Integer.class,
+            long.class, Long.class,
+            double.class, Double.class,
+            float.class, Float.class,
+            short.class, Short.class,
+            byte.class, Byte.class,
+            boolean.class, Boolean.class,
+            char.class, Character.class
+    );
+
+    private FilterValueCoercer() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> Class<V> boxed(Class<V> type) {
+        return type.isPrimitive() ? (Class<V>) PRIMITIVE_WRAPPERS.get(type) : type;
+    }
+
+    public static Object coerce(Object value, Class<?> type) {
+        Class<?> targetType = boxed(type);
+        if (value == null || targetType.isInstance(value)) {
+            return value;
+        }
+
+        if (value instanceof Number number) {
+            return coerceNumber(number, targetType);
+        }
+
+        if (value instanceof String text) {
+            return coerceString(text.trim(), targetType);
+        }
+
+        return value;
+    }
+
+    // IN values come as a collection, each one is coerced on its own. Types whose values can't hold a comma
+    // (numbers, UUIDs, booleans, enums) also take a comma separated string. A string compared to a string column is
+    // one value, names may contain commas, so several of them have to come as a collection.
+    public static List<Object> coerceAll(Object value, Class<?> type) {
+        Collection<?> values = elements(value, type);
+        List<Object> coerced = new ArrayList<>(values.size());
+        for (Object element : values) {
+            coerced.add(coerce(element, type));
+        }
+        return coerced;
+    }
+
+    private static Collection<?> elements(Object value, Class<?> type) {
+        if (value instanceof Collection<?> collection) return collection;
+        if (value instanceof String text && boxed(type) != String.class) return List.of(text.split(","));
+        return Collections.singletonList(value);
+    }
+
+    // Upper bound for a comma separated string, it only decides between one parameter per value and an array
+    public static int count(Object value) {
+        if (value instanceof Collection<?> collection) return collection.size();
+        if (value instanceof String text) return (int) text.chars().filter(c -> c == ',').count() + 1;
+        return 1;
+    }
+
+    private static Object coerceNumber(Number number, Class<?> targetType) {
+        if (targetType == Integer.class) return number.intValue();
+        if (targetType == Long.class) return number.longValue();
+        if (targetType == Double.class) return number.doubleValue();
+        if (targetType == Float.class) return number.floatValue();
+        if (targetType == Short.class) return number.shortValue();
+        if (targetType == Byte.class) return number.byteValue();
+        if (targetType == BigDecimal.class) return new BigDecimal(number.toString());
+        if (targetType == BigInteger.class) return BigInteger.valueOf(number.longValue());
+        if (targetType == String.class) return number.toString();
+        return number;
+    }
+
+    private static Object coerceString(String text, Class<?> targetType) {
+        try {
+            if (targetType == Integer.class) return Integer.valueOf(text);
+            if (targetType == Long.class) return Long.valueOf(text);
+            if (targetType == Double.class) return Double.valueOf(text);
+            if (targetType == Float.class) return Float.valueOf(text);
+            if (targetType == Short.class) return Short.valueOf(text);
+            if (targetType == Byte.class) return Byte.valueOf(text);
+            if (targetType == BigDecimal.class) return new BigDecimal(text);
+            if (targetType == BigInteger.class) return new BigInteger(text);
+            if (targetType == Boolean.class) return Boolean.valueOf(text);
+            if (targetType == UUID.class) return UUID.fromString(text);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Error: filter value '" + text + "' can't be converted to " + targetType.getSimpleName(), ex);
+        }
+        if (targetType.isEnum()) return enumValue(targetType, text);
+        return text;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object enumValue(Class<?> targetType, String text) {
+        return Enum.valueOf((Class<? extends Enum>) targetType, text);
+    }
+}
@@ -2,41 +2,68 @@ package com.example.demo.common.infrastructure.criteria;
 
 import com.example.demo.common.domain.criteria.*;
 import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
 import jakarta.persistence.criteria.Order;
 import java.util.*;
-import java.util.function.BiFunction;
+import java.util.function.Function;
 
 @Component
 public class HibernateCriteriaConverter<T> {
     private final CriteriaBuilder builder;
     private final EntityManager entityManager;
     private final PredicateFactory predicateFactory;
-    private final Map<Join<?, ?>, From<?, ?>> joinParents = new HashMap<>();
+    private final QueryPlanCache<String, CompiledCriteriaQuery<?>> planCache;
 
-    public HibernateCriteriaConverter(EntityManager entityManager, PredicateFactory predicateFactory) {
+    public HibernateCriteriaConverter(
+            EntityManager entityManager,
+            PredicateFactory predicateFactory,
+            @Value("${criteria.plan-cache.max-size:256}") int planCacheMaxSize
+    ) {
         this.entityManager = entityManager;
         this.builder = entityManager.getCriteriaBuilder();
         this.predicateFactory = predicateFactory;
+        this.planCache = new QueryPlanCache<>(planCacheMaxSize);
     }
 
     public TypedQuery<T> convert(Criteria criteria, Class<T> aggregateClass) {
 
-        CriteriaQuery<T> hibernateCriteria = builder.createQuery(aggregateClass);
-        Root<T> root = hibernateCriteria.from(aggregateClass);
-
-        List<Join<?, ?>> joins = buildJoins(criteria.getCriteriaJoins(), root);
-        hibernateCriteria.where(buildPredicates(criteria.getFilters(), root, joins));
+        // Only the first criteria of a given shape builds the query tree, the rest just bind their values
+        CompiledCriteriaQuery<T> compiledQuery = compile(criteria, aggregateClass);
+        return createQuery(compiledQuery, criteria, aggregateClass);
+    }
 
-        if (criteria.getOrder().hasOrder()) {
-            Path<Object> orderBy = root.get(criteria.getOrder().orderBy().getField());
-            Order order = criteria.getOrder().orderType().isAsc() ? builder.asc(orderBy) : builder.desc(orderBy);
-            hibernateCriteria.orderBy(order);
+    // Selects straight into resultClass through its constructor, nothing is loaded into the persistence context.
+    // Constructor arguments are given as field paths, the ones not in selectedFields are passed as typed nulls
+    // and don't reach the SQL select list.
+    @SuppressWarnings("unchecked")
+    public <R> TypedQuery<R> convertProjection(Criteria criteria, Class<T> aggregateClass, Class<R> resultClass,
+                                               List<String> constructorFields, Collection<String> selectedFields) {
+        StringBuilder shape = new StringBuilder(CriteriaShape.of(criteria, aggregateClass, predicateFactory::isArrayBound))
+                .append("|select:").append(resultClass.getName()).append('(');
+        for (String field : constructorFields) {
+            shape.append(selectedFields.contains(field) ? field : "null").append(',');
         }
+        shape.append(')');
+
+        CompiledCriteriaQuery<R> compiledQuery = (CompiledCriteriaQuery<R>) planCache.get(shape.toString(),
+                key -> buildCompiledQuery(criteria, aggregateClass, resultClass, joins -> {
+                    Selection<?>[] arguments = constructorFields.stream()
+                            .map(field -> {
+                                Path<?> path = joins.resolve(field);
+                                return selectedFields.contains(field) ? path : builder.nullLiteral(path.getJavaType());
+                            })
+                            .toArray(Selection<?>[]::new);
+                    return builder.construct(resultClass, arguments);
+                }));
+        return createQuery(compiledQuery, criteria, aggregateClass);
+    }
 
-        TypedQuery<T> query = entityManager.createQuery(hibernateCriteria);
+    private <R> TypedQuery<R> createQuery(CompiledCriteriaQuery<R> compiledQuery, Criteria criteria, Class<T> aggregateClass) {
+        TypedQuery<R> query = entityManager.createQuery(compiledQuery.getQuery());
+        compiledQuery.bind(query, criteria.getFilters());
 
         if (criteria.getOffset() != null) {
             query.setFirstResult(criteria.getOffset());
@@ -49,141 +76,81 @@ public class HibernateCriteriaConverter<T> {
         return query;
     }
 
-    private List<Join<?, ?>> buildJoins(List<CriteriaJoin> criteriaJoins, Root<T> root) {
-        if (criteriaJoins == null || criteriaJoins.isEmpty()) {
-            return Collections.emptyList();
+    public QueryPlanCacheStats planCacheStats() {
+        return planCache.stats();
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompiledCriteriaQuery<T> compile(Criteria criteria, Class<T> aggregateClass) {
+        String shape = CriteriaShape.of(criteria, aggregateClass, predicateFactory::isArrayBound);
+        return (CompiledCriteriaQuery<T>) planCache.get(shape, key -> buildCompiledQuery(criteria, aggregateClass, aggregateClass, null));
+    }
+
+    // Without a selection the query returns the root entity
+    private <R> CompiledCriteriaQuery<R> buildCompiledQuery(Criteria criteria, Class<T> aggregateClass, Class<R> resultClass,
+                                                            Function<JoinContext, Selection<? extends R>> selection) {
+        CriteriaQuery<R> hibernateCriteria = builder.createQuery(resultClass);
+        Root<T> root = hibernateCriteria.from(aggregateClass);
+        List<ParameterBinding> bindings = new ArrayList<>();
+
+        // Join state is local to this conversion and is released with it
+        JoinContext joins = JoinContext.of(root, criteria.getCriteriaJoins());
+        if (selection != null) {
+            hibernateCriteria.select(selection.apply(joins));
         }
+        hibernateCriteria.where(buildPredicates(criteria.getFilters(), joins, bindings));
+
+        hibernateCriteria.orderBy(buildOrders(criteria, root, joins));
+
+        return new CompiledCriteriaQuery<>(hibernateCriteria, bindings);
+    }
 
-        List<Join<?, ?>> joins = new ArrayList<>();
-        Set<String> processedPaths = new HashSet<>();
-
-        for (CriteriaJoin criteriaJoin : criteriaJoins) {
-            String joinPath = criteriaJoin.getJoinPath();
-
-            if (processedPaths.contains(joinPath)) {
-                continue; // Skip if already processed
-            }
-
-            From<?, ?> currentFrom = root;
-            String[] pathParts = joinPath.split("\\.");
-
-            for (int i = 0; i < pathParts.length; i++) {
-                String part = pathParts[i];
-                String currentPath = (i == 0 ? "" : (currentFrom instanceof Join ? ((Join<?, ?>) currentFrom).getAttribute().getName() : "") + ".") + part;
-
-                Join<?, ?> existingJoin = findJoinByPath(currentPath, joins);
-
-                if (existingJoin != null) {
-                    currentFrom = existingJoin;
-                } else {
-                    currentFrom = currentFrom.join(part, criteriaJoin.getJoinTypeCriteria().isInner() ? JoinType.INNER : JoinType.LEFT);
-                    if (currentFrom instanceof Join<?, ?>) {
-                        Join<?, ?> newJoin = (Join<?, ?>) currentFrom;
-                        joins.add(newJoin);
-                        joinParents.put(newJoin, currentFrom instanceof Join ? joinParents.get(currentFrom) : root); // Store the parent HERE
-                    }
-                }
-            }
-            processedPaths.add(joinPath); // Mark the entire path as processed
+    // Ordered or paged queries always end on the id, rows with equal sort values would otherwise come back in
+    // whatever order the plan gives them and LIMIT/OFFSET pages could repeat or skip rows
+    private List<Order> buildOrders(Criteria criteria, Root<T> root, JoinContext joins) {
+        List<Order> orders = new ArrayList<>();
+        String idField = root.getModel().getId(root.getModel().getIdType().getJavaType()).getName();
+
+        if (criteria.getOrder().hasOrder()) {
+            String field = criteria.getOrder().orderBy().getField();
+            Path<?> orderBy = joins.resolve(field);
+            orders.add(criteria.getOrder().orderType().isAsc() ? builder.asc(orderBy) : builder.desc(orderBy));
+            if (field.equals(idField)) return orders;
+        } else if (criteria.getLimit() == null && criteria.getOffset() == null) {
+            return orders;
         }
-        return joins;
+
+        orders.add(builder.asc(root.get(idField)));
+        return orders;
     }
 
-    private Predicate[] buildPredicates(List<Filter> filters, Root<T> root, List<Join<?, ?>> joins) {
+    private Predicate[] buildPredicates(List<Filter> filters, JoinContext joins, List<ParameterBinding> bindings) {
         if (filters == null || filters.isEmpty()) {
             return new Predicate[0]; // Return empty array if no filters
         }
 
         return filters.stream()
-                .map(filter -> buildPredicate(filter, root, joins))
+                .map(filter -> buildPredicate(filter, joins, bindings))
                 .filter(Objects::nonNull) // Handle null predicates (e.g., unsupported filter types)
                 .toArray(Predicate[]::new);
     }
 
-    private Predicate buildPredicate(Filter filter, Root<T> root, List<Join<?, ?>> joins) {
+    private Predicate buildPredicate(Filter filter, JoinContext joins, List<ParameterBinding> bindings) {
         if (filter instanceof SingleFilter) {
-            return buildSingleFilterPredicate((SingleFilter<?>) filter, root, joins);
+            return buildSingleFilterPredicate((SingleFilter<?>) filter, joins, bindings);
         } else if (filter instanceof CompoundFilter) {
-            return buildCompoundFilterPredicate((CompoundFilter) filter, root, joins);
+            return buildCompoundFilterPredicate((CompoundFilter) filter, joins, bindings);
         }
         return null; // Handle unsupported filter types gracefully
     }
 
-    private Predicate buildSingleFilterPredicate(SingleFilter<?> filter, Root<T> root, List<Join<?, ?>> joins) {
-        Path<?> path = buildPath(filter, root, joins);
-        if (path == null) return null; //Path not found
-
-        return predicateFactory.generateSingleFilterPredicate(builder, filter, path);
+    private Predicate buildSingleFilterPredicate(SingleFilter<?> filter, JoinContext joins, List<ParameterBinding> bindings) {
+        Path<?> path = joins.resolve(filter.getField());
+        return predicateFactory.generateParameterizedPredicate(builder, filter, path, bindings);
     }
 
-    private Predicate buildCompoundFilterPredicate(CompoundFilter filter, Root<T> root, List<Join<?, ?>> joins) {
-        Predicate[] predicates = buildPredicates(filter.getFilters(), root, joins);
+    private Predicate buildCompoundFilterPredicate(CompoundFilter filter, JoinContext joins, List<ParameterBinding> bindings) {
+        Predicate[] predicates = buildPredicates(filter.getFilters(), joins, bindings);
         return filter.getOperator() == CompoundFilterOperator.AND ? builder.and(predicates) : builder.or(predicates);
     }
-
-    private Path<?> buildPath(SingleFilter<?> filter, Root<T> root, List<Join<?, ?>> joins) {
-        if (!filter.getField().contains(".")) {
-            return root.get(filter.getField());
-        }
-
-        String[] pathParts = filter.getField().split("\\.");
-        Path<?> currentPath = root;
-
-        for (int i = 0; i < pathParts.length; i++) {
-            String part = pathParts[i];
-
-            if (i == 0) { // First part is the join name
-                Join<?, ?> join = findJoin(part, joins, root);
-                if (join == null) {
-                    throw new IllegalArgumentException("Join not found for path: " + filter.getField());
-                }
-                currentPath = join; // Update the from
-            } else { // Subsequent parts are attribute names
-                currentPath = currentPath.get(part);
-            }
-        }
-        return currentPath;
-    }
-
-    private Join<?, ?> findJoin(String joinPath, List<Join<?, ?>> joins, Root<?> root) {
-        // First check in joins list
-        for (Join<?, ?> join : joins) {
-            if (join.getAttribute().getName().equals(joinPath)) {
-                return join;
-            }
-        }
-
-        // If not found in the list, try to get it from root
-        if (root.getJavaType().getSimpleName().equals(joinPath)) {
-            return (Join<?, ?>) root;
-        }
-
-        return null;
-    }
-
-    private Join<?, ?> findJoinByPath(String joinPath, List<Join<?, ?>> joins) {
-
-        for (Join<?, ?> join : joins) {
-            String existingJoinPath = "";
-            From<?, ?> from = join;
-
-            while (from != null) { // Traverse up using stored parents
-                if (from instanceof Join<?, ?>) {
-                    existingJoinPath = ((Join<?, ?>) from).getAttribute().getName() + "." + existingJoinPath;
-                    from = joinParents.get(from); // Get the stored parent
-                } else {
-                    break; // Reached the root
-                }
-            }
-
-            if (!existingJoinPath.isEmpty()) {
-                existingJoinPath = existingJoinPath.substring(0, existingJoinPath.length() - 1); // Remove trailing dot
-            }
-
-            if (joinPath.equals(existingJoinPath)) {
-                return join;
-            }
-        }
-        return null;
-    }
 }
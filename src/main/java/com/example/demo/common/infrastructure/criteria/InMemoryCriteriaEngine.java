@@ -0,0 +1,113 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import com.example.demo.common.domain.criteria.*;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+// Evaluates criteria over in-memory collections, without a database round trip. A criteria is compiled
+// once into a tree of specialized predicates, fields are resolved through the accessors and not by reflection.
+// Joins only matter to the JPA converters, nested fields are plain accessors here (e.g. "region.name").
+public class InMemoryCriteriaEngine<T> {
+
+    private final FieldAccessors<T> accessors;
+    private final String idField;
+    private final int parallelThreshold;
+
+    public InMemoryCriteriaEngine(FieldAccessors<T> accessors, String idField, int parallelThreshold) {
+        this.accessors = accessors;
+        this.idField = idField;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public List<T> apply(Criteria criteria, Collection<T> aggregates) {
+        return compile(criteria).apply(aggregates);
+    }
+
+    public CompiledInMemoryCriteria<T> compile(Criteria criteria) {
+        return new CompiledInMemoryCriteria<>(
+                and(compileAll(criteria.getFilters())),
+                compileOrder(criteria),
+                criteria.getLimit(),
+                criteria.getOffset(),
+                parallelThreshold
+        );
+    }
+
+    private Predicate<T> compileFilter(Filter filter) {
+        if (filter instanceof SingleFilter<?> singleFilter) {
+            return accessors.get(singleFilter.getField()).predicate(singleFilter.getOperator(), singleFilter.getValue());
+        } else if (filter instanceof CompoundFilter compoundFilter) {
+            List<Predicate<T>> predicates = compileAll(compoundFilter.getFilters());
+            return compoundFilter.getOperator() == CompoundFilterOperator.AND ? and(predicates) : or(predicates);
+        }
+        throw new IllegalArgumentException("Unsupported filter type: " + filter.getClass().getName());
+    }
+
+    private List<Predicate<T>> compileAll(List<Filter> filters) {
+        if (filters == null) return List.of();
+        return filters.stream().map(this::compileFilter).toList();
+    }
+
+    // One and two operand cases are the common ones, they skip the loop over the array
+    @SuppressWarnings("unchecked")
+    private Predicate<T> and(List<Predicate<T>> predicates) {
+        switch (predicates.size()) {
+            case 0: return aggregate -> true;
+            case 1: return predicates.get(0);
+            case 2: {
+                Predicate<T> first = predicates.get(0);
+                Predicate<T> second = predicates.get(1);
+                return aggregate -> first.test(aggregate) && second.test(aggregate);
+            }
+            default: {
+                Predicate<T>[] operands = predicates.toArray(Predicate[]::new);
+                return aggregate -> {
+                    for (Predicate<T> operand : operands) {
+                        if (!operand.test(aggregate)) return false;
+                    }
+                    return true;
+                };
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Predicate<T> or(List<Predicate<T>> predicates) {
+        switch (predicates.size()) {
+            case 0: return aggregate -> false;
+            case 1: return predicates.get(0);
+            case 2: {
+                Predicate<T> first = predicates.get(0);
+                Predicate<T> second = predicates.get(1);
+                return aggregate -> first.test(aggregate) || second.test(aggregate);
+            }
+            default: {
+                Predicate<T>[] operands = predicates.toArray(Predicate[]::new);
+                return aggregate -> {
+                    for (Predicate<T> operand : operands) {
+                        if (operand.test(aggregate)) return true;
+                    }
+                    return false;
+                };
+            }
+        }
+    }
+
+    // Same orders as HibernateCriteriaConverter.buildOrders: ordered or paged results end on the id, so equal
+    // sort values and unordered pages come back in the rows the database would return for the same page
+    private Comparator<T> compileOrder(Criteria criteria) {
+        Order order = criteria.getOrder();
+        Comparator<T> byId = accessors.get(idField).comparator();
+        if (order == null || !order.hasOrder()) {
+            return criteria.getLimit() == null && criteria.getOffset() == null ? null : byId;
+        }
+
+        String field = order.orderBy().getField();
+        Comparator<T> comparator = accessors.get(field).comparator();
+        comparator = order.orderType().isAsc() ? comparator : comparator.reversed();
+        return field.equals(idField) ? comparator : comparator.thenComparing(byId);
+    }
+}
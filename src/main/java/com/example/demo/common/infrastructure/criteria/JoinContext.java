@@ -0,0 +1,99 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import com.example.demo.common.domain.criteria.CriteriaJoin;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Joins built while converting a single Criteria, indexed by their full dotted path from the root.
+// A context lives only as long as one conversion, so converters never share join state between requests.
+public class JoinContext {
+    private final From<?, ?> root;
+    private final Map<String, Join<?, ?>> joinsByPath = new HashMap<>();
+
+    public JoinContext(From<?, ?> root) {
+        this.root = root;
+    }
+
+    public static JoinContext of(From<?, ?> root, List<CriteriaJoin> criteriaJoins) {
+        JoinContext context = new JoinContext(root);
+        if (criteriaJoins != null) {
+            for (CriteriaJoin criteriaJoin : criteriaJoins) {
+                JoinType joinType = criteriaJoin.getJoinTypeCriteria().isInner() ? JoinType.INNER : JoinType.LEFT;
+                context.join(criteriaJoin.getJoinPath(), joinType);
+            }
+        }
+        return context;
+    }
+
+    // Joins every segment of the path that is not joined yet, reusing the ones that already are
+    public Join<?, ?> join(String joinPath, JoinType joinType) {
+        Join<?, ?> existingJoin = joinsByPath.get(joinPath);
+        if (existingJoin != null) {
+            return existingJoin;
+        }
+
+        From<?, ?> currentFrom = root;
+        int segmentStart = 0;
+        while (true) {
+            int segmentEnd = joinPath.indexOf('.', segmentStart);
+            boolean lastSegment = segmentEnd < 0;
+            if (lastSegment) segmentEnd = joinPath.length();
+
+            String prefix = joinPath.substring(0, segmentEnd);
+            Join<?, ?> join = joinsByPath.get(prefix);
+            if (join == null) {
+                join = currentFrom.join(joinPath.substring(segmentStart, segmentEnd), joinType);
+                joinsByPath.put(prefix, join);
+            }
+
+            if (lastSegment) {
+                return join;
+            }
+            currentFrom = join;
+            segmentStart = segmentEnd + 1;
+        }
+    }
+
+    public Join<?, ?> findJoin(String joinPath) {
+        return joinsByPath.get(joinPath);
+    }
+
+    // Resolves "field" against the root and "a.b.field" against the join registered for "a.b".
+    // Segments below a join that are not joins themselves (embeddables) are navigated with get().
+    public Path<?> resolve(String fieldPath) {
+        int lastDot = fieldPath.lastIndexOf('.');
+        if (lastDot < 0) {
+            return root.get(fieldPath);
+        }
+
+        Join<?, ?> ownerJoin = joinsByPath.get(fieldPath.substring(0, lastDot));
+        if (ownerJoin != null) {
+            return ownerJoin.get(fieldPath.substring(lastDot + 1));
+        }
+
+        Path<?> currentPath = root;
+        int segmentStart = 0;
+        while (true) {
+            int segmentEnd = fieldPath.indexOf('.', segmentStart);
+            if (segmentEnd < 0) {
+                return currentPath.get(fieldPath.substring(segmentStart));
+            }
+
+            Join<?, ?> join = joinsByPath.get(fieldPath.substring(0, segmentEnd));
+            if (join != null) {
+                currentPath = join;
+            } else if (segmentStart == 0) {
+                throw new IllegalArgumentException("Join for path '" + fieldPath.substring(0, segmentEnd) + "' (full path: " + fieldPath + ") not found. Ensure all joined paths are declared in CriteriaJoins.");
+            } else {
+                currentPath = currentPath.get(fieldPath.substring(segmentStart, segmentEnd));
+            }
+            segmentStart = segmentEnd + 1;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.ParameterExpression;
+
+import java.util.function.Function;
+
+// A parameter of a compiled criteria query and how a filter value is turned into its bind value.
+public class ParameterBinding {
+    private final ParameterExpression<?> parameter;
+    private final Function<Object, Object> converter;
+
+    public ParameterBinding(ParameterExpression<?> parameter, Function<Object, Object> converter) {
+        this.parameter = parameter;
+        this.converter = converter;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void bind(Query query, Object value) {
+        query.setParameter((ParameterExpression<Object>) parameter, converter.apply(value));
+    }
+}
@@ -1,11 +1,15 @@
 package com.example.demo.common.infrastructure.criteria;
 
+import com.example.demo.common.domain.criteria.Filter;
 import com.example.demo.common.domain.criteria.SingleFilter;
 import com.example.demo.common.domain.criteria.SingleFilterOperator;
 import jakarta.persistence.criteria.*;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,9 +22,13 @@ interface TriFunction<T, U, V, R> {
 @Component
 public class PredicateFactory {
 
+    private final FilterUsageTracker filterUsageTracker;
+    private final int inArrayThreshold;
+
     private final Map<Class<?>, TriFunction<CriteriaBuilder, Path<?>, Number, Predicate>> greaterThanHandlers = new HashMap<>();
     private final Map<Class<?>, TriFunction<CriteriaBuilder, Path<?>, Number, Predicate>> lessThanHandlers = new HashMap<>();
     private final Map<SingleFilterOperator, TriFunction<CriteriaBuilder, SingleFilter<?>, Path<?>, Predicate>> predicateTransformers = new HashMap<>();
+    private final Map<SingleFilterOperator, TriFunction<CriteriaBuilder, Path<?>, List<ParameterBinding>, Predicate>> parameterizedTransformers = new HashMap<>();
 
     private void initializeHandlers() {
         predicateTransformers.put(SingleFilterOperator.EQUAL, this::equalsPredicateTransformer);
@@ -30,6 +38,19 @@ public class PredicateFactory {
         predicateTransformers.put(SingleFilterOperator.CONTAINS, this::containsPredicateTransformer);
         predicateTransformers.put(SingleFilterOperator.NOT_CONTAINS, this::notContainsPredicateTransformer);
         predicateTransformers.put(SingleFilterOperator.IN, this::inPredicateTransformer);
+        predicateTransformers.put(SingleFilterOperator.NOT_IN, this::inPredicateTransformer);
+    }
+
+    private void initializeParameterizedHandlers() {
+        // Same operators as above, but values are left as parameters so the query can be compiled once per shape
+        parameterizedTransformers.put(SingleFilterOperator.EQUAL, this::parameterizedEqualsTransformer);
+        parameterizedTransformers.put(SingleFilterOperator.NOT_EQUAL, this::parameterizedNotEqualsTransformer);
+        parameterizedTransformers.put(SingleFilterOperator.GT, this::parameterizedGreaterThanTransformer);
+        parameterizedTransformers.put(SingleFilterOperator.LT, this::parameterizedLowerThanTransformer);
+        parameterizedTransformers.put(SingleFilterOperator.CONTAINS, this::parameterizedContainsTransformer);
+        parameterizedTransformers.put(SingleFilterOperator.NOT_CONTAINS, this::parameterizedNotContainsTransformer);
+        parameterizedTransformers.put(SingleFilterOperator.IN, this::parameterizedInTransformer);
+        parameterizedTransformers.put(SingleFilterOperator.NOT_IN, this::parameterizedNotInTransformer);
     }
 
     private void initializeGreaterThanHandlers() {
@@ -64,10 +85,29 @@ public class PredicateFactory {
         lessThanHandlers.put(byte.class, this::buildLessThanByte);
     }
 
-    public PredicateFactory() {
+    public PredicateFactory(
+            FilterUsageTracker filterUsageTracker,
+            @Value("${criteria.in.array-threshold:10000}") int inArrayThreshold
+    ) {
+        this.filterUsageTracker = filterUsageTracker;
+        this.inArrayThreshold = inArrayThreshold;
         initializeLessThanHandlers();
         initializeGreaterThanHandlers();
         initializeHandlers();
+        initializeParameterizedHandlers();
+    }
+
+    // Called once per criteria by the repository that runs it. Not from the converters: Spring Data calls
+    // toPredicate again for count queries, and the plan cache builds predicates only once per shape.
+    public void recordUsage(Class<?> aggregateClass, List<Filter> filters) {
+        filterUsageTracker.record(aggregateClass, filters);
+    }
+
+    // IN/NOT_IN lists this long are bound as one array parameter instead of one parameter per value. The choice
+    // changes the SQL, so it is part of the criteria shape the compiled query is cached under.
+    public boolean isArrayBound(SingleFilter<?> filter) {
+        return (filter.getOperator() == SingleFilterOperator.IN || filter.getOperator() == SingleFilterOperator.NOT_IN)
+                && FilterValueCoercer.count(filter.getValue()) >= inArrayThreshold;
     }
 
     public Predicate generateSingleFilterPredicate(CriteriaBuilder builder, SingleFilter<?> filter, Path<?> path){
@@ -80,6 +120,20 @@ public class PredicateFactory {
         return transformer.apply(builder, filter, path);
     }
 
+    public Predicate generateParameterizedPredicate(CriteriaBuilder builder, SingleFilter<?> filter, Path<?> path, List<ParameterBinding> bindings) {
+
+        if (isArrayBound(filter)) {
+            return parameterizedInArray(builder, path, bindings, filter.getOperator() == SingleFilterOperator.NOT_IN);
+        }
+
+        TriFunction<CriteriaBuilder, Path<?>, List<ParameterBinding>, Predicate> transformer = parameterizedTransformers.get(filter.getOperator());
+        if (transformer == null) {
+            throw new IllegalArgumentException("Unsupported operator: " + filter.getOperator());
+        }
+
+        return transformer.apply(builder, path, bindings);
+    }
+
     private Predicate equalsPredicateTransformer(CriteriaBuilder builder, SingleFilter<?> filter, Path<?> path) {
         return builder.equal(path, filter.getValue());
     }
@@ -139,11 +193,22 @@ public class PredicateFactory {
         return builder.or(predicates);
     }
 
+    // Specifications get no parameter binding step, so values go in as value bound parameters (never inlined
+    // literals) in the same SQL shapes as the compiled queries: = ANY(?) from the array threshold on, otherwise
+    // an IN list padded to a power of two like hibernate.query.in_clause_parameter_padding does
     private Predicate inPredicateTransformer(CriteriaBuilder builder, SingleFilter<?> filter, Path<?> path) {
-        String[] values = ((String) filter.getValue()).split(",");
-        List<String> valueList = Arrays.asList(values);
+        HibernateCriteriaBuilder hibernateBuilder = (HibernateCriteriaBuilder) builder;
+        Class<?> elementType = FilterValueCoercer.boxed(path.getJavaType());
+        boolean negated = filter.getOperator() == SingleFilterOperator.NOT_IN;
+
+        if (isArrayBound(filter)) {
+            return inArray(builder, path, hibernateBuilder.value(toArray(filter.getValue(), elementType)), negated);
+        }
 
-        return path.in(valueList);
+        List<Object> values = padded(FilterValueCoercer.coerceAll(filter.getValue(), elementType));
+        Expression<?>[] parameters = values.stream().map(hibernateBuilder::value).toArray(Expression<?>[]::new);
+        Predicate in = path.in(parameters);
+        return negated ? builder.not(in) : in;
     }
 
     private Predicate isNullTransformer(CriteriaBuilder builder, SingleFilter<?> filter, Path<?> path) {
@@ -197,4 +262,119 @@ public class PredicateFactory {
     private Predicate buildLessThanByte(CriteriaBuilder builder, Path<?> path, Number filterValue) {
         return builder.lessThan(path.as(Byte.class), filterValue.byteValue());
     }
-}
\ No newline at end of file
+
+    private Predicate parameterizedEqualsTransformer(CriteriaBuilder builder, Path<?> path, List<ParameterBinding> bindings) {
+        return builder.equal(path, typedParameter(builder, path.getJavaType(), bindings));
+    }
+
+    private Predicate parameterizedNotEqualsTransformer(CriteriaBuilder builder, Path<?> path, List<ParameterBinding> bindings) {
+        return builder.notEqual(path, typedParameter(builder, path.getJavaType(), bindings));
+    }
+
+    private Predicate parameterizedGreaterThanTransformer(CriteriaBuilder builder, Path<?> path, List<ParameterBinding> bindings) {
+        return parameterizedNumericComparison(builder, path, bindings, true);
+    }
+
+    private Predicate parameterizedLowerThanTransformer(CriteriaBuilder builder, Path<?> path, List<ParameterBinding> bindings) {
+        return parameterizedNumericComparison(builder, path, bindings, false);
+    }
+
+    private Predicate parameterizedContainsTransformer(CriteriaBuilder builder, Path<?> path, List<ParameterBinding> bindings) {
+        return builder.like(path.as(String.class), likeParameter(builder, bindings));
+    }
+
+    private Predicate parameterizedNotContainsTransformer(CriteriaBuilder builder, Path<?> path, List<ParameterBinding> bindings) {
+        return builder.notLike(path.as(String.class), likeParameter(builder, bindings));
+    }
+
+    @SuppressWarnings("rawtypes")
+    private Predicate parameterizedInTransformer(CriteriaBuilder builder, Path<?> path, List<ParameterBinding> bindings) {
+        // A single collection valued parameter, expanded by Hibernate when the values are bound. Values are coerced
+        // to the attribute type, and hibernate.query.in_clause_parameter_padding rounds the number of placeholders
+        // up to a power of two so lists of similar length share one SQL string
+        Class<?> pathJavaType = path.getJavaType();
+        ParameterExpression<List> parameter = builder.parameter(List.class);
+        bindings.add(new ParameterBinding(parameter, value -> FilterValueCoercer.coerceAll(value, pathJavaType)));
+        return path.in(parameter);
+    }
+
+    private Predicate parameterizedNotInTransformer(CriteriaBuilder builder, Path<?> path, List<ParameterBinding> bindings) {
+        return builder.not(parameterizedInTransformer(builder, path, bindings));
+    }
+
+    // column = ANY(?) with the whole list in one typed array parameter (see CriteriaFunctionContributor), the SQL
+    // doesn't grow with the list and databases like H2 and PostgreSQL can still use an index on the column
+    private Predicate parameterizedInArray(CriteriaBuilder builder, Path<?> path, List<ParameterBinding> bindings, boolean negated) {
+        Class<?> elementType = FilterValueCoercer.boxed(path.getJavaType());
+        Class<?> arrayType = Array.newInstance(elementType, 0).getClass();
+        ParameterExpression<?> parameter = builder.parameter(arrayType);
+        bindings.add(new ParameterBinding(parameter, value -> toArray(value, elementType)));
+        return inArray(builder, path, parameter, negated);
+    }
+
+    private Predicate inArray(CriteriaBuilder builder, Path<?> path, Expression<?> array, boolean negated) {
+        Predicate inArray = builder.isTrue(builder.function(CriteriaFunctionContributor.IN_ARRAY, Boolean.class, path, array));
+        return negated ? builder.not(inArray) : inArray;
+    }
+
+    private static Object toArray(Object value, Class<?> elementType) {
+        List<Object> values = FilterValueCoercer.coerceAll(value, elementType);
+        Object array = Array.newInstance(elementType, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            Array.set(array, i, values.get(i));
+        }
+        return array;
+    }
+
+    // Repeats the last value up to the next power of two, the duplicates don't change the result
+    private static List<Object> padded(List<Object> values) {
+        int size = values.size();
+        if (size < 2 || Integer.bitCount(size) == 1) return values;
+
+        List<Object> padded = new ArrayList<>(Integer.highestOneBit(size) << 1);
+        padded.addAll(values);
+        while (padded.size() < Integer.highestOneBit(size) << 1) {
+            padded.add(values.get(size - 1));
+        }
+        return padded;
+    }
+
+    private <V> ParameterExpression<V> typedParameter(CriteriaBuilder builder, Class<V> type, List<ParameterBinding> bindings) {
+        Class<V> parameterType = FilterValueCoercer.boxed(type);
+        ParameterExpression<V> parameter = builder.parameter(parameterType);
+        bindings.add(new ParameterBinding(parameter, value -> FilterValueCoercer.coerce(value, parameterType)));
+        return parameter;
+    }
+
+    private ParameterExpression<String> likeParameter(CriteriaBuilder builder, List<ParameterBinding> bindings) {
+        ParameterExpression<String> parameter = builder.parameter(String.class);
+        bindings.add(new ParameterBinding(parameter, value -> String.format("%%%s%%", value)));
+        return parameter;
+    }
+
+    private Predicate parameterizedNumericComparison(CriteriaBuilder builder, Path<?> path, List<ParameterBinding> bindings, boolean greaterThan) {
+        Class<?> pathJavaType = FilterValueCoercer.boxed(path.getJavaType());
+
+        if (pathJavaType == Integer.class) return parameterizedComparison(builder, path, Integer.class, bindings, greaterThan);
+        if (pathJavaType == Long.class) return parameterizedComparison(builder, path, Long.class, bindings, greaterThan);
+        if (pathJavaType == Double.class) return parameterizedComparison(builder, path, Double.class, bindings, greaterThan);
+        if (pathJavaType == Float.class) return parameterizedComparison(builder, path, Float.class, bindings, greaterThan);
+        if (pathJavaType == Short.class) return parameterizedComparison(builder, path, Short.class, bindings, greaterThan);
+        if (pathJavaType == Byte.class) return parameterizedComparison(builder, path, Byte.class, bindings, greaterThan);
+
+        throw new IllegalArgumentException("Error: Unsupported numeric type for '" + (greaterThan ? "greaterThan" : "lessThan") + "' predicate on field with type: " + pathJavaType.getName());
+    }
+
+    private <N extends Number & Comparable<? super N>> Predicate parameterizedComparison(CriteriaBuilder builder, Path<?> path, Class<N> type, List<ParameterBinding> bindings, boolean greaterThan) {
+        ParameterExpression<N> parameter = builder.parameter(type);
+        bindings.add(new ParameterBinding(parameter, value -> {
+            if (!(value instanceof Number)) throw new RuntimeException("Error, filter value must be Number");
+            return FilterValueCoercer.coerce(value, type);
+        }));
+
+        // The path already has this type, comparing it directly keeps a CAST out of the SQL so an index on the column can be used
+        @SuppressWarnings("unchecked")
+        Expression<N> expression = FilterValueCoercer.boxed(path.getJavaType()) == type ? (Expression<N>) path : path.as(type);
+        return greaterThan ? builder.greaterThan(expression, parameter) : builder.lessThan(expression, parameter);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Bounded LRU cache for compiled query plans with hit, miss and eviction counters.
+public class QueryPlanCache<K, V> {
+
+    private final int maxSize;
+    private final Map<K, V> plans;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public QueryPlanCache(int maxSize) {
+        if (maxSize < 1) throw new IllegalArgumentException("Query plan cache size must be at least 1");
+
+        this.maxSize = maxSize;
+        this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                boolean evict = size() > QueryPlanCache.this.maxSize;
+                if (evict) evictions.incrementAndGet();
+                return evict;
+            }
+        };
+    }
+
+    public V get(K key, Function<K, V> compiler) {
+        V plan;
+        synchronized (plans) {
+            plan = plans.get(key);
+        }
+
+        if (plan != null) {
+            hits.incrementAndGet();
+            return plan;
+        }
+
+        // Compile outside the lock, two threads racing on the same new shape just keep the first plan
+        misses.incrementAndGet();
+        V compiled = compiler.apply(key);
+        synchronized (plans) {
+            V existing = plans.putIfAbsent(key, compiled);
+            return existing != null ? existing : compiled;
+        }
+    }
+
+    public QueryPlanCacheStats stats() {
+        int size;
+        synchronized (plans) {
+            size = plans.size();
+        }
+        return new QueryPlanCacheStats(hits.get(), misses.get(), evictions.get(), size, maxSize);
+    }
+
+    public void clear() {
+        synchronized (plans) {
+            plans.clear();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+// Same order as the databases compare UUIDs in (H2, PostgreSQL): unsigned, most significant bits first.
+// UUID.compareTo compares signed and disagrees with ORDER BY id for about half of all pairs.
+public final class UuidOrder {
+
+    public static final Comparator<UUID> UNSIGNED = (left, right) -> {
+        int high = Long.compareUnsigned(left.getMostSignificantBits(), right.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(left.getLeastSignificantBits(), right.getLeastSignificantBits());
+    };
+
+    private UuidOrder() {
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.common.infrastructure.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+// Carries the time of a client's last committed write between its requests, so the read-your-writes window is
+// per client. The cookie is set when a write of the request commits, which is before the controller returns.
+// A forged or stale value only decides where that one client's reads go.
+public class LastWriteCookieFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE_NAME = "last-write";
+
+    private final Duration stickyWindow;
+
+    public LastWriteCookieFilter(Duration stickyWindow) {
+        this.stickyWindow = stickyWindow;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ReadRoutingContext.bind(new ReadRoutingContext(
+                hasRecentWrite(request),
+                writeMillis -> response.addHeader(HttpHeaders.SET_COOKIE, cookie(writeMillis))
+        ));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadRoutingContext.clear();
+        }
+    }
+
+    private String cookie(long writeMillis) {
+        // Rounded up, so the cookie doesn't expire before the window it stands for
+        long maxAgeSeconds = Math.max(1, (stickyWindow.toMillis() + 999) / 1000);
+        return ResponseCookie.from(COOKIE_NAME, Long.toString(writeMillis))
+                .path("/")
+                .httpOnly(true)
+                .sameSite("Lax")
+                .maxAge(maxAgeSeconds)
+                .build()
+                .toString();
+    }
+
+    private boolean hasRecentWrite(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) return false;
+
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    // Clocks of different instances drift a little, a time slightly in the future still counts as recent
+                    long age = System.currentTimeMillis() - Long.parseLong(cookie.getValue());
+                    return age > -stickyWindow.toMillis() && age < stickyWindow.toMillis();
+                } catch (NumberFormatException ex) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
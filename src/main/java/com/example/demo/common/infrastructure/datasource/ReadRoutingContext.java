@@ -0,0 +1,61 @@
+package com.example.demo.common.infrastructure.datasource;
+
+import java.util.function.LongConsumer;
+
+// Per-thread state of the read/write routing:
+// - whether the client behind the current request wrote within the sticky window, bound by LastWriteCookieFilter.
+//   Only that client's reads stay on the primary after its write, everyone else keeps reading from the replicas.
+// - how many reads a replica served on this thread. Callers compare the count before and after a read to tell
+//   whether its result may trail the primary.
+public final class ReadRoutingContext {
+
+    private static final ThreadLocal<ReadRoutingContext> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<long[]> REPLICA_READS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final LongConsumer onWrite;
+    private boolean sticky;
+
+    // Decided once per request, so a read can't switch to a replica halfway through the request
+    ReadRoutingContext(boolean sticky, LongConsumer onWrite) {
+        this.sticky = sticky;
+        this.onWrite = onWrite;
+    }
+
+    static void bind(ReadRoutingContext context) {
+        CURRENT.set(context);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    // Reads outside a request (startup, schedulers) have no client to keep consistent with
+    static boolean isSticky() {
+        ReadRoutingContext context = CURRENT.get();
+        return context != null && context.sticky;
+    }
+
+    // Called once a read-write transaction of the current thread commits
+    static void markWrite() {
+        ReadRoutingContext context = CURRENT.get();
+        if (context != null) {
+            context.sticky = true;
+            context.onWrite.accept(System.currentTimeMillis());
+        }
+    }
+
+    static void countReplicaRead() {
+        REPLICA_READS.get()[0]++;
+    }
+
+    public static long replicaReads() {
+        return REPLICA_READS.get()[0];
+    }
+
+    // Whether read-only transactions of the current request will be served by a replica: routing is configured
+    // (the filter only exists then) and the client hasn't written within the sticky window
+    public static boolean readsGoToReplica() {
+        ReadRoutingContext context = CURRENT.get();
+        return context != null && !context.sticky;
+    }
+}
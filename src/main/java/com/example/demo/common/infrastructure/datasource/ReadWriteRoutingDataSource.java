@@ -0,0 +1,123 @@
+package com.example.demo.common.infrastructure.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Read-only transactions go to a replica, everything else (writes, reads outside a transaction, schema setup)
+// to the primary. Has to sit behind a LazyConnectionDataSourceProxy: the transaction manager asks for the
+// connection before the read-only flag is bound to the thread, the proxy defers that until the first statement.
+// Read-your-writes is per client, see ReadRoutingContext and LastWriteCookieFilter.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final String PRIMARY = "primary";
+
+    private final List<HikariDataSource> replicas;
+    private final ReplicaBalancing balancing;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final AtomicLong primaryReads = new AtomicLong();
+    private final AtomicLong stickyReads = new AtomicLong();
+    private final AtomicLong[] replicaReads;
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                      ReplicaBalancing balancing) {
+        this.replicas = replicas;
+        this.balancing = balancing;
+        this.replicaReads = new AtomicLong[replicas.size()];
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+            replicaReads[i] = new AtomicLong();
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite();
+            return PRIMARY;
+        }
+
+        if (replicas.isEmpty()) {
+            primaryReads.incrementAndGet();
+            return PRIMARY;
+        }
+
+        // Read-your-writes: replicas may still lag behind a commit of this client, so its reads stay on the primary
+        // for a while
+        if (ReadRoutingContext.isSticky()) {
+            primaryReads.incrementAndGet();
+            stickyReads.incrementAndGet();
+            return PRIMARY;
+        }
+
+        int replica = balancing == ReplicaBalancing.LEAST_OUTSTANDING ? leastOutstandingReplica() : nextRoundRobinReplica();
+        replicaReads[replica].incrementAndGet();
+        ReadRoutingContext.countReplicaRead();
+        return replica;
+    }
+
+    // Read-write transactions count as writes once they commit, whether or not they changed anything
+    private void trackWrite() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ReadRoutingContext.markWrite();
+                }
+            });
+        }
+    }
+
+    public RoutingStatsDto stats() {
+        long[] reads = new long[replicaReads.length];
+        for (int i = 0; i < reads.length; i++) {
+            reads[i] = replicaReads[i].get();
+        }
+        return new RoutingStatsDto(balancing, primaryReads.get(), stickyReads.get(), reads);
+    }
+
+    // The replica pools are owned here, the primary is a bean of its own
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+    }
+
+    private int nextRoundRobinReplica() {
+        return Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+    }
+
+    // Fewest connections currently handed out, ties go round-robin so an idle set doesn't pile onto replica 0
+    private int leastOutstandingReplica() {
+        int start = nextRoundRobinReplica();
+        int best = start;
+        int bestActive = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            int replica = (start + i) % replicas.size();
+            int active = activeConnections(replicas.get(replica));
+            if (active < bestActive) {
+                best = replica;
+                bestActive = active;
+            }
+        }
+        return best;
+    }
+
+    private static int activeConnections(HikariDataSource dataSource) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getActiveConnections(); // The pool starts on the first connection
+    }
+}
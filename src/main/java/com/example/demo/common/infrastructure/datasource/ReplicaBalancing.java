@@ -0,0 +1,6 @@
+package com.example.demo.common.infrastructure.datasource;
+
+public enum ReplicaBalancing {
+    ROUND_ROBIN,
+    LEAST_OUTSTANDING
+}
@@ -0,0 +1,14 @@
+package com.example.demo.common.infrastructure.datasource;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RoutingStatsDto {
+    private ReplicaBalancing balancing;
+    private long primaryReads;
+    // Read-only transactions kept on the primary because their client wrote within the sticky window
+    private long stickyReads;
+    private long[] replicaReads;
+}
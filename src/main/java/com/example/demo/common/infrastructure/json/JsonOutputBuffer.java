@@ -0,0 +1,215 @@
+package com.example.demo.common.infrastructure.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.UUID;
+
+// Growable UTF-8 byte buffer with the JSON primitives the hand written writers need. Numbers, UUIDs and
+// strings are encoded straight into the buffer without intermediate Strings. Buffers are reused through
+// JsonOutputBufferPool, so the allocation per response is just whatever the buffer had to grow by.
+public final class JsonOutputBuffer {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+    // Jackson escapes control characters with upper case hex digits (u001F), UUIDs are lower case
+    private static final byte[] ESCAPE_HEX = "0123456789ABCDEF".getBytes();
+    private static final byte[] NULL = "null".getBytes();
+    private static final byte[] ZERO = "0.0".getBytes();
+    private static final byte[] NEGATIVE_ZERO = "-0.0".getBytes();
+    private static final byte[] REPLACEMENT_CHARACTER = {(byte) 0xEF, (byte) 0xBF, (byte) 0xBD};
+
+    private byte[] bytes;
+    private int position;
+
+    public JsonOutputBuffer(int initialCapacity) {
+        this.bytes = new byte[initialCapacity];
+    }
+
+    public int size() {
+        return position;
+    }
+
+    public int capacity() {
+        return bytes.length;
+    }
+
+    public void reset() {
+        position = 0;
+    }
+
+    // Writes the buffered bytes to the stream and empties the buffer
+    public void drainTo(OutputStream outputStream) throws IOException {
+        outputStream.write(bytes, 0, position);
+        position = 0;
+    }
+
+    public void writeByte(char value) {
+        ensureCapacity(1);
+        bytes[position++] = (byte) value;
+    }
+
+    public void writeBytes(byte[] value) {
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, bytes, position, value.length);
+        position += value.length;
+    }
+
+    public void writeNull() {
+        writeBytes(NULL);
+    }
+
+    public void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value));
+            return;
+        }
+
+        ensureCapacity(20);
+        if (value < 0) {
+            bytes[position++] = '-';
+            value = -value;
+        }
+
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) digits++;
+
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+
+    // Same text as Double.toString (and Jackson). Values with at most two decimals below 1e7, prices in practice,
+    // are written digit by digit: no shorter decimal can round to the same double there, so it is the shortest form.
+    public void writeDouble(double value) {
+        if (value == 0) {
+            writeBytes(Double.doubleToRawLongBits(value) < 0 ? NEGATIVE_ZERO : ZERO);
+            return;
+        }
+
+        double magnitude = Math.abs(value);
+        if (magnitude >= 1e-2 && magnitude < 1e7) {
+            long cents = Math.round(magnitude * 100);
+            if (cents / 100.0 == magnitude) {
+                if (value < 0) writeByte('-');
+                writeLong(cents / 100);
+                writeByte('.');
+
+                int fraction = (int) (cents % 100);
+                ensureCapacity(2);
+                bytes[position++] = (byte) ('0' + fraction / 10);
+                if (fraction % 10 != 0) {
+                    bytes[position++] = (byte) ('0' + fraction % 10);
+                }
+                return;
+            }
+        }
+
+        // NaN and the infinities are not JSON numbers, Jackson quotes them (QUOTE_NON_NUMERIC_NUMBERS)
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            writeByte('"');
+            writeAscii(Double.toString(value));
+            writeByte('"');
+            return;
+        }
+
+        writeAscii(Double.toString(value));
+    }
+
+    public void writeUuid(UUID value) {
+        ensureCapacity(38);
+        bytes[position++] = '"';
+        writeHex(value.getMostSignificantBits() >>> 32, 8);
+        bytes[position++] = '-';
+        writeHex(value.getMostSignificantBits() >>> 16, 4);
+        bytes[position++] = '-';
+        writeHex(value.getMostSignificantBits(), 4);
+        bytes[position++] = '-';
+        writeHex(value.getLeastSignificantBits() >>> 48, 4);
+        bytes[position++] = '-';
+        writeHex(value.getLeastSignificantBits(), 12);
+        bytes[position++] = '"';
+    }
+
+    // Quoted and escaped like Jackson does by default: ", \ and control characters, everything else as UTF-8
+    public void writeString(String value) {
+        int length = value.length();
+        ensureCapacity(length + 2);
+        bytes[position++] = '"';
+
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                ensureCapacity(1);
+                bytes[position++] = (byte) c;
+            } else if (c < 0x80) {
+                writeEscaped(c);
+            } else if (c < 0x800) {
+                ensureCapacity(2);
+                bytes[position++] = (byte) (0xC0 | (c >> 6));
+                bytes[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                ensureCapacity(4);
+                bytes[position++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                writeBytes(REPLACEMENT_CHARACTER); // Unpaired surrogate, not encodable as UTF-8
+            } else {
+                ensureCapacity(3);
+                bytes[position++] = (byte) (0xE0 | (c >> 12));
+                bytes[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        ensureCapacity(1);
+        bytes[position++] = '"';
+    }
+
+    private void writeEscaped(char c) {
+        ensureCapacity(6);
+        bytes[position++] = '\\';
+        switch (c) {
+            case '"' -> bytes[position++] = '"';
+            case '\\' -> bytes[position++] = '\\';
+            case '\n' -> bytes[position++] = 'n';
+            case '\r' -> bytes[position++] = 'r';
+            case '\t' -> bytes[position++] = 't';
+            case '\b' -> bytes[position++] = 'b';
+            case '\f' -> bytes[position++] = 'f';
+            default -> {
+                bytes[position++] = 'u';
+                bytes[position++] = '0';
+                bytes[position++] = '0';
+                bytes[position++] = ESCAPE_HEX[c >> 4];
+                bytes[position++] = ESCAPE_HEX[c & 0xF];
+            }
+        }
+    }
+
+    private void writeHex(long value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            bytes[position + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        position += digits;
+    }
+
+    private void writeAscii(String value) {
+        ensureCapacity(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            bytes[position++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void ensureCapacity(int additional) {
+        if (position + additional > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, position + additional));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.common.infrastructure.json;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Bounded pool of output buffers shared by all request threads. A queue rather than a ThreadLocal, so it
+// stays small with virtual threads. Writers drain a buffer once it reaches the flush threshold, buffers that
+// still grew far beyond it are dropped instead of being kept around.
+@Component
+public class JsonOutputBufferPool {
+
+    private final BlockingQueue<JsonOutputBuffer> buffers;
+    private final int flushThreshold;
+
+    public JsonOutputBufferPool(
+            @Value("${json.buffer-pool.size:64}") int poolSize,
+            @Value("${json.buffer-pool.flush-threshold:65536}") int flushThreshold
+    ) {
+        this.buffers = new ArrayBlockingQueue<>(poolSize);
+        this.flushThreshold = flushThreshold;
+    }
+
+    public JsonOutputBuffer acquire() {
+        JsonOutputBuffer buffer = buffers.poll();
+        return buffer != null ? buffer : new JsonOutputBuffer(flushThreshold + flushThreshold / 4);
+    }
+
+    public void release(JsonOutputBuffer buffer) {
+        buffer.reset();
+        if (buffer.capacity() <= flushThreshold * 4) {
+            buffers.offer(buffer);
+        }
+    }
+
+    public int flushThreshold() {
+        return flushThreshold;
+    }
+}
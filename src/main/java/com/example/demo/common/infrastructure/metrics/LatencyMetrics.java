@@ -0,0 +1,80 @@
+package com.example.demo.common.infrastructure.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Registry of latency timers. Timers are looked up once, when the instrumented bean is created,
+// and percentiles are computed over a rolling window of the last few intervals.
+@Component
+public class LatencyMetrics {
+
+    private final ConcurrentMap<String, LatencyTimer> timers = new ConcurrentHashMap<>();
+    private final int windowIntervals;
+    private final long intervalNanos;
+    private int rotations;
+
+    public LatencyMetrics(
+            @Value("${metrics.latency.interval:10s}") Duration interval,
+            @Value("${metrics.latency.window:1m}") Duration window
+    ) {
+        this.intervalNanos = interval.toNanos();
+        this.windowIntervals = (int) Math.max(1, window.toNanos() / intervalNanos);
+    }
+
+    public LatencyTimer timer(String name) {
+        return timers.computeIfAbsent(name, key -> new LatencyTimer(key, windowIntervals));
+    }
+
+    @Scheduled(fixedRateString = "${metrics.latency.interval:10s}")
+    public synchronized void rotate() {
+        rotations = Math.min(rotations + 1, windowIntervals);
+
+        // Until the window fills up the rate is over the intervals seen so far
+        long windowNanos = rotations * intervalNanos;
+        timers.values().forEach(timer -> timer.rotate(windowNanos));
+    }
+
+    public List<LatencySnapshotDto> snapshots() {
+        return timers.values().stream()
+                .map(LatencyTimer::snapshot)
+                .sorted(Comparator.comparing(LatencySnapshotDto::getName))
+                .toList();
+    }
+
+    // Prometheus text exposition format, one summary with a quantile per percentile and a rate gauge
+    public String prometheus() {
+        StringBuilder text = new StringBuilder();
+        List<LatencySnapshotDto> snapshots = snapshots();
+
+        text.append("# HELP app_latency_seconds Latency of use cases and repository operations over the rolling window\n");
+        text.append("# TYPE app_latency_seconds summary\n");
+        for (LatencySnapshotDto snapshot : snapshots) {
+            String timer = "timer=\"" + snapshot.getName() + "\"";
+            quantile(text, timer, "0.5", snapshot.getP50Millis());
+            quantile(text, timer, "0.9", snapshot.getP90Millis());
+            quantile(text, timer, "0.99", snapshot.getP99Millis());
+            quantile(text, timer, "0.999", snapshot.getP999Millis());
+            text.append(String.format(Locale.ROOT, "app_latency_seconds_sum{%s} %.6f%n", timer, snapshot.getTotalSeconds()));
+            text.append(String.format(Locale.ROOT, "app_latency_seconds_count{%s} %d%n", timer, snapshot.getTotalCount()));
+        }
+
+        text.append("# HELP app_latency_rate_per_second Operations per second over the rolling window\n");
+        text.append("# TYPE app_latency_rate_per_second gauge\n");
+        for (LatencySnapshotDto snapshot : snapshots) {
+            text.append(String.format(Locale.ROOT, "app_latency_rate_per_second{timer=\"%s\"} %.3f%n", snapshot.getName(), snapshot.getRatePerSecond()));
+        }
+        return text.toString();
+    }
+
+    private static void quantile(StringBuilder text, String timer, String quantile, double millis) {
+        text.append(String.format(Locale.ROOT, "app_latency_seconds{%s,quantile=\"%s\"} %.6f%n", timer, quantile, millis / 1000));
+    }
+}
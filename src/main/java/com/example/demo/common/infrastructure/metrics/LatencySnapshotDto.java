@@ -0,0 +1,45 @@
+package com.example.demo.common.infrastructure.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.HdrHistogram.Histogram;
+
+// Rolling window view of a timer, latencies in milliseconds
+@Data
+@AllArgsConstructor
+public class LatencySnapshotDto {
+    private String name;
+    private double windowSeconds;
+    private long count;
+    private double ratePerSecond;
+    private double meanMillis;
+    private double p50Millis;
+    private double p90Millis;
+    private double p99Millis;
+    private double p999Millis;
+    private double maxMillis;
+    private long totalCount;
+    private double totalSeconds;
+
+    static LatencySnapshotDto empty(String name) {
+        return new LatencySnapshotDto(name, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    static LatencySnapshotDto of(String name, Histogram window, long windowNanos, long totalCount, double totalSeconds) {
+        double windowSeconds = windowNanos / 1e9;
+        return new LatencySnapshotDto(
+                name,
+                windowSeconds,
+                window.getTotalCount(),
+                windowSeconds == 0 ? 0 : window.getTotalCount() / windowSeconds,
+                window.getMean() / 1e6,
+                window.getValueAtPercentile(50) / 1e6,
+                window.getValueAtPercentile(90) / 1e6,
+                window.getValueAtPercentile(99) / 1e6,
+                window.getValueAtPercentile(99.9) / 1e6,
+                window.getMaxValue() / 1e6,
+                totalCount,
+                totalSeconds
+        );
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.common.infrastructure.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+
+// Latency of one named operation. Recording is wait-free and allocation free: the Recorder writes into
+// the active histogram and the metrics rotation swaps it out once per interval.
+//
+//   long start = timer.start();
+//   try { ... } finally { timer.stop(start); }
+public class LatencyTimer {
+
+    static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final String name;
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+    private final Histogram[] window; // Ring of the last interval histograms, only touched by rotate()
+    private int nextSlot;
+    private Histogram recycled;
+    private long totalCount;
+    private double totalSeconds;
+    private volatile LatencySnapshotDto snapshot;
+
+    LatencyTimer(String name, int windowIntervals) {
+        this.name = name;
+        this.window = new Histogram[windowIntervals];
+        this.snapshot = LatencySnapshotDto.empty(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void stop(long startNanos) {
+        recorder.recordValue(Math.min(System.nanoTime() - startNanos, HIGHEST_TRACKABLE_NANOS));
+    }
+
+    public LatencySnapshotDto snapshot() {
+        return snapshot;
+    }
+
+    // Called by a single thread once per interval, the histogram dropped from the window is reused by the recorder
+    synchronized void rotate(long windowNanos) {
+        Histogram interval = recorder.getIntervalHistogram(recycled);
+        totalCount += interval.getTotalCount();
+        totalSeconds += interval.getMean() * interval.getTotalCount() / 1e9;
+
+        recycled = window[nextSlot];
+        window[nextSlot] = interval;
+        nextSlot = (nextSlot + 1) % window.length;
+
+        Histogram rolling = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        for (Histogram histogram : window) {
+            if (histogram != null) rolling.add(histogram);
+        }
+        snapshot = LatencySnapshotDto.of(name, rolling, windowNanos, totalCount, totalSeconds);
+    }
+}
@@ -1,10 +1,25 @@
 package com.example.demo.products.application.dtos.request;
 
 import com.example.demo.common.application.dtos.PaginationQueryDto;
+import jakarta.validation.constraints.Pattern;
 
+import java.util.Optional;
 
 public class GetPaginatedProductsQueryDto extends PaginationQueryDto {
-    public GetPaginatedProductsQueryDto(Integer limit, Integer page) {
-        super(limit, page);
+
+    @Pattern(regexp = ProductFields.PATTERN, message = ProductFields.PATTERN_MESSAGE)
+    public String fields;
+
+    // Offset pages only, false skips totalPages/totalElements and just reports hasNext
+    public Boolean includeTotal;
+
+    public GetPaginatedProductsQueryDto(Integer limit, Integer page, String cursor, Boolean keyset, String fields, Boolean includeTotal) {
+        super(limit, page, cursor, keyset);
+        this.fields = fields;
+        this.includeTotal = Optional.ofNullable(includeTotal).orElse(true);
+    }
+
+    public ProductFields getFieldSelection() {
+        return ProductFields.parse(fields);
     }
 }
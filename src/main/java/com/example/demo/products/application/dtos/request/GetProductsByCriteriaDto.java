@@ -1,6 +1,7 @@
 package com.example.demo.products.application.dtos.request;
 
 import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
@@ -15,6 +16,9 @@ public class GetProductsByCriteriaDto {
     @Size(min = 1, max = 50, message = "Product name filter length must be min 3 characters max 50 characters ")
     String name;
 
+    @Size(min = 1, max = 50, message = "Product name contains filter length must be min 1 character max 50 characters")
+    String nameContains;
+
     @Positive(message = "Product max price filter must be higher than zero")
     Double maxPrice;
 
@@ -26,16 +30,41 @@ public class GetProductsByCriteriaDto {
     @PositiveOrZero(message = "Product quantity filter must be zero or higher")
     Long quantity;
 
+    @Pattern(regexp = ProductFields.PATTERN, message = ProductFields.PATTERN_MESSAGE)
+    String fields;
+
+    @Pattern(regexp = "id|name|price|quantity", message = "Order by must be one of id, name, price or quantity")
+    String orderBy;
+
+    @Pattern(regexp = "(?i)asc|desc", message = "Order type must be asc or desc")
+    String orderType;
+
+    // Capped on the server (products.criteria.max-limit): larger limits are rejected, requests without one get the cap
+    @Positive(message = "Limit must be higher than zero")
+    Integer limit;
+
+    @PositiveOrZero(message = "Offset must be zero or higher")
+    Integer offset;
+
     @AssertTrue(message = "The minimum price cannot be higher than the maximum price")
     public boolean isPriceRangeValid() {
         if (minPrice == null || maxPrice == null) return true;
         return minPrice <= maxPrice;
     }
 
+    @AssertTrue(message = "Order type requires order by")
+    public boolean isOrderTypeWithOrderBy() {
+        return orderType == null || orderBy != null;
+    }
+
     public Optional<String> getName(){
         return Optional.ofNullable(name);
     }
 
+    public Optional<String> getNameContains(){
+        return Optional.ofNullable(nameContains);
+    }
+
     public Optional<Boolean> getHasStock(){
         return Optional.ofNullable(hasStock);
     }
@@ -51,4 +80,24 @@ public class GetProductsByCriteriaDto {
     public Optional<Long> getQuantity(){
         return Optional.ofNullable(quantity);
     }
+
+    public Optional<String> getOrderBy(){
+        return Optional.ofNullable(orderBy);
+    }
+
+    public Optional<String> getOrderType(){
+        return Optional.ofNullable(orderType).map(String::toUpperCase);
+    }
+
+    public Optional<Integer> getLimit(){
+        return Optional.ofNullable(limit);
+    }
+
+    public Optional<Integer> getOffset(){
+        return Optional.ofNullable(offset);
+    }
+
+    public ProductFields getFieldSelection(){
+        return ProductFields.parse(fields);
+    }
 }
@@ -0,0 +1,15 @@
+package com.example.demo.products.application.dtos.request;
+
+import jakarta.validation.constraints.Pattern;
+import lombok.Value;
+
+@Value
+public class GetProductsQueryDto {
+
+    @Pattern(regexp = ProductFields.PATTERN, message = ProductFields.PATTERN_MESSAGE)
+    String fields;
+
+    public ProductFields getFieldSelection() {
+        return ProductFields.parse(fields);
+    }
+}
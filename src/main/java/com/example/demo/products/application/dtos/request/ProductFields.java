@@ -0,0 +1,64 @@
+package com.example.demo.products.application.dtos.request;
+
+import com.example.demo.products.domain.models.Product;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// Sparse fieldset of a product read (fields=name,price). Fields are kept in the canonical order below,
+// so the same selection always produces the same SQL and the same cache key.
+public final class ProductFields {
+
+    public static final List<String> ALL_FIELDS = List.of("id", "name", "price", "quantity");
+    public static final String PATTERN = "^\\s*(id|name|price|quantity)\\s*(,\\s*(id|name|price|quantity)\\s*)*$";
+    public static final String PATTERN_MESSAGE = "Fields must be a comma separated list of id, name, price and quantity";
+
+    private static final ProductFields ALL = new ProductFields(ALL_FIELDS);
+
+    private final List<String> selected;
+
+    private ProductFields(List<String> selected) {
+        this.selected = selected;
+    }
+
+    public static ProductFields all() {
+        return ALL;
+    }
+
+    // Expects a value already checked against PATTERN, blank means every field
+    public static ProductFields parse(String fields) {
+        if (fields == null || fields.isBlank()) return ALL;
+
+        List<String> requested = Arrays.stream(fields.split(",")).map(field -> field.trim().toLowerCase(Locale.ROOT)).toList();
+        List<String> selected = ALL_FIELDS.stream().filter(requested::contains).toList();
+        return selected.size() == ALL_FIELDS.size() ? ALL : new ProductFields(selected);
+    }
+
+    public List<String> selected() {
+        return selected;
+    }
+
+    public boolean contains(String field) {
+        return selected.contains(field);
+    }
+
+    public boolean isAll() {
+        return selected.size() == ALL_FIELDS.size();
+    }
+
+    // The product itself when every field is selected, otherwise a copy with the unselected fields left null
+    public Product select(Product product) {
+        if (isAll()) return product;
+        return new Product(
+                contains("id") ? product.getId() : null,
+                contains("name") ? product.getName() : null,
+                contains("price") ? product.getPrice() : null,
+                contains("quantity") ? product.getQuantity() : null
+        );
+    }
+
+    public String key() {
+        return String.join(",", selected);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.products.application.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CreateProductBatchItemResponseDto {
+    private int index; // Position of the item in the request body
+    private boolean created;
+    private GetProductResponseDto product;
+    private String error;
+
+    public static CreateProductBatchItemResponseDto created(int index, GetProductResponseDto product) {
+        return new CreateProductBatchItemResponseDto(index, true, product, null);
+    }
+
+    public static CreateProductBatchItemResponseDto failed(int index, String error) {
+        return new CreateProductBatchItemResponseDto(index, false, null, error);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.demo.products.application.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CreateProductsBatchResponseDto {
+    private List<CreateProductBatchItemResponseDto> items;
+    private int created;
+    private int failed;
+}
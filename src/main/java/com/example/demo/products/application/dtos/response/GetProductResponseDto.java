@@ -1,11 +1,17 @@
 package com.example.demo.products.application.dtos.response;
 
+import com.example.demo.products.application.dtos.request.ProductFields;
 import com.example.demo.products.domain.models.Product;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 
 import java.util.UUID;
 
+// Fields left out of a sparse fieldset are null and are not written
 @Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class GetProductResponseDto {
     private UUID id;
     private String name;
@@ -18,4 +24,11 @@ public class GetProductResponseDto {
         this.price = product.getPrice();
         this.quantity = product.getQuantity();
     }
+
+    public GetProductResponseDto(Product product, ProductFields fields){
+        this.id = fields.contains("id") ? product.getId() : null;
+        this.name = fields.contains("name") ? product.getName() : null;
+        this.price = fields.contains("price") ? product.getPrice() : null;
+        this.quantity = fields.contains("quantity") ? product.getQuantity() : null;
+    }
 }
@@ -0,0 +1,16 @@
+package com.example.demo.products.application.dtos.response;
+
+import com.example.demo.products.domain.models.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class GetProductsByCriteriaResponseDto {
+    // Only the requested fields are set
+    private List<Product> products;
+    // More rows match than the limit let through
+    private boolean hasMore;
+}
@@ -0,0 +1,14 @@
+package com.example.demo.products.application.events;
+
+import com.example.demo.products.domain.models.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// Published once products are committed, whatever path wrote them (single create, batch or import)
+@Getter
+@AllArgsConstructor
+public class ProductsCreatedEvent {
+    private final List<Product> products;
+}
@@ -0,0 +1,12 @@
+package com.example.demo.products.application.ports;
+
+import com.example.demo.common.domain.criteria.Criteria;
+import com.example.demo.products.domain.models.Product;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ProductCatalogIndex {
+    // Empty when the index can't answer the criteria (disabled, still loading or unsupported filters)
+    Optional<List<Product>> findByCriteria(Criteria criteria);
+}
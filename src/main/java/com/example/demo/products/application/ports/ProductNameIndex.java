@@ -0,0 +1,11 @@
+package com.example.demo.products.application.ports;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ProductNameIndex {
+    // Ids of the products whose name contains the fragment, empty when the index can't answer
+    // (disabled, still loading, behind the committed products, fragment too short or too many matches to be worth it)
+    Optional<List<UUID>> findIdsByNameContaining(String fragment);
+}
@@ -3,16 +3,33 @@ package com.example.demo.products.application.ports;
 import com.example.demo.common.application.dtos.PaginationResponseDto;
 import com.example.demo.common.domain.criteria.Criteria;
 import com.example.demo.products.application.dtos.request.GetPaginatedProductsQueryDto;
+import com.example.demo.products.application.dtos.request.ProductFields;
+import com.example.demo.products.application.dtos.response.GetProductResponseDto;
 import com.example.demo.products.domain.models.Product;
 import com.example.demo.products.infrastructure.entities.ProductEntity;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface ProductRepository {
     List<Product> getProducts();
+    Optional<Product> getProductById(UUID id);
+    Optional<Product> getProductByName(String name);
+    void streamProducts(Consumer<Product> consumer);
     PaginationResponseDto<Product> getPaginatedProducts(GetPaginatedProductsQueryDto query);
+    PaginationResponseDto<Product> getKeysetPaginatedProducts(GetPaginatedProductsQueryDto query);
     Optional<Product> createProduct(Product product);
+    List<Optional<Product>> createProducts(List<Product> products);
+    List<String> getExistingProductNames(Collection<String> names);
+    // Committed products, read from the counter rows where the storage keeps them
+    long countProducts();
     List<Product> getProductsByCriteria(Criteria criteria);
     List<Product> getProductsByCriteriaSpecification(Criteria criteria);
+    // Read-only projections limited to the requested fields, the unselected ones are left null
+    void streamProductViews(ProductFields fields, Consumer<Product> consumer);
+    PaginationResponseDto<GetProductResponseDto> getPaginatedProductViews(GetPaginatedProductsQueryDto query, ProductFields fields);
+    List<Product> getProductViewsByCriteria(Criteria criteria, ProductFields fields);
 }
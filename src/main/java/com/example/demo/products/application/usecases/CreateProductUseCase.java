@@ -1,5 +1,7 @@
 package com.example.demo.products.application.usecases;
 
+import com.example.demo.common.infrastructure.metrics.LatencyMetrics;
+import com.example.demo.common.infrastructure.metrics.LatencyTimer;
 import com.example.demo.products.application.dtos.request.CreateProductBodyDto;
 import com.example.demo.products.application.dtos.response.GetProductResponseDto;
 import com.example.demo.products.application.ports.ProductRepository;
@@ -11,12 +13,23 @@ import java.util.Optional;
 public class CreateProductUseCase {
 
     private final ProductRepository productRepository;
+    private final LatencyTimer timer;
 
-    public CreateProductUseCase(ProductRepository productRepository) {
+    public CreateProductUseCase(ProductRepository productRepository, LatencyMetrics latencyMetrics) {
         this.productRepository = productRepository;
+        this.timer = latencyMetrics.timer("usecase.createProduct");
     }
 
     public GetProductResponseDto execute(CreateProductBodyDto createProductBodyDto) throws Exception {
+        long start = timer.start();
+        try {
+            return create(createProductBodyDto);
+        } finally {
+            timer.stop(start);
+        }
+    }
+
+    private GetProductResponseDto create(CreateProductBodyDto createProductBodyDto) throws Exception {
 
         Product product = new Product();
         product.setName(createProductBodyDto.getName());
@@ -0,0 +1,99 @@
+package com.example.demo.products.application.usecases;
+
+import com.example.demo.common.infrastructure.metrics.LatencyMetrics;
+import com.example.demo.common.infrastructure.metrics.LatencyTimer;
+import com.example.demo.products.application.dtos.request.CreateProductBodyDto;
+import com.example.demo.products.application.dtos.response.CreateProductBatchItemResponseDto;
+import com.example.demo.products.application.dtos.response.CreateProductsBatchResponseDto;
+import com.example.demo.products.application.dtos.response.GetProductResponseDto;
+import com.example.demo.products.application.ports.ProductRepository;
+import com.example.demo.products.domain.models.Product;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+public class CreateProductsBatchUseCase {
+
+    private final ProductRepository productRepository;
+    private final Validator validator;
+    private final LatencyTimer timer;
+
+    public CreateProductsBatchUseCase(ProductRepository productRepository, Validator validator, LatencyMetrics latencyMetrics) {
+        this.productRepository = productRepository;
+        this.validator = validator;
+        this.timer = latencyMetrics.timer("usecase.createProductsBatch");
+    }
+
+    public CreateProductsBatchResponseDto execute(List<CreateProductBodyDto> createProductBodyDtos) {
+        long start = timer.start();
+        try {
+            return createAll(createProductBodyDtos);
+        } finally {
+            timer.stop(start);
+        }
+    }
+
+    private CreateProductsBatchResponseDto createAll(List<CreateProductBodyDto> createProductBodyDtos) {
+        CreateProductBatchItemResponseDto[] results = new CreateProductBatchItemResponseDto[createProductBodyDtos.size()];
+        Map<String, Integer> indexByName = new LinkedHashMap<>();
+
+        // Items are validated one by one so a bad item is reported instead of rejecting the whole batch
+        for (int i = 0; i < createProductBodyDtos.size(); i++) {
+            CreateProductBodyDto createProductBodyDto = createProductBodyDtos.get(i);
+            if (createProductBodyDto == null) {
+                results[i] = CreateProductBatchItemResponseDto.failed(i, "Product can't be null");
+                continue;
+            }
+
+            Set<ConstraintViolation<CreateProductBodyDto>> violations = validator.validate(createProductBodyDto);
+            if (!violations.isEmpty()) {
+                String error = violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", "));
+                results[i] = CreateProductBatchItemResponseDto.failed(i, error);
+                continue;
+            }
+
+            if (indexByName.putIfAbsent(createProductBodyDto.getName(), i) != null) {
+                results[i] = CreateProductBatchItemResponseDto.failed(i, "Product name is repeated in the batch");
+            }
+        }
+
+        // Unique name conflicts are found up front, one of them would otherwise fail a whole JDBC batch
+        Set<String> existingNames = new HashSet<>(this.productRepository.getExistingProductNames(indexByName.keySet()));
+
+        List<Integer> pendingIndexes = new ArrayList<>();
+        List<Product> pendingProducts = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : indexByName.entrySet()) {
+            int index = entry.getValue();
+            if (existingNames.contains(entry.getKey())) {
+                results[index] = CreateProductBatchItemResponseDto.failed(index, "Product name already exists");
+                continue;
+            }
+
+            CreateProductBodyDto createProductBodyDto = createProductBodyDtos.get(index);
+            Product product = new Product();
+            product.setName(createProductBodyDto.getName());
+            product.setQuantity(createProductBodyDto.getQuantity());
+            product.setPrice(createProductBodyDto.getPrice());
+
+            pendingIndexes.add(index);
+            pendingProducts.add(product);
+        }
+
+        List<Optional<Product>> createdProducts = this.productRepository.createProducts(pendingProducts);
+        for (int i = 0; i < pendingIndexes.size(); i++) {
+            int index = pendingIndexes.get(i);
+            results[index] = createdProducts.get(i)
+                    .map(product -> CreateProductBatchItemResponseDto.created(index, new GetProductResponseDto(product)))
+                    .orElseGet(() -> CreateProductBatchItemResponseDto.failed(index, "Error creating product"));
+        }
+
+        List<CreateProductBatchItemResponseDto> items = Arrays.asList(results);
+        int created = (int) items.stream().filter(CreateProductBatchItemResponseDto::isCreated).count();
+
+        return new CreateProductsBatchResponseDto(items, created, items.size() - created);
+    }
+}
@@ -1,23 +1,46 @@
 package com.example.demo.products.application.usecases;
 
-import com.example.demo.products.application.dtos.response.GetProductResponseDto;
+import com.example.demo.common.infrastructure.metrics.LatencyMetrics;
+import com.example.demo.common.infrastructure.metrics.LatencyTimer;
+import com.example.demo.products.application.dtos.request.ProductFields;
 import com.example.demo.products.application.ports.ProductRepository;
 import com.example.demo.products.domain.models.Product;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class GetAllProductsUseCase {
 
     private final ProductRepository productRepository;
+    private final LatencyTimer timer;
+    private final LatencyTimer streamTimer;
 
-    public GetAllProductsUseCase(ProductRepository productRepository) {
+    public GetAllProductsUseCase(ProductRepository productRepository, LatencyMetrics latencyMetrics) {
         this.productRepository = productRepository;
+        this.timer = latencyMetrics.timer("usecase.getAllProducts");
+        this.streamTimer = latencyMetrics.timer("usecase.streamProducts");
     }
 
-    public List<GetProductResponseDto> execute() {
-        List<Product> products = this.productRepository.getProducts();
-        return products.stream().map(GetProductResponseDto::new).toList();
+    // Products with only the requested fields, handed over as the database returns them. Like stream() below,
+    // this includes the time the consumer spends writing them to the client.
+    public void execute(ProductFields fields, Consumer<Product> consumer) {
+        long start = timer.start();
+        try {
+            this.productRepository.streamProductViews(fields, consumer);
+        } finally {
+            timer.stop(start);
+        }
+    }
+
+    // Includes the time the consumer spends writing each row to the client. Rows are handed over as read,
+    // the NDJSON writer serializes them straight from the domain model without a DTO per row.
+    public void stream(Consumer<Product> consumer) {
+        long start = streamTimer.start();
+        try {
+            this.productRepository.streamProducts(consumer);
+        } finally {
+            streamTimer.stop(start);
+        }
     }
 }
@@ -1,7 +1,10 @@
 package com.example.demo.products.application.usecases;
 
 import com.example.demo.common.application.dtos.PaginationResponseDto;
+import com.example.demo.common.infrastructure.metrics.LatencyMetrics;
+import com.example.demo.common.infrastructure.metrics.LatencyTimer;
 import com.example.demo.products.application.dtos.request.GetPaginatedProductsQueryDto;
+import com.example.demo.products.application.dtos.request.ProductFields;
 import com.example.demo.products.application.dtos.response.GetProductResponseDto;
 import com.example.demo.products.application.ports.ProductRepository;
 import com.example.demo.products.domain.models.Product;
@@ -11,20 +14,42 @@ import org.springframework.stereotype.Service;
 public class GetPaginatedProductsUseCase {
 
     private final ProductRepository productRepository;
+    private final LatencyTimer timer;
+    private final LatencyTimer keysetTimer;
 
-    public GetPaginatedProductsUseCase(ProductRepository productRepository) {
+    public GetPaginatedProductsUseCase(ProductRepository productRepository, LatencyMetrics latencyMetrics) {
         this.productRepository = productRepository;
+        this.timer = latencyMetrics.timer("usecase.getPaginatedProducts");
+        this.keysetTimer = latencyMetrics.timer("usecase.getKeysetPaginatedProducts");
     }
 
     public PaginationResponseDto<GetProductResponseDto> execute(GetPaginatedProductsQueryDto query) {
-        PaginationResponseDto<Product> result = this.productRepository.getPaginatedProducts(query);
+        LatencyTimer modeTimer = query.isKeysetMode() ? keysetTimer : timer;
+        long start = modeTimer.start();
+        try {
+            return paginate(query);
+        } finally {
+            modeTimer.stop(start);
+        }
+    }
+
+    private PaginationResponseDto<GetProductResponseDto> paginate(GetPaginatedProductsQueryDto query) {
+        ProductFields fields = query.getFieldSelection();
+        if (!query.isKeysetMode()) {
+            return this.productRepository.getPaginatedProductViews(query, fields);
+        }
+
+        // The cursor needs name and id of the last row, so keyset pages read whole products and narrow them here
+        PaginationResponseDto<Product> result = this.productRepository.getKeysetPaginatedProducts(query);
 
         return new PaginationResponseDto<>(
-                result.getContent().stream().map(GetProductResponseDto::new).toList(),
+                result.getContent().stream().map(product -> new GetProductResponseDto(product, fields)).toList(),
                 result.getPageNumber(),
                 result.getPageSize(),
                 result.getTotalPages(),
-                result.getTotalElements()
+                result.getTotalElements(),
+                result.isHasNext(),
+                result.getNextCursor()
         );
     }
 }
@@ -0,0 +1,31 @@
+package com.example.demo.products.application.usecases;
+
+import com.example.demo.common.infrastructure.metrics.LatencyMetrics;
+import com.example.demo.common.infrastructure.metrics.LatencyTimer;
+import com.example.demo.products.application.dtos.response.GetProductResponseDto;
+import com.example.demo.products.application.ports.ProductRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+public class GetProductByIdUseCase {
+
+    private final ProductRepository productRepository;
+    private final LatencyTimer timer;
+
+    public GetProductByIdUseCase(ProductRepository productRepository, LatencyMetrics latencyMetrics) {
+        this.productRepository = productRepository;
+        this.timer = latencyMetrics.timer("usecase.getProductById");
+    }
+
+    public Optional<GetProductResponseDto> execute(UUID id) {
+        long start = timer.start();
+        try {
+            return this.productRepository.getProductById(id).map(GetProductResponseDto::new);
+        } finally {
+            timer.stop(start);
+        }
+    }
+}
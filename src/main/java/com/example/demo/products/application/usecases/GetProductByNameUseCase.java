@@ -0,0 +1,30 @@
+package com.example.demo.products.application.usecases;
+
+import com.example.demo.common.infrastructure.metrics.LatencyMetrics;
+import com.example.demo.common.infrastructure.metrics.LatencyTimer;
+import com.example.demo.products.application.dtos.response.GetProductResponseDto;
+import com.example.demo.products.application.ports.ProductRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+@Service
+public class GetProductByNameUseCase {
+
+    private final ProductRepository productRepository;
+    private final LatencyTimer timer;
+
+    public GetProductByNameUseCase(ProductRepository productRepository, LatencyMetrics latencyMetrics) {
+        this.productRepository = productRepository;
+        this.timer = latencyMetrics.timer("usecase.getProductByName");
+    }
+
+    public Optional<GetProductResponseDto> execute(String name) {
+        long start = timer.start();
+        try {
+            return this.productRepository.getProductByName(name).map(GetProductResponseDto::new);
+        } finally {
+            timer.stop(start);
+        }
+    }
+}
@@ -5,25 +5,58 @@ import com.example.demo.common.domain.criteria.Order;
 import com.example.demo.common.domain.criteria.SingleFilter;
 import com.example.demo.common.domain.criteria.SingleFilterOperator;
 import com.example.demo.common.domain.criteria.Filter;
+import com.example.demo.common.infrastructure.metrics.LatencyMetrics;
+import com.example.demo.common.infrastructure.metrics.LatencyTimer;
 import com.example.demo.products.application.dtos.request.GetProductsByCriteriaDto;
-import com.example.demo.products.application.dtos.response.GetProductResponseDto;
+import com.example.demo.products.application.dtos.request.ProductFields;
+import com.example.demo.products.application.dtos.response.GetProductsByCriteriaResponseDto;
+import com.example.demo.products.application.ports.ProductCatalogIndex;
+import com.example.demo.products.application.ports.ProductNameIndex;
 import com.example.demo.products.application.ports.ProductRepository;
 import com.example.demo.products.domain.models.Product;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 @Service
 public class GetProductsByCriteriaUseCase {
 
     private final ProductRepository productRepository;
+    private final ProductCatalogIndex productCatalogIndex;
+    private final ProductNameIndex productNameIndex;
+    private final LatencyTimer timer;
+    private final LatencyTimer mappingTimer;
+    private final int maxLimit;
 
-    public GetProductsByCriteriaUseCase(ProductRepository productRepository) {
+    public GetProductsByCriteriaUseCase(
+            ProductRepository productRepository,
+            ProductCatalogIndex productCatalogIndex,
+            ProductNameIndex productNameIndex,
+            LatencyMetrics latencyMetrics,
+            @Value("${products.criteria.max-limit:1000}") int maxLimit
+    ) {
         this.productRepository = productRepository;
+        this.productCatalogIndex = productCatalogIndex;
+        this.productNameIndex = productNameIndex;
+        this.maxLimit = maxLimit;
+        this.timer = latencyMetrics.timer("usecase.getProductsByCriteria");
+        this.mappingTimer = latencyMetrics.timer("usecase.getProductsByCriteria.mapping");
     }
 
-    public List<GetProductResponseDto> execute(GetProductsByCriteriaDto query) {
+    public GetProductsByCriteriaResponseDto execute(GetProductsByCriteriaDto query) {
+        long start = timer.start();
+        try {
+            return find(query);
+        } finally {
+            timer.stop(start);
+        }
+    }
+
+    private GetProductsByCriteriaResponseDto find(GetProductsByCriteriaDto query) {
 
         List<Filter> filters = new ArrayList<>();
 
@@ -31,6 +64,16 @@ public class GetProductsByCriteriaUseCase {
             filters.add(new SingleFilter<>("name", SingleFilterOperator.EQUAL, query.getName().get()));
         }
 
+        if(query.getNameContains().isPresent()) {
+            // LIKE '%x%' scans the whole table, the trigram index turns it into a lookup by id when it can answer.
+            // No ids is not taken as no rows, the database has the final word on a miss
+            String fragment = query.getNameContains().get();
+            Optional<List<UUID>> ids = this.productNameIndex.findIdsByNameContaining(fragment)
+                    .filter(found -> !found.isEmpty());
+            filters.add(ids.<Filter>map(found -> new SingleFilter<>("id", SingleFilterOperator.IN, found))
+                    .orElseGet(() -> new SingleFilter<>("name", SingleFilterOperator.CONTAINS, fragment)));
+        }
+
         if(query.getHasStock().isPresent() && query.getHasStock().get()){
             filters.add(new SingleFilter<>("quantity", SingleFilterOperator.GT, 0L));
         }
@@ -50,9 +93,27 @@ public class GetProductsByCriteriaUseCase {
             filters.add(new SingleFilter<>("quantity", SingleFilterOperator.EQUAL, query.getQuantity().get()));
         }
 
-        Criteria criteria = new Criteria(filters, Order.none());
+        // Sorting and truncation run in the database, the cap is the limit when none is sent. One row past the
+        // limit is read so the response can say whether more rows match
+        Order order = Order.fromValues(query.getOrderBy(), query.getOrderType());
+        int limit = query.getLimit().orElse(maxLimit);
+        Criteria criteria = new Criteria(filters, order, limit + 1, query.getOffset().orElse(0));
+        ProductFields fields = query.getFieldSelection();
+
+        // The in-memory index answers when enabled and loaded, otherwise the database selects only the requested columns
+        Optional<List<Product>> indexedProducts = this.productCatalogIndex.findByCriteria(criteria);
+        List<Product> products;
+        if (indexedProducts.isEmpty()) {
+            products = this.productRepository.getProductViewsByCriteria(criteria, fields);
+        } else if (fields.isAll()) {
+            products = indexedProducts.get();
+        } else {
+            long mappingStart = mappingTimer.start();
+            products = indexedProducts.get().stream().map(fields::select).toList();
+            mappingTimer.stop(mappingStart);
+        }
 
-        List<Product> products = this.productRepository.getProductsByCriteriaSpecification(criteria);
-        return products.stream().map(GetProductResponseDto::new).toList();
+        boolean hasMore = products.size() > limit;
+        return new GetProductsByCriteriaResponseDto(hasMore ? products.subList(0, limit) : products, hasMore);
     }
 }
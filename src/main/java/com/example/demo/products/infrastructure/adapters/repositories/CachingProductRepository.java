@@ -0,0 +1,162 @@
+package com.example.demo.products.infrastructure.adapters.repositories;
+
+import com.example.demo.common.application.dtos.PaginationResponseDto;
+import com.example.demo.common.domain.criteria.Criteria;
+import com.example.demo.common.infrastructure.cache.CacheStatsDto;
+import com.example.demo.products.application.dtos.request.GetPaginatedProductsQueryDto;
+import com.example.demo.products.application.dtos.request.ProductFields;
+import com.example.demo.products.application.dtos.response.GetProductResponseDto;
+import com.example.demo.products.application.events.ProductsCreatedEvent;
+import com.example.demo.products.application.ports.ProductRepository;
+import com.example.demo.products.domain.models.Product;
+import com.example.demo.products.infrastructure.cache.CriteriaResultCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// Read-through cache for lookups by id and by unique name, plus a result cache for criteria queries.
+// Caffeine's W-TinyLFU policy keeps frequently read products around instead of just the recently read ones.
+@Repository
+@Primary
+public class CachingProductRepository implements ProductRepository {
+
+    private final ProductRepository productRepository;
+    private final LoadingCache<UUID, Optional<Product>> productsById;
+    private final LoadingCache<String, Optional<Product>> productsByName;
+    private final CriteriaResultCache criteriaResultCache;
+
+    public CachingProductRepository(
+            @ProductStorage ProductRepository productRepository,
+            CriteriaResultCache criteriaResultCache,
+            @Value("${products.cache.maximum-size:10000}") long maximumSize,
+            @Value("${products.cache.expire-after-write:10m}") Duration expireAfterWrite,
+            @Value("${products.cache.refresh-after-write:1m}") Duration refreshAfterWrite
+    ) {
+        this.productRepository = productRepository;
+        this.criteriaResultCache = criteriaResultCache;
+
+        // Entries past refreshAfterWrite are served while being reloaded in the background (refresh-ahead),
+        // entries past expireAfterWrite are dropped
+        this.productsByName = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .refreshAfterWrite(refreshAfterWrite)
+                .recordStats()
+                .build(productRepository::getProductByName);
+
+        this.productsById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .refreshAfterWrite(refreshAfterWrite)
+                .recordStats()
+                .build(this::loadById);
+    }
+
+    @Override
+    public Optional<Product> getProductById(UUID id) {
+        return productsById.get(id);
+    }
+
+    @Override
+    public Optional<Product> getProductByName(String name) {
+        return productsByName.get(name);
+    }
+
+    // Writes keep both caches consistent, this also replaces cached misses for the new id and name
+    @EventListener
+    public void onProductsCreated(ProductsCreatedEvent event) {
+        for (Product product : event.getProducts()) {
+            productsById.put(product.getId(), Optional.of(product));
+            productsByName.put(product.getName(), Optional.of(product));
+        }
+    }
+
+    public List<CacheStatsDto> stats() {
+        return List.of(
+                CacheStatsDto.of("productsById", productsById),
+                CacheStatsDto.of("productsByName", productsByName),
+                criteriaResultCache.stats()
+        );
+    }
+
+    private Optional<Product> loadById(UUID id) {
+        Optional<Product> product = productRepository.getProductById(id);
+        product.ifPresent(found -> productsByName.put(found.getName(), product));
+        return product;
+    }
+
+    @Override
+    public List<Product> getProducts() {
+        return productRepository.getProducts();
+    }
+
+    @Override
+    public void streamProducts(Consumer<Product> consumer) {
+        productRepository.streamProducts(consumer);
+    }
+
+    @Override
+    public PaginationResponseDto<Product> getPaginatedProducts(GetPaginatedProductsQueryDto query) {
+        return productRepository.getPaginatedProducts(query);
+    }
+
+    @Override
+    public PaginationResponseDto<Product> getKeysetPaginatedProducts(GetPaginatedProductsQueryDto query) {
+        return productRepository.getKeysetPaginatedProducts(query);
+    }
+
+    @Override
+    public Optional<Product> createProduct(Product product) {
+        return productRepository.createProduct(product);
+    }
+
+    @Override
+    public List<Optional<Product>> createProducts(List<Product> products) {
+        return productRepository.createProducts(products);
+    }
+
+    @Override
+    public List<String> getExistingProductNames(Collection<String> names) {
+        return productRepository.getExistingProductNames(names);
+    }
+
+    @Override
+    public long countProducts() {
+        return productRepository.countProducts();
+    }
+
+    @Override
+    public List<Product> getProductsByCriteria(Criteria criteria) {
+        return criteriaResultCache.get("criteria", criteria, () -> productRepository.getProductsByCriteria(criteria));
+    }
+
+    @Override
+    public List<Product> getProductsByCriteriaSpecification(Criteria criteria) {
+        return criteriaResultCache.get("specification", criteria, () -> productRepository.getProductsByCriteriaSpecification(criteria));
+    }
+
+    @Override
+    public void streamProductViews(ProductFields fields, Consumer<Product> consumer) {
+        productRepository.streamProductViews(fields, consumer);
+    }
+
+    @Override
+    public PaginationResponseDto<GetProductResponseDto> getPaginatedProductViews(GetPaginatedProductsQueryDto query, ProductFields fields) {
+        return productRepository.getPaginatedProductViews(query, fields);
+    }
+
+    @Override
+    public List<Product> getProductViewsByCriteria(Criteria criteria, ProductFields fields) {
+        return criteriaResultCache.get("views[" + fields.key() + "]", criteria, () -> productRepository.getProductViewsByCriteria(criteria, fields));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.products.infrastructure.adapters.repositories;
+
+import com.example.demo.products.infrastructure.entities.ProductCounterEntity;
+import com.example.demo.products.infrastructure.entities.ProductCounterId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+@Repository
+public interface JpaProductCounterRepository extends JpaRepository<ProductCounterEntity, ProductCounterId> {
+
+    // A random stripe per call, two inserting transactions only wait on each other when they pick the same row
+    @Transactional(propagation = Propagation.MANDATORY)
+    default int increment(String name, long delta) {
+        return incrementStripe(name, ThreadLocalRandom.current().nextInt(ProductCounterEntity.STRIPES), delta);
+    }
+
+    // Has to join the transaction of the rows being counted, otherwise counter and table could drift apart
+    @Modifying
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query("UPDATE ProductCounterEntity c SET c.value = c.value + :delta WHERE c.name = :name AND c.stripe = :stripe")
+    int incrementStripe(@Param("name") String name, @Param("stripe") int stripe, @Param("delta") long delta);
+
+    // null when the counter was never seeded
+    @Query("SELECT SUM(c.value) FROM ProductCounterEntity c WHERE c.name = :name")
+    Long total(@Param("name") String name);
+}
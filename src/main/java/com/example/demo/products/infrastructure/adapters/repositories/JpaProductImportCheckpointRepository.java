@@ -0,0 +1,9 @@
+package com.example.demo.products.infrastructure.adapters.repositories;
+
+import com.example.demo.products.infrastructure.entities.ProductImportCheckpointEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JpaProductImportCheckpointRepository extends JpaRepository<ProductImportCheckpointEntity, String> {
+}
@@ -1,12 +1,47 @@
 package com.example.demo.products.infrastructure.adapters.repositories;
 
 import com.example.demo.products.infrastructure.entities.ProductEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface JpaProductRepository extends JpaRepository<ProductEntity, UUID>, JpaSpecificationExecutor<ProductEntity> {
+
+    Optional<ProductEntity> findByName(String name);
+
+    // Criteria through the specification path, results go to the query cache like the criteria converter ones
+    @Override
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ProductEntity.CRITERIA_QUERY_CACHE_REGION)
+    })
+    List<ProductEntity> findAll(Specification<ProductEntity> specification);
+
+    // Offset pages without the COUNT query that findAll(Pageable) runs next to every page
+    @Query("SELECT p FROM ProductEntity p")
+    Slice<ProductEntity> findSlice(Pageable pageable);
+
+    // Keyset pages are ordered by (name, id) and only ever read the rows they return, no OFFSET and no COUNT
+    @Query("SELECT p FROM ProductEntity p ORDER BY p.name ASC, p.id ASC")
+    List<ProductEntity> findFirstKeysetPage(Pageable pageable);
+
+    @Query("SELECT p FROM ProductEntity p WHERE p.name > :name OR (p.name = :name AND p.id > :id) ORDER BY p.name ASC, p.id ASC")
+    List<ProductEntity> findKeysetPageAfter(@Param("name") String name, @Param("id") UUID id, Pageable pageable);
+
+    @Query("SELECT p.name FROM ProductEntity p WHERE p.name IN :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
 }
@@ -1,83 +1,485 @@
 package com.example.demo.products.infrastructure.adapters.repositories;
 
+import com.example.demo.common.application.dtos.PaginationCursor;
 import com.example.demo.common.application.dtos.PaginationResponseDto;
 import com.example.demo.common.domain.criteria.Criteria;
+import com.example.demo.common.domain.criteria.Order;
+import com.example.demo.common.infrastructure.bulkhead.DatabaseBulkhead;
 import com.example.demo.common.infrastructure.criteria.CriteriaSpecificationConverter;
 import com.example.demo.common.infrastructure.criteria.HibernateCriteriaConverter;
 import com.example.demo.common.infrastructure.criteria.PredicateFactory;
+import com.example.demo.common.infrastructure.metrics.LatencyMetrics;
+import com.example.demo.common.infrastructure.metrics.LatencyTimer;
 import com.example.demo.products.application.dtos.request.GetPaginatedProductsQueryDto;
+import com.example.demo.products.application.dtos.request.ProductFields;
+import com.example.demo.products.application.dtos.response.GetProductResponseDto;
+import com.example.demo.products.application.events.ProductsCreatedEvent;
 import com.example.demo.products.application.ports.ProductRepository;
 import com.example.demo.products.domain.models.Product;
+import com.example.demo.products.infrastructure.entities.ProductCounterEntity;
 import com.example.demo.products.infrastructure.entities.ProductEntity;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
-import org.springframework.data.domain.Page;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+// Every method holds a database bulkhead permit while it runs, callers that can't get one fail with 503.
+// Listing, page and criteria reads run in a read-only transaction (a replica's when routing is configured) that
+// starts once the permit is held, so nothing waiting on the bulkhead holds a connection.
 @Repository
+@ProductStorage
+@ConditionalOnProperty(name = "products.sharding.enabled", havingValue = "false", matchIfMissing = true)
 public class ProductRepositoryAdapter implements ProductRepository {
 
     private final JpaProductRepository productRepository;
+    private final JpaProductCounterRepository productCounterRepository;
     private final HibernateCriteriaConverter<ProductEntity> hibernateCriteriaConverter;
     private final PredicateFactory predicateFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DatabaseBulkhead databaseBulkhead;
+    private final int streamingFetchSize;
+    private final int batchChunkSize;
+    private final LatencyTimer getProductsTimer;
+    private final LatencyTimer getProductByIdTimer;
+    private final LatencyTimer getProductByNameTimer;
+    private final LatencyTimer streamProductsTimer;
+    private final LatencyTimer getPaginatedProductsTimer;
+    private final LatencyTimer getKeysetPaginatedProductsTimer;
+    private final LatencyTimer createProductTimer;
+    private final LatencyTimer createProductsTimer;
+    private final LatencyTimer getExistingProductNamesTimer;
+    private final LatencyTimer countProductsTimer;
+    private final LatencyTimer getProductsByCriteriaTimer;
+    private final LatencyTimer getProductsByCriteriaSpecificationTimer;
+    private final LatencyTimer criteriaConversionTimer;
+    private final LatencyTimer streamProductViewsTimer;
+    private final LatencyTimer getPaginatedProductViewsTimer;
+    private final LatencyTimer getProductViewsByCriteriaTimer;
 
     public ProductRepositoryAdapter(
             JpaProductRepository productRepository,
+            JpaProductCounterRepository productCounterRepository,
             HibernateCriteriaConverter<ProductEntity> hibernateCriteriaConverter,
-            PredicateFactory predicateFactory
+            PredicateFactory predicateFactory,
+            JdbcTemplate jdbcTemplate,
+            EntityManager entityManager,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            DatabaseBulkhead databaseBulkhead,
+            LatencyMetrics latencyMetrics,
+            @Value("${products.streaming.fetch-size:500}") int streamingFetchSize,
+            @Value("${products.batch.chunk-size:500}") int batchChunkSize
     ) {
         this.productRepository = productRepository;
+        this.productCounterRepository = productCounterRepository;
         this.hibernateCriteriaConverter = hibernateCriteriaConverter;
         this.predicateFactory = predicateFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.eventPublisher = eventPublisher;
+        this.databaseBulkhead = databaseBulkhead;
+        this.streamingFetchSize = streamingFetchSize;
+        this.batchChunkSize = batchChunkSize;
+        this.getProductsTimer = latencyMetrics.timer("repository.getProducts");
+        this.getProductByIdTimer = latencyMetrics.timer("repository.getProductById");
+        this.getProductByNameTimer = latencyMetrics.timer("repository.getProductByName");
+        this.streamProductsTimer = latencyMetrics.timer("repository.streamProducts");
+        this.getPaginatedProductsTimer = latencyMetrics.timer("repository.getPaginatedProducts");
+        this.getKeysetPaginatedProductsTimer = latencyMetrics.timer("repository.getKeysetPaginatedProducts");
+        this.createProductTimer = latencyMetrics.timer("repository.createProduct");
+        this.createProductsTimer = latencyMetrics.timer("repository.createProducts");
+        this.getExistingProductNamesTimer = latencyMetrics.timer("repository.getExistingProductNames");
+        this.countProductsTimer = latencyMetrics.timer("repository.countProducts");
+        this.getProductsByCriteriaTimer = latencyMetrics.timer("repository.getProductsByCriteria");
+        this.getProductsByCriteriaSpecificationTimer = latencyMetrics.timer("repository.getProductsByCriteriaSpecification");
+        this.criteriaConversionTimer = latencyMetrics.timer("repository.getProductsByCriteria.conversion");
+        this.streamProductViewsTimer = latencyMetrics.timer("repository.streamProductViews");
+        this.getPaginatedProductViewsTimer = latencyMetrics.timer("repository.getPaginatedProductViews");
+        this.getProductViewsByCriteriaTimer = latencyMetrics.timer("repository.getProductViewsByCriteria");
     }
 
     @Override
     public List<Product> getProducts() {
-        List<ProductEntity> products = this.productRepository.findAll();
-        return products.stream().map(ProductEntity::toModel).toList();
+        long start = getProductsTimer.start();
+        databaseBulkhead.acquire();
+        try {
+            List<ProductEntity> products = this.productRepository.findAll();
+            return products.stream().map(ProductEntity::toModel).toList();
+        } finally {
+            databaseBulkhead.release();
+            getProductsTimer.stop(start);
+        }
+    }
+
+    @Override
+    public Optional<Product> getProductById(UUID id) {
+        long start = getProductByIdTimer.start();
+        databaseBulkhead.acquire();
+        try {
+            return this.productRepository.findById(id).map(ProductEntity::toModel);
+        } finally {
+            databaseBulkhead.release();
+            getProductByIdTimer.stop(start);
+        }
+    }
+
+    @Override
+    public Optional<Product> getProductByName(String name) {
+        long start = getProductByNameTimer.start();
+        databaseBulkhead.acquire();
+        try {
+            return this.productRepository.findByName(name).map(ProductEntity::toModel);
+        } finally {
+            databaseBulkhead.release();
+            getProductByNameTimer.stop(start);
+        }
+    }
+
+    @Override
+    public void streamProducts(Consumer<Product> consumer) {
+        long start = streamProductsTimer.start();
+        databaseBulkhead.acquireStream();
+        try {
+            // Plain JDBC on purpose: a forward-only cursor hands rows over one at a time,
+            // nothing is kept in the persistence context and memory stays flat
+            PreparedStatementCreator statementCreator = connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        "SELECT id, name, price, quantity FROM products",
+                        ResultSet.TYPE_FORWARD_ONLY,
+                        ResultSet.CONCUR_READ_ONLY
+                );
+                statement.setFetchSize(streamingFetchSize);
+                return statement;
+            };
+
+            RowCallbackHandler rowHandler = resultSet -> consumer.accept(new Product(
+                    resultSet.getObject("id", UUID.class),
+                    resultSet.getString("name"),
+                    resultSet.getDouble("price"),
+                    resultSet.getLong("quantity")
+            ));
+
+            this.jdbcTemplate.query(statementCreator, rowHandler);
+        } finally {
+            databaseBulkhead.releaseStream();
+            streamProductsTimer.stop(start);
+        }
     }
 
     @Override
     public PaginationResponseDto<Product> getPaginatedProducts(GetPaginatedProductsQueryDto query) {
-        Pageable pageable = PageRequest.of(query.page, query.limit);
-        Page<ProductEntity> products = this.productRepository.findAll(pageable);
+        long start = getPaginatedProductsTimer.start();
+        databaseBulkhead.acquire();
+        try {
+            return readOnlyTransactionTemplate.execute(status -> {
+                // A Slice reads limit + 1 rows to know about the next page, the total comes from the counter row
+                Pageable pageable = PageRequest.of(query.page, query.limit);
+                Slice<ProductEntity> products = this.productRepository.findSlice(pageable);
+
+                return offsetPage(
+                        products.getContent().stream().map(ProductEntity::toModel).toList(),
+                        query,
+                        products.hasNext()
+                );
+            });
+        } finally {
+            databaseBulkhead.release();
+            getPaginatedProductsTimer.stop(start);
+        }
+    }
+
+    @Override
+    public PaginationResponseDto<Product> getKeysetPaginatedProducts(GetPaginatedProductsQueryDto query) {
+        long start = getKeysetPaginatedProductsTimer.start();
+        databaseBulkhead.acquire();
+        try {
+            // Read one extra row to know whether there is a next page without counting
+            Pageable pageable = PageRequest.of(0, query.limit + 1);
+            Optional<PaginationCursor> cursor = query.getDecodedCursor();
+
+            List<ProductEntity> products = readOnlyTransactionTemplate.execute(status -> cursor
+                    .map(after -> this.productRepository.findKeysetPageAfter(after.getKey(), after.getId(), pageable))
+                    .orElseGet(() -> this.productRepository.findFirstKeysetPage(pageable)));
+
+            boolean hasNext = products.size() > query.limit;
+            List<ProductEntity> page = hasNext ? products.subList(0, query.limit) : products;
+
+            String nextCursor = null;
+            if (hasNext) {
+                ProductEntity last = page.get(page.size() - 1);
+                nextCursor = new PaginationCursor(last.getName(), last.getId()).encode();
+            }
+
+            return new PaginationResponseDto<>(
+                    page.stream().map(ProductEntity::toModel).toList(),
+                    query.page,
+                    query.limit,
+                    null,
+                    null,
+                    hasNext,
+                    nextCursor
+            );
+        } finally {
+            databaseBulkhead.release();
+            getKeysetPaginatedProductsTimer.stop(start);
+        }
+    }
 
+    private <T> PaginationResponseDto<T> offsetPage(List<T> content, GetPaginatedProductsQueryDto query, boolean hasNext) {
+        if (!query.includeTotal) {
+            return new PaginationResponseDto<>(content, query.page, query.limit, null, null, hasNext, null);
+        }
+
+        long totalElements = readProductCount();
         return new PaginationResponseDto<>(
-                products.getContent().stream().map(ProductEntity::toModel).toList(),
+                content,
                 query.page,
                 query.limit,
-                products.getTotalPages(),
-                products.getTotalElements()
+                (int) ((totalElements + query.limit - 1) / query.limit),
+                totalElements,
+                hasNext,
+                null
         );
     }
 
+    // A primary key range read over the counter stripes instead of a COUNT(*) scan, the table is only counted
+    // if the counter was never seeded
+    private long readProductCount() {
+        Long total = productCounterRepository.total(ProductCounterEntity.PRODUCTS);
+        return total != null ? total : productRepository.count();
+    }
+
+    @Override
+    public long countProducts() {
+        long start = countProductsTimer.start();
+        databaseBulkhead.acquire();
+        try {
+            return readProductCount();
+        } finally {
+            databaseBulkhead.release();
+            countProductsTimer.stop(start);
+        }
+    }
+
     @Override
     public Optional<Product> createProduct(Product product) {
+        long start = createProductTimer.start();
+        databaseBulkhead.acquire();
+        try {
+            Optional<Product> createdProduct = saveProduct(product);
+            createdProduct.ifPresent(created -> eventPublisher.publishEvent(new ProductsCreatedEvent(List.of(created))));
+            return createdProduct;
+        } finally {
+            databaseBulkhead.release();
+            createProductTimer.stop(start);
+        }
+    }
+
+    private Optional<Product> saveProduct(Product product) {
         try {
-            ProductEntity createdProduct = productRepository.save(new ProductEntity(product));
+            ProductEntity createdProduct = transactionTemplate.execute(status -> {
+                ProductEntity entity = productRepository.save(new ProductEntity(product));
+                productCounterRepository.increment(ProductCounterEntity.PRODUCTS, 1);
+                return entity;
+            });
             return Optional.of(createdProduct.toModel());
         }catch(Exception ex){
             return Optional.empty();
         }
     }
 
+    @Override
+    public List<Optional<Product>> createProducts(List<Product> products) {
+        long start = createProductsTimer.start();
+        databaseBulkhead.acquire();
+        try {
+            List<Optional<Product>> createdProducts = new ArrayList<>(products.size());
+            for (int chunkStart = 0; chunkStart < products.size(); chunkStart += batchChunkSize) {
+                List<Product> chunk = products.subList(chunkStart, Math.min(chunkStart + batchChunkSize, products.size()));
+                createdProducts.addAll(createChunk(chunk));
+            }
+
+            List<Product> created = createdProducts.stream().flatMap(Optional::stream).toList();
+            if (!created.isEmpty()) {
+                eventPublisher.publishEvent(new ProductsCreatedEvent(created));
+            }
+            return createdProducts;
+        } finally {
+            databaseBulkhead.release();
+            createProductsTimer.stop(start);
+        }
+    }
+
+    private List<Optional<Product>> createChunk(List<Product> chunk) {
+        try {
+            List<Product> createdProducts = transactionTemplate.execute(status -> {
+                // Ids come from Hibernate's in-memory UUID generator, so nothing forces a round trip per row
+                // and the inserts go out as JDBC batches on flush
+                List<ProductEntity> entities = chunk.stream().map(ProductEntity::new).toList();
+                entities.forEach(entityManager::persist);
+                entityManager.flush();
+                productCounterRepository.increment(ProductCounterEntity.PRODUCTS, entities.size());
+                // Keep the persistence context from growing across chunks
+                entityManager.clear();
+                return entities.stream().map(ProductEntity::toModel).toList();
+            });
+            return createdProducts.stream().map(Optional::of).toList();
+        } catch (Exception ex) {
+            // A single bad row fails the whole JDBC batch, retry the chunk row by row so only that row fails
+            return chunk.stream().map(this::saveProduct).toList();
+        }
+    }
+
+    @Override
+    public List<String> getExistingProductNames(Collection<String> names) {
+        long start = getExistingProductNamesTimer.start();
+        databaseBulkhead.acquire();
+        try {
+            List<String> uniqueNames = new ArrayList<>(names);
+            List<String> existingNames = new ArrayList<>();
+            for (int chunkStart = 0; chunkStart < uniqueNames.size(); chunkStart += batchChunkSize) {
+                List<String> chunk = uniqueNames.subList(chunkStart, Math.min(chunkStart + batchChunkSize, uniqueNames.size()));
+                existingNames.addAll(this.productRepository.findExistingNames(chunk));
+            }
+            return existingNames;
+        } finally {
+            databaseBulkhead.release();
+            getExistingProductNamesTimer.stop(start);
+        }
+    }
+
     @Override
     public List<Product> getProductsByCriteria(Criteria criteria) {
-        TypedQuery<ProductEntity> query = hibernateCriteriaConverter.convert(criteria, ProductEntity.class);
+        long start = getProductsByCriteriaTimer.start();
+        databaseBulkhead.acquire();
+        try {
+            predicateFactory.recordUsage(ProductEntity.class, criteria.getFilters());
+            // The query is created inside the transaction, a shared EntityManager query made outside it would run
+            // on a session of its own
+            return readOnlyTransactionTemplate.execute(status -> {
+                long conversionStart = criteriaConversionTimer.start();
+                TypedQuery<ProductEntity> query = hibernateCriteriaConverter.convert(criteria, ProductEntity.class);
+                criteriaConversionTimer.stop(conversionStart);
 
-        return query.getResultList().stream()
-                .map(ProductEntity::toModel)
-                .toList();
+                return cacheable(query).getResultList().stream()
+                        .map(ProductEntity::toModel)
+                        .toList();
+            });
+        } finally {
+            databaseBulkhead.release();
+            getProductsByCriteriaTimer.stop(start);
+        }
     }
 
     @Override
     public List<Product> getProductsByCriteriaSpecification(Criteria criteria) {
-        CriteriaSpecificationConverter<ProductEntity> specification = new CriteriaSpecificationConverter<>(criteria, predicateFactory);
-        List<ProductEntity> products = productRepository.findAll(specification);
-        return products.stream().map(ProductEntity::toModel).toList();
+        long start = getProductsByCriteriaSpecificationTimer.start();
+        databaseBulkhead.acquire();
+        try {
+            predicateFactory.recordUsage(ProductEntity.class, criteria.getFilters());
+            CriteriaSpecificationConverter<ProductEntity> specification = new CriteriaSpecificationConverter<>(criteria, predicateFactory);
+            return readOnlyTransactionTemplate.execute(status -> productRepository.findAll(specification).stream()
+                    .map(ProductEntity::toModel)
+                    .toList());
+        } finally {
+            databaseBulkhead.release();
+            getProductsByCriteriaSpecificationTimer.stop(start);
+        }
+    }
+
+    // Rows are handed over as Hibernate reads them off the cursor, the transaction keeps it open until the last one
+    @Override
+    public void streamProductViews(ProductFields fields, Consumer<Product> consumer) {
+        long start = streamProductViewsTimer.start();
+        databaseBulkhead.acquireStream();
+        try {
+            readOnlyTransactionTemplate.executeWithoutResult(status -> {
+                TypedQuery<Product> query = findViews(new Criteria(new ArrayList<>(), Order.none()), fields, Product.class);
+                query.setHint(HibernateHints.HINT_FETCH_SIZE, streamingFetchSize);
+                try (Stream<Product> products = query.getResultStream()) {
+                    products.forEach(consumer);
+                }
+            });
+        } finally {
+            databaseBulkhead.releaseStream();
+            streamProductViewsTimer.stop(start);
+        }
+    }
+
+    @Override
+    public PaginationResponseDto<GetProductResponseDto> getPaginatedProductViews(GetPaginatedProductsQueryDto query, ProductFields fields) {
+        long start = getPaginatedProductViewsTimer.start();
+        databaseBulkhead.acquire();
+        try {
+            // One extra row tells whether there is a next page, the total comes from the counter row. An offset
+            // past Integer.MAX_VALUE is clamped rather than wrapped negative, there are no rows that far anyway.
+            int offset = (int) Math.min(Integer.MAX_VALUE, (long) query.page * query.limit);
+            Criteria criteria = new Criteria(new ArrayList<>(), Order.none(), query.limit + 1, offset);
+            return readOnlyTransactionTemplate.execute(status -> {
+                List<GetProductResponseDto> products = findViews(criteria, fields, GetProductResponseDto.class).getResultList();
+                boolean hasNext = products.size() > query.limit;
+
+                return offsetPage(hasNext ? products.subList(0, query.limit) : products, query, hasNext);
+            });
+        } finally {
+            databaseBulkhead.release();
+            getPaginatedProductViewsTimer.stop(start);
+        }
+    }
+
+    @Override
+    public List<Product> getProductViewsByCriteria(Criteria criteria, ProductFields fields) {
+        long start = getProductViewsByCriteriaTimer.start();
+        databaseBulkhead.acquire();
+        try {
+            predicateFactory.recordUsage(ProductEntity.class, criteria.getFilters());
+            return readOnlyTransactionTemplate.execute(status -> cacheable(findViews(criteria, fields, Product.class)).getResultList());
+        } finally {
+            databaseBulkhead.release();
+            getProductViewsByCriteriaTimer.stop(start);
+        }
+    }
+
+    // One result object per row (Product or the response DTO, both take the fields in ProductFields.ALL_FIELDS
+    // order) built by Hibernate from the selected columns, no entity and no dirty checking snapshot.
+    // Unselected fields are not part of the SQL select list.
+    private <R> TypedQuery<R> findViews(Criteria criteria, ProductFields fields, Class<R> resultClass) {
+        return hibernateCriteriaConverter.convertProjection(criteria, ProductEntity.class, resultClass,
+                ProductFields.ALL_FIELDS, fields.selected());
+    }
+
+    // Only criteria results go to the query cache, full listings and pages would just push them out.
+    // Entries are dropped by Hibernate on its own writes and by ProductQueryCacheInvalidator on the others.
+    private <R> TypedQuery<R> cacheable(TypedQuery<R> query) {
+        query.setHint(HibernateHints.HINT_CACHEABLE, true);
+        query.setHint(HibernateHints.HINT_CACHE_REGION, ProductEntity.CRITERIA_QUERY_CACHE_REGION);
+        return query;
     }
 }
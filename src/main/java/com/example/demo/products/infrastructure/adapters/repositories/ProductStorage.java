@@ -0,0 +1,16 @@
+package com.example.demo.products.infrastructure.adapters.repositories;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// The ProductRepository that actually stores products: the JPA adapter, or the sharded repository when
+// products.sharding.enabled is set. Unqualified injection gets the caching decorator on top of it.
+@Qualifier
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.PARAMETER, ElementType.FIELD, ElementType.METHOD})
+public @interface ProductStorage {
+}
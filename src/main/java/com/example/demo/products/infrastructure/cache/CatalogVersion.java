@@ -0,0 +1,40 @@
+package com.example.demo.products.infrastructure.cache;
+
+import com.example.demo.products.application.events.ProductsCreatedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Monotonic catalog version, bumped on every committed product write. Anything derived from the
+// catalog can be keyed by it and becomes unreachable as soon as the catalog changes.
+@Component
+public class CatalogVersion {
+
+    private final AtomicLong version = new AtomicLong();
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    public long current() {
+        return version.get();
+    }
+
+    // Strong ETag for a response built from the current catalog. The version restarts from zero with the
+    // process, the start time keeps tags from an earlier run from matching.
+    public String etag() {
+        return "\"" + epoch + "-" + current() + "\"";
+    }
+
+    // Same, for responses that also depend on the query (equal queries have equal hash codes)
+    public String etag(Object query) {
+        return "\"" + epoch + "-" + current() + "-" + Integer.toHexString(query.hashCode()) + "\"";
+    }
+
+    // Bumped before any other listener runs, so caches reacting to the same event already see the new version
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProductsCreated(ProductsCreatedEvent event) {
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demo.products.infrastructure.cache;
+
+import com.example.demo.common.domain.criteria.Criteria;
+import com.example.demo.common.infrastructure.cache.CacheStatsDto;
+import com.example.demo.common.infrastructure.datasource.ReadRoutingContext;
+import com.example.demo.products.application.events.ProductsCreatedEvent;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Criteria query results keyed by catalog version and the canonical form of the criteria.
+// Identical concurrent misses wait on the first caller's query instead of running their own.
+@Component
+public class CriteriaResultCache {
+
+    private final CatalogVersion catalogVersion;
+    private final AsyncCache<String, List<?>> results;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    public CriteriaResultCache(
+            CatalogVersion catalogVersion,
+            @Value("${products.criteria-cache.maximum-size:1000}") long maximumSize,
+            @Value("${products.criteria-cache.expire-after-write:5m}") Duration expireAfterWrite
+    ) {
+        this.catalogVersion = catalogVersion;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync();
+    }
+
+    // The query name is part of the key and tells apart results of different element types
+    @SuppressWarnings("unchecked")
+    public <R> List<R> get(String queryName, Criteria criteria, Supplier<List<R>> loader) {
+        // The version is read before querying, a result computed while a write lands is stored under the old version
+        String key = queryName + "|" + catalogVersion.current() + "|" + criteria.serialize();
+        ConcurrentMap<String, CompletableFuture<List<?>>> entries = results.asMap();
+
+        CompletableFuture<List<?>> cached = entries.get(key);
+        if (cached == null) {
+            // The query runs on the calling thread, the pending future only makes it visible to identical requests
+            CompletableFuture<List<?>> pending = new CompletableFuture<>();
+            cached = entries.putIfAbsent(key, pending);
+            if (cached == null) {
+                return load(key, pending, loader);
+            }
+        }
+
+        hits.increment();
+        return (List<R>) await(cached);
+    }
+
+    public CacheStatsDto stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        return new CacheStatsDto(
+                "criteriaResults",
+                results.synchronous().estimatedSize(),
+                hitCount,
+                missCount,
+                requests == 0 ? 1.0 : (double) hitCount / requests,
+                results.synchronous().stats().evictionCount(),
+                missCount,
+                loadFailures.sum(),
+                missCount == 0 ? 0.0 : loadNanos.sum() / (double) missCount / 1_000_000.0
+        );
+    }
+
+    // Old versions can't be hit anymore, dropping them just gives the memory back sooner
+    @EventListener
+    public void onProductsCreated(ProductsCreatedEvent event) {
+        results.synchronous().invalidateAll();
+    }
+
+    private <R> List<R> load(String key, CompletableFuture<List<?>> pending, Supplier<List<R>> loader) {
+        misses.increment();
+        long startNanos = System.nanoTime();
+        long replicaReads = ReadRoutingContext.replicaReads();
+        try {
+            List<R> result = List.copyOf(loader.get());
+            pending.complete(result);
+            // A replica may trail the catalog version in the key. Its result still answers the callers already
+            // waiting on it, but isn't kept for later ones.
+            if (ReadRoutingContext.replicaReads() != replicaReads) {
+                results.asMap().remove(key, pending);
+            }
+            return result;
+        } catch (RuntimeException ex) {
+            loadFailures.increment();
+            results.asMap().remove(key, pending);
+            pending.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            loadNanos.add(System.nanoTime() - startNanos);
+        }
+    }
+
+    private List<?> await(CompletableFuture<List<?>> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) throw cause;
+            throw ex;
+        }
+    }
+}
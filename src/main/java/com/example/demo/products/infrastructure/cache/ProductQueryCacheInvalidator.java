@@ -0,0 +1,37 @@
+package com.example.demo.products.infrastructure.cache;
+
+import com.example.demo.products.application.events.ProductsCreatedEvent;
+import com.example.demo.products.infrastructure.entities.ProductEntity;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+// Hibernate marks the products table as updated for the inserts it runs itself, rows written with plain JDBC
+// (bulk import) never go through it. Marking the table on every creation event makes any cached query result
+// computed before it stale, including ones from queries that were still running while the rows committed.
+@Component
+public class ProductQueryCacheInvalidator {
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final String[] querySpaces;
+
+    public ProductQueryCacheInvalidator(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Serializable[] spaces = sessionFactory.getMappingMetamodel().getEntityDescriptor(ProductEntity.class).getQuerySpaces();
+        this.querySpaces = Arrays.copyOf(spaces, spaces.length, String[].class);
+    }
+
+    @EventListener
+    public void onProductsCreated(ProductsCreatedEvent event) {
+        if (!sessionFactory.getSessionFactoryOptions().isQueryCacheEnabled()) return;
+
+        try (SessionImplementor session = (SessionImplementor) sessionFactory.openSession()) {
+            sessionFactory.getCache().getTimestampsCache().invalidate(querySpaces, session);
+        }
+    }
+}
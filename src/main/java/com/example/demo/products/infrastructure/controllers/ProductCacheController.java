@@ -0,0 +1,27 @@
+package com.example.demo.products.infrastructure.controllers;
+
+import com.example.demo.common.infrastructure.cache.CacheStatsDto;
+import com.example.demo.products.infrastructure.adapters.repositories.CachingProductRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("internal/caches/products")
+public class ProductCacheController {
+
+    private final CachingProductRepository cachingProductRepository;
+
+    public ProductCacheController(CachingProductRepository cachingProductRepository) {
+        this.cachingProductRepository = cachingProductRepository;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<CacheStatsDto>> getCacheStats() {
+        return new ResponseEntity<>(this.cachingProductRepository.stats(), HttpStatus.OK);
+    }
+}
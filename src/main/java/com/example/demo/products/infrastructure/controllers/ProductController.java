@@ -2,64 +2,186 @@ package com.example.demo.products.infrastructure.controllers;
 
 
 import com.example.demo.common.application.dtos.PaginationResponseDto;
+import com.example.demo.common.infrastructure.datasource.ReadRoutingContext;
+import com.example.demo.common.infrastructure.json.JsonOutputBuffer;
+import com.example.demo.common.infrastructure.json.JsonOutputBufferPool;
 import com.example.demo.products.application.dtos.request.CreateProductBodyDto;
 import com.example.demo.products.application.dtos.request.GetPaginatedProductsQueryDto;
 import com.example.demo.products.application.dtos.request.GetProductsByCriteriaDto;
+import com.example.demo.products.application.dtos.request.GetProductsQueryDto;
+import com.example.demo.products.application.dtos.request.ProductFields;
+import com.example.demo.products.application.dtos.response.CreateProductsBatchResponseDto;
 import com.example.demo.products.application.dtos.response.GetProductResponseDto;
+import com.example.demo.products.application.dtos.response.GetProductsByCriteriaResponseDto;
 import com.example.demo.products.application.usecases.CreateProductUseCase;
+import com.example.demo.products.application.usecases.CreateProductsBatchUseCase;
 import com.example.demo.products.application.usecases.GetAllProductsUseCase;
 import com.example.demo.products.application.usecases.GetPaginatedProductsUseCase;
+import com.example.demo.products.application.usecases.GetProductByIdUseCase;
+import com.example.demo.products.application.usecases.GetProductByNameUseCase;
 import com.example.demo.products.application.usecases.GetProductsByCriteriaUseCase;
+import com.example.demo.products.infrastructure.cache.CatalogVersion;
+import com.example.demo.products.infrastructure.json.ProductJsonWriter;
+import com.example.demo.products.infrastructure.json.ProductListBody;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @RestController
 @RequestMapping("products")
 @Slf4j
 public class ProductController {
 
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final String HAS_MORE_HEADER = "X-Has-More";
+
     private final GetAllProductsUseCase getAllProductsUseCase;
     private final CreateProductUseCase createProductUseCase;
     private final GetPaginatedProductsUseCase getPaginatedProductsUseCase;
     private final GetProductsByCriteriaUseCase getProductsByCriteriaUseCase;
+    private final CreateProductsBatchUseCase createProductsBatchUseCase;
+    private final GetProductByIdUseCase getProductByIdUseCase;
+    private final GetProductByNameUseCase getProductByNameUseCase;
+    private final ProductJsonWriter productJsonWriter;
+    private final JsonOutputBufferPool bufferPool;
+    private final CatalogVersion catalogVersion;
+    private final Duration streamingTimeout;
+    private final int maxCriteriaLimit;
 
     public ProductController(
             GetAllProductsUseCase getAllProductsUseCase,
             CreateProductUseCase createProductUseCase,
             GetPaginatedProductsUseCase getPaginatedProductsUseCase,
-            GetProductsByCriteriaUseCase getProductsByCriteriaUseCase
+            GetProductsByCriteriaUseCase getProductsByCriteriaUseCase,
+            CreateProductsBatchUseCase createProductsBatchUseCase,
+            GetProductByIdUseCase getProductByIdUseCase,
+            GetProductByNameUseCase getProductByNameUseCase,
+            ProductJsonWriter productJsonWriter,
+            JsonOutputBufferPool bufferPool,
+            CatalogVersion catalogVersion,
+            @Value("${products.streaming.timeout:30m}") Duration streamingTimeout,
+            @Value("${products.criteria.max-limit:1000}") int maxCriteriaLimit
     ) {
         this.getAllProductsUseCase = getAllProductsUseCase;
         this.createProductUseCase = createProductUseCase;
         this.getPaginatedProductsUseCase = getPaginatedProductsUseCase;
         this.getProductsByCriteriaUseCase = getProductsByCriteriaUseCase;
+        this.createProductsBatchUseCase = createProductsBatchUseCase;
+        this.getProductByIdUseCase = getProductByIdUseCase;
+        this.getProductByNameUseCase = getProductByNameUseCase;
+        this.productJsonWriter = productJsonWriter;
+        this.bufferPool = bufferPool;
+        this.catalogVersion = catalogVersion;
+        this.streamingTimeout = streamingTimeout;
+        this.maxCriteriaLimit = maxCriteriaLimit;
     }
 
     @GetMapping
-    public ResponseEntity<List<GetProductResponseDto>> getProducts() {
-        List<GetProductResponseDto> products = this.getAllProductsUseCase.execute();
-        return new ResponseEntity<>(products, HttpStatus.OK);
+    public ResponseEntity<ProductListBody> getProducts(@Valid @ModelAttribute GetProductsQueryDto query, HttpServletRequest request) {
+        // Answered with a 304 before the use case runs. The version is read before the products, so a write
+        // landing in between only costs the client one extra full response.
+        String etag = this.catalogVersion.etag();
+        if (isNotModified(request, etag)) return notModified(etag);
+
+        // The products are read while the body is written, one at a time off the database cursor
+        ProductFields fields = query.getFieldSelection();
+        ProductListBody products = ProductListBody.streamed(consumer -> this.getAllProductsUseCase.execute(fields, consumer));
+        return ok(etag).body(products);
+    }
+
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamProducts(WebRequest request) {
+        // A full catalog takes longer than the global async timeout (spring.mvc.async.request-timeout),
+        // only this request gets the streaming one. The handler's WebRequest is the async request it starts.
+        if (request instanceof AsyncWebRequest asyncRequest) {
+            asyncRequest.setTimeout(this.streamingTimeout.toMillis());
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            JsonOutputBuffer buffer = this.bufferPool.acquire();
+            try {
+                AtomicBoolean firstRow = new AtomicBoolean(true);
+                this.getAllProductsUseCase.stream(product -> {
+                    this.productJsonWriter.write(buffer, product);
+                    buffer.writeByte('\n');
+                    try {
+                        // Push the first row out right away, after that rows go out a full buffer at a time
+                        if (firstRow.getAndSet(false) || buffer.size() >= this.bufferPool.flushThreshold()) {
+                            buffer.drainTo(outputStream);
+                            outputStream.flush();
+                        }
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+                buffer.drainTo(outputStream);
+            } finally {
+                this.bufferPool.release(buffer);
+            }
+        };
+
+        return new ResponseEntity<>(body, HttpStatus.OK);
+    }
+
+    @GetMapping("{id}")
+    public ResponseEntity<GetProductResponseDto> getProductById(@PathVariable UUID id) {
+        return this.getProductByIdUseCase.execute(id)
+                .map(product -> new ResponseEntity<>(product, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @GetMapping("name/{name}")
+    public ResponseEntity<GetProductResponseDto> getProductByName(@PathVariable String name) {
+        return this.getProductByNameUseCase.execute(name)
+                .map(product -> new ResponseEntity<>(product, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @GetMapping("paginated")
     public ResponseEntity<PaginationResponseDto<GetProductResponseDto>> getPaginatedProducts(
-            @Valid @ModelAttribute GetPaginatedProductsQueryDto query
+            @Valid @ModelAttribute GetPaginatedProductsQueryDto query,
+            HttpServletRequest request
     ) {
+        String etag = this.catalogVersion.etag();
+        if (isNotModified(request, etag)) return notModified(etag);
+
         PaginationResponseDto<GetProductResponseDto> products = this.getPaginatedProductsUseCase.execute(query);
-        return new ResponseEntity<>(products, HttpStatus.OK);
+        return ok(etag).body(products);
     }
 
     @GetMapping("criteria")
-    public ResponseEntity<List<GetProductResponseDto>> getProductsByCriteria(
-            @Valid @ModelAttribute GetProductsByCriteriaDto query
+    public ResponseEntity<ProductListBody> getProductsByCriteria(
+            @Valid @ModelAttribute GetProductsByCriteriaDto query,
+            HttpServletRequest request
     ) {
-        List<GetProductResponseDto> products = this.getProductsByCriteriaUseCase.execute(query);
-        return new ResponseEntity<>(products, HttpStatus.OK);
+        // A larger limit is refused rather than cut down, the client would take a short page for the whole result
+        if (query.getLimit().isPresent() && query.getLimit().get() > maxCriteriaLimit) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be at most " + maxCriteriaLimit);
+        }
+        String etag = this.catalogVersion.etag(query);
+        if (isNotModified(request, etag)) return notModified(etag);
+
+        // The body stays a plain array, whether the limit (or the server cap) cut the result short goes in a header
+        GetProductsByCriteriaResponseDto response = this.getProductsByCriteriaUseCase.execute(query);
+        return ok(etag)
+                .header(HAS_MORE_HEADER, String.valueOf(response.isHasMore()))
+                .body(ProductListBody.of(response.getProducts()));
     }
 
     @PostMapping
@@ -75,4 +197,29 @@ public class ProductController {
             throw ex;
         }
     }
+
+    @PostMapping("batch")
+    public ResponseEntity<CreateProductsBatchResponseDto> createProducts(
+            @RequestBody List<CreateProductBodyDto> createProductBodyDtos
+    ) {
+        // Items are validated one by one by the use case, failures are reported per item
+        CreateProductsBatchResponseDto result = this.createProductsBatchUseCase.execute(createProductBodyDtos);
+        HttpStatus status = result.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return new ResponseEntity<>(result, status);
+    }
+
+    // Checked without touching the response, a 200 only gets the tag from ok below
+    private static boolean isNotModified(HttpServletRequest request, String etag) {
+        return new ServletWebRequest(request).checkNotModified(etag);
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    // Rows from a replica may trail the version the tag names, a client keeping them under it would get 304s
+    // for a stale copy until the next write
+    private static ResponseEntity.BodyBuilder ok(String etag) {
+        return ReadRoutingContext.readsGoToReplica() ? ResponseEntity.ok() : ResponseEntity.ok().eTag(etag);
+    }
 }
@@ -0,0 +1,34 @@
+package com.example.demo.products.infrastructure.controllers;
+
+import com.example.demo.products.infrastructure.index.IndexSuggestionDto;
+import com.example.demo.products.infrastructure.index.ProductIndexAdvisor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("internal/index-advisor/products")
+public class ProductIndexAdvisorController {
+
+    private final ProductIndexAdvisor productIndexAdvisor;
+
+    public ProductIndexAdvisorController(ProductIndexAdvisor productIndexAdvisor) {
+        this.productIndexAdvisor = productIndexAdvisor;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<IndexSuggestionDto>> getSuggestions() {
+        return new ResponseEntity<>(this.productIndexAdvisor.suggest(), HttpStatus.OK);
+    }
+
+    // Creates the current suggestions right away instead of waiting for products.index-advisor.auto-create
+    @PostMapping
+    public ResponseEntity<List<IndexSuggestionDto>> createSuggestedIndexes() {
+        return new ResponseEntity<>(this.productIndexAdvisor.apply(), HttpStatus.CREATED);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.products.infrastructure.criteria;
+
+import com.example.demo.common.infrastructure.criteria.FieldAccessors;
+import com.example.demo.common.infrastructure.criteria.InMemoryCriteriaEngine;
+import com.example.demo.common.infrastructure.criteria.UuidOrder;
+import com.example.demo.products.domain.models.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+@Component
+public class ProductCriteriaEngine extends InMemoryCriteriaEngine<Product> {
+
+    private static final FieldAccessors<Product> FIELDS = new FieldAccessors<Product>()
+            .comparableField("id", UUID.class, Product::getId, UuidOrder.UNSIGNED)
+            .comparableField("name", String.class, Product::getName)
+            .doubleField("price", Product::getPrice)
+            .longField("quantity", Product::getQuantity);
+
+    public ProductCriteriaEngine(@Value("${criteria.in-memory.parallel-threshold:10000}") int parallelThreshold) {
+        super(FIELDS, "id", parallelThreshold);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.products.infrastructure.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "product_counters")
+@IdClass(ProductCounterId.class)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductCounterEntity {
+
+    public static final String PRODUCTS = "products";
+
+    // A counter is spread over this many rows (seeded in data.sql), concurrent writers update different rows
+    // instead of queueing on one row lock, readers sum them
+    public static final int STRIPES = 16;
+
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    @Id
+    @Column(name = "stripe")
+    private Integer stripe;
+
+    // Exact row count share of this stripe, moved in the same transaction as the inserts it counts
+    @Column(name = "counter_value", nullable = false)
+    private Long value;
+}
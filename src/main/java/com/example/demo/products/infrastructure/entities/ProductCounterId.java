@@ -0,0 +1,15 @@
+package com.example.demo.products.infrastructure.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductCounterId implements Serializable {
+    private String name;
+    private Integer stripe;
+}
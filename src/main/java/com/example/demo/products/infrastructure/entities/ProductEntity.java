@@ -5,16 +5,24 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.UUID;
 
+// Kept in the second-level cache, region sizes are set in application.conf
 @Entity
 @Table(name = "products")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ProductEntity.CACHE_REGION)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class ProductEntity {
 
+    public static final String CACHE_REGION = "product-entities";
+    public static final String CRITERIA_QUERY_CACHE_REGION = "product-criteria-queries";
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
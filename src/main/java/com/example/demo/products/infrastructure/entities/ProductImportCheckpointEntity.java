@@ -0,0 +1,27 @@
+package com.example.demo.products.infrastructure.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "product_import_checkpoints")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportCheckpointEntity {
+
+    @Id
+    @Column(name = "file_key", length = 1024)
+    private String fileKey;
+
+    // Data lines of the file already committed, a resumed import skips them
+    @Column(name = "committed_lines", nullable = false)
+    private Long committedLines;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,45 @@
+package com.example.demo.products.infrastructure.imports;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+public enum ProductImportFormat {
+    CSV("csv"),
+    NDJSON("ndjson");
+
+    private static final String CSV_HEADER = "name,price,quantity";
+
+    private final String format;
+
+    ProductImportFormat(String format) {
+        this.format = format;
+    }
+
+    public static ProductImportFormat fromValue(String value) {
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "csv":
+                return ProductImportFormat.CSV;
+            case "ndjson":
+            case "jsonl":
+                return ProductImportFormat.NDJSON;
+            default:
+                return null;
+        }
+    }
+
+    public static ProductImportFormat fromFile(Path file) {
+        String fileName = file.getFileName().toString();
+        int extensionStart = fileName.lastIndexOf('.');
+        return extensionStart < 0 ? null : fromValue(fileName.substring(extensionStart + 1));
+    }
+
+    // CSV files may start with a "name,price,quantity" header line. Only the exact header is skipped,
+    // a first data row for a product called e.g. "nameplate" is imported.
+    public boolean isHeader(String firstLine) {
+        return this == CSV && CSV_HEADER.equalsIgnoreCase(firstLine.trim());
+    }
+
+    public String value() {
+        return format;
+    }
+}
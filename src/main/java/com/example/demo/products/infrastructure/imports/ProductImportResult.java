@@ -0,0 +1,19 @@
+package com.example.demo.products.infrastructure.imports;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ProductImportResult {
+    private final String fileKey;
+    private final long resumedAfterLine; // Lines committed by a previous run and skipped by this one
+    private final long committedLines;
+    private final long importedRows;
+    private final long rejectedRows;
+    private final long elapsedMillis;
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? importedRows : importedRows * 1000.0 / elapsedMillis;
+    }
+}
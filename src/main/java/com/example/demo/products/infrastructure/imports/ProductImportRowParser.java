@@ -0,0 +1,106 @@
+package com.example.demo.products.infrastructure.imports;
+
+import com.example.demo.products.application.dtos.request.CreateProductBodyDto;
+import com.example.demo.products.domain.models.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class ProductImportRowParser {
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public ProductImportRowParser(ObjectMapper objectMapper, Validator validator) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    // Rows go through the same constraints as POST /products, invalid rows are logged and rejected
+    public Optional<Product> parse(String line, long lineNumber, ProductImportFormat format) {
+        CreateProductBodyDto createProductBodyDto;
+        try {
+            createProductBodyDto = format == ProductImportFormat.CSV ? parseCsv(line) : parseNdjson(line);
+        } catch (IllegalArgumentException | JsonProcessingException ex) {
+            log.warn("Rejected line {}: {}", lineNumber, ex.getMessage());
+            return Optional.empty();
+        }
+
+        Set<ConstraintViolation<CreateProductBodyDto>> violations = validator.validate(createProductBodyDto);
+        if (!violations.isEmpty()) {
+            log.warn("Rejected line {}: {}", lineNumber, violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", ")));
+            return Optional.empty();
+        }
+
+        // Ids are assigned here, the rows are written with plain multi-row inserts
+        return Optional.of(new Product(
+                UUID.randomUUID(),
+                createProductBodyDto.getName(),
+                createProductBodyDto.getPrice(),
+                createProductBodyDto.getQuantity()
+        ));
+    }
+
+    private CreateProductBodyDto parseNdjson(String line) throws JsonProcessingException {
+        return objectMapper.readValue(line, CreateProductBodyDto.class);
+    }
+
+    private CreateProductBodyDto parseCsv(String line) {
+        List<String> columns = splitCsvLine(line);
+        if (columns.size() != 3) {
+            throw new IllegalArgumentException("Expected 3 columns (name,price,quantity) but found " + columns.size());
+        }
+
+        return new CreateProductBodyDto(
+                columns.get(0),
+                columns.get(1).isBlank() ? null : Double.valueOf(columns.get(1).trim()),
+                columns.get(2).isBlank() ? null : Long.valueOf(columns.get(2).trim())
+        );
+    }
+
+    // RFC 4180 style fields on a single line: quoted fields may contain commas and "" escapes
+    private List<String> splitCsvLine(String line) {
+        List<String> columns = new ArrayList<>(3);
+        StringBuilder column = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    column.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    column.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                columns.add(column.toString());
+                column.setLength(0);
+            } else {
+                column.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        columns.add(column.toString());
+        return columns;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.products.infrastructure.imports;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+// Runs a catalog import on startup when products.import.file is set, e.g.
+// java -jar demo.jar --products.import.file=catalog.csv --spring.main.web-application-type=none
+@Component
+@ConditionalOnProperty(name = "products.import.file")
+@Slf4j
+public class ProductImportRunner implements ApplicationRunner {
+
+    private final ProductImporter productImporter;
+    private final String importFile;
+    private final String importFormat;
+
+    public ProductImportRunner(
+            ProductImporter productImporter,
+            @Value("${products.import.file}") String importFile,
+            @Value("${products.import.format:}") String importFormat
+    ) {
+        this.productImporter = productImporter;
+        this.importFile = importFile;
+        this.importFormat = importFormat;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path file = Path.of(importFile);
+        ProductImportFormat format = Optional.ofNullable(importFormat.isBlank() ? null : ProductImportFormat.fromValue(importFormat))
+                .or(() -> Optional.ofNullable(ProductImportFormat.fromFile(file)))
+                .orElseThrow(() -> new IllegalArgumentException("Unknown import format for " + file + ", set products.import.format to csv or ndjson"));
+
+        ProductImportResult result = productImporter.importFile(file, format);
+
+        log.info("Imported {} rows ({} rejected) from {} in {} ms, {} rows/sec",
+                result.getImportedRows(),
+                result.getRejectedRows(),
+                file,
+                result.getElapsedMillis(),
+                Math.round(result.getRowsPerSecond()));
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.demo.products.infrastructure.imports;
+
+import com.example.demo.products.application.events.ProductsCreatedEvent;
+import com.example.demo.products.application.ports.ProductRepository;
+import com.example.demo.products.domain.models.Product;
+import com.example.demo.products.infrastructure.adapters.repositories.JpaProductCounterRepository;
+import com.example.demo.products.infrastructure.adapters.repositories.JpaProductImportCheckpointRepository;
+import com.example.demo.products.infrastructure.adapters.repositories.ProductStorage;
+import com.example.demo.products.infrastructure.entities.ProductCounterEntity;
+import com.example.demo.products.infrastructure.entities.ProductImportCheckpointEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+@Slf4j
+public class ProductImporter {
+
+    private static final ImportChunk END_OF_FILE = new ImportChunk(List.of(), -1, true);
+    private static final String INSERT_PREFIX = "INSERT INTO products (id, name, price, quantity) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JpaProductImportCheckpointRepository checkpointRepository;
+    private final JpaProductCounterRepository productCounterRepository;
+    private final ProductImportRowParser rowParser;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductRepository productStorage;
+    private final boolean sharded;
+    private final int chunkSize;
+    private final int queueCapacity;
+    private final long progressIntervalMillis;
+    private final String fullChunkInsertSql;
+
+    public ProductImporter(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            JpaProductImportCheckpointRepository checkpointRepository,
+            JpaProductCounterRepository productCounterRepository,
+            ProductImportRowParser rowParser,
+            ApplicationEventPublisher eventPublisher,
+            @ProductStorage ProductRepository productStorage,
+            @Value("${products.sharding.enabled:false}") boolean sharded,
+            @Value("${products.import.chunk-size:1000}") int chunkSize,
+            @Value("${products.import.queue-capacity:8}") int queueCapacity,
+            @Value("${products.import.progress-interval-ms:5000}") long progressIntervalMillis
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.checkpointRepository = checkpointRepository;
+        this.productCounterRepository = productCounterRepository;
+        this.rowParser = rowParser;
+        this.eventPublisher = eventPublisher;
+        this.productStorage = productStorage;
+        this.sharded = sharded;
+        this.chunkSize = chunkSize;
+        this.queueCapacity = queueCapacity;
+        this.progressIntervalMillis = progressIntervalMillis;
+        this.fullChunkInsertSql = insertSql(chunkSize);
+    }
+
+    public ProductImportResult importFile(Path file, ProductImportFormat format) throws IOException, InterruptedException {
+        // The size is part of the key, so a replaced snapshot with the same name starts from the beginning
+        String fileKey = file.toAbsolutePath().normalize() + ":" + Files.size(file);
+        long resumedAfterLine = checkpointRepository.findById(fileKey)
+                .map(ProductImportCheckpointEntity::getCommittedLines)
+                .orElse(0L);
+        if (resumedAfterLine > 0) {
+            log.info("Resuming import of {} after line {}", file, resumedAfterLine);
+        }
+
+        BlockingQueue<ImportChunk> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicReference<Throwable> parserFailure = new AtomicReference<>();
+        AtomicLong rejectedRows = new AtomicLong();
+
+        // Parsing runs ahead on its own thread, the bounded queue keeps it at most queueCapacity chunks ahead
+        Thread parser = new Thread(() -> {
+            try {
+                parse(file, format, resumedAfterLine, queue, cancelled, rejectedRows);
+            } catch (Throwable ex) {
+                parserFailure.set(ex);
+            } finally {
+                enqueue(queue, END_OF_FILE, cancelled);
+            }
+        }, "product-import-parser");
+
+        long startNanos = System.nanoTime();
+        long lastProgressNanos = startNanos;
+        long importedRows = 0;
+        long committedLines = resumedAfterLine;
+
+        parser.start();
+        try {
+            while (true) {
+                ImportChunk chunk = queue.take();
+                if (chunk.endOfFile()) break;
+
+                importedRows += writeChunk(fileKey, chunk, rejectedRows);
+                committedLines = chunk.lastLine();
+
+                long now = System.nanoTime();
+                if (TimeUnit.NANOSECONDS.toMillis(now - lastProgressNanos) >= progressIntervalMillis) {
+                    lastProgressNanos = now;
+                    log.info("Imported {} rows ({} rejected) up to line {} at {} rows/sec",
+                            importedRows, rejectedRows.get(), committedLines, rowsPerSecond(importedRows, now - startNanos));
+                }
+            }
+        } catch (RuntimeException | InterruptedException ex) {
+            cancelled.set(true);
+            parser.interrupt();
+            throw ex;
+        } finally {
+            parser.join();
+        }
+
+        if (parserFailure.get() != null) {
+            throw new IllegalStateException("Error reading import file " + file + ", committed up to line " + committedLines, parserFailure.get());
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        return new ProductImportResult(fileKey, resumedAfterLine, committedLines, importedRows, rejectedRows.get(), elapsedMillis);
+    }
+
+    private void parse(Path file, ProductImportFormat format, long skipLines, BlockingQueue<ImportChunk> queue,
+                       AtomicBoolean cancelled, AtomicLong rejectedRows) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8), 1 << 16)) {
+
+            long lineNumber = 0; // Data lines only, the CSV header is not counted
+            long lastQueuedLine = skipLines;
+            boolean firstLine = true;
+            List<Product> products = new ArrayList<>(chunkSize);
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (cancelled.get()) return;
+
+                if (firstLine) {
+                    firstLine = false;
+                    if (format.isHeader(line)) continue;
+                }
+
+                lineNumber++;
+                if (lineNumber <= skipLines || line.isBlank()) continue;
+
+                Optional<Product> product = rowParser.parse(line, lineNumber, format);
+                if (product.isPresent()) {
+                    products.add(product.get());
+                } else {
+                    rejectedRows.incrementAndGet();
+                }
+
+                if (products.size() == chunkSize) {
+                    if (!enqueue(queue, new ImportChunk(products, lineNumber, false), cancelled)) return;
+                    lastQueuedLine = lineNumber;
+                    products = new ArrayList<>(chunkSize);
+                }
+            }
+
+            // The last chunk may be empty when only rejected lines are left, it still moves the checkpoint
+            if (lineNumber > lastQueuedLine) {
+                enqueue(queue, new ImportChunk(products, lineNumber, false), cancelled);
+            }
+        }
+    }
+
+    private boolean enqueue(BlockingQueue<ImportChunk> queue, ImportChunk chunk, AtomicBoolean cancelled) {
+        try {
+            while (!cancelled.get()) {
+                if (queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) return true;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private long writeChunk(String fileKey, ImportChunk chunk, AtomicLong rejectedRows) {
+        if (sharded) return writeChunkToShards(fileKey, chunk, rejectedRows);
+
+        try {
+            // Rows and checkpoint commit together, a crash resumes right after the last committed chunk
+            transactionTemplate.executeWithoutResult(status -> {
+                insertRows(chunk.products());
+                saveCheckpoint(fileKey, chunk.lastLine());
+            });
+            publishCreated(chunk.products());
+            return chunk.products().size();
+        } catch (RuntimeException ex) {
+            // One bad row (e.g. a name that already exists) fails the multi-row insert, retry the chunk row by row
+            List<Product> insertedProducts = new ArrayList<>();
+            for (Product product : chunk.products()) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insertRows(List.of(product)));
+                    insertedProducts.add(product);
+                } catch (RuntimeException rowException) {
+                    rejectedRows.incrementAndGet();
+                    log.warn("Rejected product '{}': {}", product.getName(), rowException.getMessage());
+                }
+            }
+            transactionTemplate.executeWithoutResult(status -> saveCheckpoint(fileKey, chunk.lastLine()));
+            publishCreated(insertedProducts);
+            return insertedProducts.size();
+        }
+    }
+
+    // With sharding on the products table of the main database is not read by anyone, the rows go through the
+    // sharded repository, which claims every name on its owner shard and publishes ProductsCreatedEvent itself.
+    // Rows and checkpoint can't commit together across databases: a chunk replayed after a crash finds its names
+    // already claimed and is rejected row by row instead of imported twice.
+    private long writeChunkToShards(String fileKey, ImportChunk chunk, AtomicLong rejectedRows) {
+        List<Optional<Product>> created = productStorage.createProducts(chunk.products());
+        long importedRows = 0;
+        for (int i = 0; i < created.size(); i++) {
+            if (created.get(i).isPresent()) {
+                importedRows++;
+            } else {
+                rejectedRows.incrementAndGet();
+                log.warn("Rejected product '{}': name already exists or the shard write failed", chunk.products().get(i).getName());
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> saveCheckpoint(fileKey, chunk.lastLine()));
+        return importedRows;
+    }
+
+    // Rows written here bypass the repository, so caches and indexes learn about them through the event
+    private void publishCreated(List<Product> products) {
+        if (!products.isEmpty()) {
+            eventPublisher.publishEvent(new ProductsCreatedEvent(products));
+        }
+    }
+
+    // Callers run this inside a transaction, the product counter moves together with the rows
+    private void insertRows(List<Product> products) {
+        if (products.isEmpty()) return;
+
+        String sql = products.size() == chunkSize ? fullChunkInsertSql : insertSql(products.size());
+        jdbcTemplate.update(sql, statement -> {
+            int parameterIndex = 1;
+            for (Product product : products) {
+                statement.setObject(parameterIndex++, product.getId());
+                statement.setString(parameterIndex++, product.getName());
+                statement.setObject(parameterIndex++, product.getPrice());
+                statement.setObject(parameterIndex++, product.getQuantity());
+            }
+        });
+        productCounterRepository.increment(ProductCounterEntity.PRODUCTS, products.size());
+    }
+
+    private void saveCheckpoint(String fileKey, long committedLines) {
+        checkpointRepository.save(new ProductImportCheckpointEntity(fileKey, committedLines, Instant.now()));
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW_PLACEHOLDERS.length() + 2));
+        sql.append(INSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) sql.append(", ");
+            sql.append(ROW_PLACEHOLDERS);
+        }
+        return sql.toString();
+    }
+
+    private static long rowsPerSecond(long rows, long elapsedNanos) {
+        return elapsedNanos == 0 ? rows : rows * 1_000_000_000L / elapsedNanos;
+    }
+
+    private record ImportChunk(List<Product> products, long lastLine, boolean endOfFile) {
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.demo.products.infrastructure.index;
+
+import com.example.demo.common.domain.criteria.Criteria;
+import com.example.demo.common.domain.criteria.Filter;
+import com.example.demo.common.domain.criteria.SingleFilter;
+import com.example.demo.common.domain.criteria.SingleFilterOperator;
+import com.example.demo.products.application.events.ProductsCreatedEvent;
+import com.example.demo.products.application.ports.ProductCatalogIndex;
+import com.example.demo.products.application.ports.ProductRepository;
+import com.example.demo.products.domain.models.Product;
+import com.example.demo.products.infrastructure.adapters.repositories.ProductStorage;
+import com.example.demo.products.infrastructure.criteria.ProductCriteriaEngine;
+import com.example.demo.products.infrastructure.sharding.ProductShards;
+import com.example.demo.products.infrastructure.sharding.ShardDialect;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// In-process columnar copy of the products table for the criteria filters of GET /products/criteria.
+// Loaded once the application is ready and kept current through ProductsCreatedEvent.
+@Component
+@Slf4j
+public class ColumnarProductIndex implements ProductCatalogIndex {
+
+    private static final int LOAD_CHUNK_SIZE = 10_000;
+
+    private final ProductRepository productRepository;
+    private final ProductCriteriaEngine criteriaEngine;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<ProductShards> shards;
+    private final boolean enabled;
+    private final int maxSortRows;
+    private final List<Product> createdWhileLoading = new ArrayList<>();
+    private boolean loading;
+    private volatile boolean sortsNamesLikeTheDatabase;
+    private volatile ColumnarProductSnapshot snapshot; // null until loaded
+
+    public ColumnarProductIndex(
+            @ProductStorage ProductRepository productRepository,
+            ProductCriteriaEngine criteriaEngine,
+            JdbcTemplate jdbcTemplate,
+            ObjectProvider<ProductShards> shards,
+            @Value("${products.columnar-index.enabled:false}") boolean enabled,
+            @Value("${products.columnar-index.max-sort-rows:10000}") int maxSortRows
+    ) {
+        this.productRepository = productRepository;
+        this.criteriaEngine = criteriaEngine;
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+        this.enabled = enabled;
+        this.maxSortRows = maxSortRows;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) return;
+        synchronized (this) {
+            loading = true;
+        }
+        sortsNamesLikeTheDatabase = sortsNamesLikeTheDatabase();
+
+        // The table is read without holding the lock, products created meanwhile are held back and appended
+        // with the swap. The snapshot skips names it already read from the table.
+        long startNanos = System.nanoTime();
+        List<Product> chunk = new ArrayList<>(LOAD_CHUNK_SIZE);
+        ColumnarProductSnapshot[] building = {ColumnarProductSnapshot.empty()};
+        productRepository.streamProducts(product -> {
+            chunk.add(product);
+            if (chunk.size() == LOAD_CHUNK_SIZE) {
+                building[0] = building[0].append(chunk);
+                chunk.clear();
+            }
+        });
+        ColumnarProductSnapshot loaded = building[0].append(chunk);
+
+        synchronized (this) {
+            snapshot = loaded.append(createdWhileLoading);
+            createdWhileLoading.clear();
+            loading = false;
+        }
+
+        log.info("Loaded {} products into the columnar index in {} ms",
+                loaded.size(), (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    @EventListener
+    public synchronized void onProductsCreated(ProductsCreatedEvent event) {
+        if (loading) {
+            createdWhileLoading.addAll(event.getProducts());
+        } else if (snapshot != null) {
+            snapshot = snapshot.append(event.getProducts());
+        }
+    }
+
+    @Override
+    public Optional<List<Product>> findByCriteria(Criteria criteria) {
+        ColumnarProductSnapshot current = snapshot;
+        if (current == null || !isSupported(criteria)) {
+            return Optional.empty();
+        }
+
+        long[] rows = match(current, criteria.getFilters());
+        boolean ordered = criteria.getOrder() != null && criteria.getOrder().hasOrder();
+        if (!ordered && criteria.getLimit() == null && criteria.getOffset() == null) {
+            return Optional.of(current.materialize(rows));
+        }
+
+        // Ordered and paged results end on the id like the database's (snapshot rows are in load order), which
+        // needs every match materialized before the sort. Past maxSortRows the database's index or top-N sort is
+        // cheaper. The filters are already applied, the engine only sorts and pages.
+        if (ColumnarProductSnapshot.cardinality(rows) > maxSortRows) {
+            return Optional.empty();
+        }
+        Criteria ordering = new Criteria(new ArrayList<>(), criteria.getOrder(), criteria.getLimit(), criteria.getOffset());
+        return Optional.of(criteriaEngine.apply(ordering, current.materialize(rows)));
+    }
+
+    // Matching row ordinals of the snapshot, every filter narrows the same bitset
+    public static long[] match(ColumnarProductSnapshot snapshot, List<Filter> filters) {
+        long[] rows = snapshot.allRows();
+        for (Filter filter : filters) {
+            SingleFilter<?> singleFilter = (SingleFilter<?>) filter;
+            SingleFilterOperator operator = singleFilter.getOperator();
+            Object value = singleFilter.getValue();
+
+            switch (singleFilter.getField()) {
+                case "price" -> {
+                    double price = ((Number) value).doubleValue();
+                    switch (operator) {
+                        case GT -> snapshot.retainPriceGreaterThan(rows, price);
+                        case LT -> snapshot.retainPriceLessThan(rows, price);
+                        default -> snapshot.retainPriceEqualTo(rows, price, operator == SingleFilterOperator.EQUAL);
+                    }
+                }
+                case "quantity" -> {
+                    long quantity = ((Number) value).longValue();
+                    switch (operator) {
+                        case GT -> snapshot.retainQuantityGreaterThan(rows, quantity);
+                        case LT -> snapshot.retainQuantityLessThan(rows, quantity);
+                        default -> snapshot.retainQuantityEqualTo(rows, quantity, operator == SingleFilterOperator.EQUAL);
+                    }
+                }
+                default -> snapshot.retainNameEqualTo(rows, (String) value, operator == SingleFilterOperator.EQUAL);
+            }
+        }
+        return rows;
+    }
+
+    // The engine sorts names as Java strings, which is how H2 compares VARCHAR. Other databases sort names by
+    // their collation, orders on name go to the database there.
+    private boolean sortsNamesLikeTheDatabase() {
+        ProductShards productShards = shards.getIfAvailable();
+        if (productShards != null) return productShards.dialect() == ShardDialect.H2;
+        return "H2".equals(jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+    }
+
+    // Plain conjunctions of comparisons on price, quantity and name, with or without an order and a page,
+    // anything else goes to the database
+    private boolean isSupported(Criteria criteria) {
+        if (criteria.getCriteriaJoins() != null && !criteria.getCriteriaJoins().isEmpty()) return false;
+        if (criteria.getOrder() != null && criteria.getOrder().hasOrder()
+                && criteria.getOrder().orderBy().getField().equals("name") && !sortsNamesLikeTheDatabase) return false;
+        if (criteria.getFilters() == null) return true;
+
+        for (Filter filter : criteria.getFilters()) {
+            if (!(filter instanceof SingleFilter<?> singleFilter)) return false;
+
+            SingleFilterOperator operator = singleFilter.getOperator();
+            Object value = singleFilter.getValue();
+            boolean supported = switch (singleFilter.getField()) {
+                case "price", "quantity" -> value instanceof Number && (operator == SingleFilterOperator.GT
+                        || operator == SingleFilterOperator.LT
+                        || operator == SingleFilterOperator.EQUAL
+                        || operator == SingleFilterOperator.NOT_EQUAL);
+                case "name" -> value instanceof String
+                        && (operator == SingleFilterOperator.EQUAL || operator == SingleFilterOperator.NOT_EQUAL);
+                default -> false;
+            };
+            if (!supported) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.demo.products.infrastructure.index;
+
+import com.example.demo.products.domain.models.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Immutable view over column arrays shared between snapshots. Appends write past the size of every
+// published snapshot and then publish a new one, so readers never see a row change under them.
+public class ColumnarProductSnapshot {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int size;
+    private final long[] idMostBits;
+    private final long[] idLeastBits;
+    private final double[] prices;
+    private final long[] quantities;
+    private final int[] nameCodes;
+    private final String[] dictionary;
+    private final Map<String, Integer> codesByName;
+
+    private ColumnarProductSnapshot(int size, long[] idMostBits, long[] idLeastBits, double[] prices, long[] quantities,
+                                    int[] nameCodes, String[] dictionary, Map<String, Integer> codesByName) {
+        this.size = size;
+        this.idMostBits = idMostBits;
+        this.idLeastBits = idLeastBits;
+        this.prices = prices;
+        this.quantities = quantities;
+        this.nameCodes = nameCodes;
+        this.dictionary = dictionary;
+        this.codesByName = codesByName;
+    }
+
+    public static ColumnarProductSnapshot empty() {
+        return new ColumnarProductSnapshot(0, new long[INITIAL_CAPACITY], new long[INITIAL_CAPACITY],
+                new double[INITIAL_CAPACITY], new long[INITIAL_CAPACITY], new int[INITIAL_CAPACITY],
+                new String[INITIAL_CAPACITY], new ConcurrentHashMap<>());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Must only be called by a single writer and only on the latest snapshot.
+    // Names are unique in the catalog, products whose name is already indexed are skipped.
+    public ColumnarProductSnapshot append(List<Product> products) {
+        int required = size + products.size();
+        boolean grow = required > prices.length;
+        int capacity = grow ? Math.max(required, prices.length * 2) : prices.length;
+
+        long[] newIdMostBits = grow ? Arrays.copyOf(idMostBits, capacity) : idMostBits;
+        long[] newIdLeastBits = grow ? Arrays.copyOf(idLeastBits, capacity) : idLeastBits;
+        double[] newPrices = grow ? Arrays.copyOf(prices, capacity) : prices;
+        long[] newQuantities = grow ? Arrays.copyOf(quantities, capacity) : quantities;
+        int[] newNameCodes = grow ? Arrays.copyOf(nameCodes, capacity) : nameCodes;
+        String[] newDictionary = grow ? Arrays.copyOf(dictionary, capacity) : dictionary;
+
+        int row = size;
+        for (Product product : products) {
+            if (codesByName.containsKey(product.getName())) continue;
+
+            newIdMostBits[row] = product.getId().getMostSignificantBits();
+            newIdLeastBits[row] = product.getId().getLeastSignificantBits();
+            newPrices[row] = product.getPrice();
+            newQuantities[row] = product.getQuantity();
+            // Unique names make the dictionary one entry per row, the code still keeps the scan on an int[]
+            newNameCodes[row] = row;
+            newDictionary[row] = product.getName();
+            codesByName.put(product.getName(), row);
+            row++;
+        }
+
+        return new ColumnarProductSnapshot(row, newIdMostBits, newIdLeastBits, newPrices, newQuantities,
+                newNameCodes, newDictionary, codesByName);
+    }
+
+    // Row ordinals are bits of a long[], bit (row & 63) of word (row >>> 6)
+    public long[] allRows() {
+        long[] rows = new long[(size + 63) >>> 6];
+        Arrays.fill(rows, -1L);
+        int tail = size & 63;
+        if (tail != 0) {
+            rows[rows.length - 1] = (1L << tail) - 1;
+        }
+        return rows;
+    }
+
+    // The scans below build each 64 row word without branches, the inner loops are plain array reads and
+    // compares the JIT can unroll and vectorize
+
+    public void retainPriceGreaterThan(long[] rows, double value) {
+        for (int word = 0; word < rows.length; word++) {
+            if (rows[word] == 0) continue;
+            int base = word << 6;
+            int end = Math.min(base + 64, size);
+            long mask = 0;
+            for (int row = base; row < end; row++) {
+                mask |= (prices[row] > value ? 1L : 0L) << (row - base);
+            }
+            rows[word] &= mask;
+        }
+    }
+
+    public void retainPriceLessThan(long[] rows, double value) {
+        for (int word = 0; word < rows.length; word++) {
+            if (rows[word] == 0) continue;
+            int base = word << 6;
+            int end = Math.min(base + 64, size);
+            long mask = 0;
+            for (int row = base; row < end; row++) {
+                mask |= (prices[row] < value ? 1L : 0L) << (row - base);
+            }
+            rows[word] &= mask;
+        }
+    }
+
+    public void retainPriceEqualTo(long[] rows, double value, boolean equal) {
+        for (int word = 0; word < rows.length; word++) {
+            if (rows[word] == 0) continue;
+            int base = word << 6;
+            int end = Math.min(base + 64, size);
+            long mask = 0;
+            for (int row = base; row < end; row++) {
+                mask |= (prices[row] == value ? 1L : 0L) << (row - base);
+            }
+            rows[word] &= equal ? mask : ~mask;
+        }
+    }
+
+    public void retainQuantityGreaterThan(long[] rows, long value) {
+        for (int word = 0; word < rows.length; word++) {
+            if (rows[word] == 0) continue;
+            int base = word << 6;
+            int end = Math.min(base + 64, size);
+            long mask = 0;
+            for (int row = base; row < end; row++) {
+                mask |= (quantities[row] > value ? 1L : 0L) << (row - base);
+            }
+            rows[word] &= mask;
+        }
+    }
+
+    public void retainQuantityLessThan(long[] rows, long value) {
+        for (int word = 0; word < rows.length; word++) {
+            if (rows[word] == 0) continue;
+            int base = word << 6;
+            int end = Math.min(base + 64, size);
+            long mask = 0;
+            for (int row = base; row < end; row++) {
+                mask |= (quantities[row] < value ? 1L : 0L) << (row - base);
+            }
+            rows[word] &= mask;
+        }
+    }
+
+    public void retainQuantityEqualTo(long[] rows, long value, boolean equal) {
+        for (int word = 0; word < rows.length; word++) {
+            if (rows[word] == 0) continue;
+            int base = word << 6;
+            int end = Math.min(base + 64, size);
+            long mask = 0;
+            for (int row = base; row < end; row++) {
+                mask |= (quantities[row] == value ? 1L : 0L) << (row - base);
+            }
+            rows[word] &= equal ? mask : ~mask;
+        }
+    }
+
+    // Name equality is a dictionary lookup, the matching code is then scanned for in the int column
+    public void retainNameEqualTo(long[] rows, String name, boolean equal) {
+        Integer code = codesByName.get(name);
+        if (code == null || code >= size) {
+            // Unknown to this snapshot (or appended after it was published)
+            if (equal) Arrays.fill(rows, 0L);
+            return;
+        }
+
+        int target = code;
+        for (int word = 0; word < rows.length; word++) {
+            if (rows[word] == 0) continue;
+            int base = word << 6;
+            int end = Math.min(base + 64, size);
+            long mask = 0;
+            for (int row = base; row < end; row++) {
+                mask |= (nameCodes[row] == target ? 1L : 0L) << (row - base);
+            }
+            rows[word] &= equal ? mask : ~mask;
+        }
+    }
+
+    public List<Product> materialize(long[] rows) {
+        List<Product> products = new ArrayList<>(cardinality(rows));
+        for (int word = 0; word < rows.length; word++) {
+            long bits = rows[word];
+            while (bits != 0) {
+                int row = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                products.add(new Product(
+                        new UUID(idMostBits[row], idLeastBits[row]),
+                        dictionary[nameCodes[row]],
+                        prices[row],
+                        quantities[row]
+                ));
+            }
+        }
+        return products;
+    }
+
+    public static int cardinality(long[] rows) {
+        int count = 0;
+        for (long word : rows) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
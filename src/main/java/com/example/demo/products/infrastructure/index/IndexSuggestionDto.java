@@ -0,0 +1,17 @@
+package com.example.demo.products.infrastructure.index;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class IndexSuggestionDto {
+    private String table;
+    private List<String> columns;
+    private String ddl;
+    private long queries; // Tracked queries the index would serve
+    private double estimatedSelectivity; // Share of the table those queries match, from recent filter values
+    private boolean created;
+}
@@ -0,0 +1,203 @@
+package com.example.demo.products.infrastructure.index;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Inverted index from every 3 character window of a product name to the rows containing it. Posting lists hold
+// ascending row ordinals as varint encoded deltas, so a common trigram costs about a byte per row.
+// A fragment is looked up by intersecting the postings of its trigrams, rarest first, and verifying the
+// candidates against the stored names, which gives exactly the rows of name LIKE '%fragment%'.
+//
+// One writer at a time (callers synchronize), readers don't lock: arrays and postings are filled before size
+// and lengths are published, and readers never look past the size they read first.
+public final class NameTrigramIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Map<Long, Posting> postings = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[INITIAL_CAPACITY];
+    private volatile long[] idMostBits = new long[INITIAL_CAPACITY];
+    private volatile long[] idLeastBits = new long[INITIAL_CAPACITY];
+    private volatile int size;
+
+    public void add(UUID id, String name) {
+        int row = size;
+        if (row == names.length) {
+            int capacity = row * 2;
+            names = Arrays.copyOf(names, capacity);
+            idMostBits = Arrays.copyOf(idMostBits, capacity);
+            idLeastBits = Arrays.copyOf(idLeastBits, capacity);
+        }
+        names[row] = name;
+        idMostBits[row] = id.getMostSignificantBits();
+        idLeastBits[row] = id.getLeastSignificantBits();
+
+        // A trigram repeated inside the same name is posted once
+        Set<Long> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= name.length(); i++) {
+            long trigram = trigram(name, i);
+            if (trigrams.add(trigram)) {
+                postings.computeIfAbsent(trigram, key -> new Posting()).append(row);
+            }
+        }
+        size = row + 1;
+    }
+
+    // LIKE treats % and _ (and its escape character) as wildcards, fragments with them are left to the database
+    public static boolean isIndexable(String fragment) {
+        return fragment.length() >= 3
+                && fragment.indexOf('%') < 0
+                && fragment.indexOf('_') < 0
+                && fragment.indexOf('\\') < 0;
+    }
+
+    // Ordinals of the rows whose name contains the fragment, ascending
+    public int[] search(String fragment) {
+        if (fragment.length() < 3) {
+            throw new IllegalArgumentException("Fragment must have at least 3 characters");
+        }
+        int visibleRows = size;
+        String[] visibleNames = names;
+
+        Set<Long> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= fragment.length(); i++) {
+            trigrams.add(trigram(fragment, i));
+        }
+
+        Posting[] lists = new Posting[trigrams.size()];
+        int index = 0;
+        for (long trigram : trigrams) {
+            Posting posting = postings.get(trigram);
+            if (posting == null) return new int[0];
+            lists[index++] = posting;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(Posting::count));
+
+        int[] candidates = lists[0].decode(visibleRows);
+        int candidateCount = candidates.length;
+        for (int i = 1; i < lists.length && candidateCount > 0; i++) {
+            candidateCount = lists[i].retain(candidates, candidateCount, visibleRows);
+        }
+
+        // Trigrams only prove the windows exist somewhere in the name, not that they are adjacent
+        int matches = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            if (visibleNames[candidates[i]].contains(fragment)) {
+                candidates[matches++] = candidates[i];
+            }
+        }
+        return Arrays.copyOf(candidates, matches);
+    }
+
+    public UUID id(int row) {
+        return new UUID(idMostBits[row], idLeastBits[row]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int trigramCount() {
+        return postings.size();
+    }
+
+    public long postingBytes() {
+        long bytes = 0;
+        for (Posting posting : postings.values()) {
+            bytes += posting.length;
+        }
+        return bytes;
+    }
+
+    private static long trigram(String text, int offset) {
+        return ((long) text.charAt(offset) << 32) | ((long) text.charAt(offset + 1) << 16) | text.charAt(offset + 2);
+    }
+
+    private static final class Posting {
+        private volatile byte[] bytes = new byte[4];
+        private volatile int length;
+        private volatile int count;
+        private int lastRow = -1;
+
+        private void append(int row) {
+            int delta = row - lastRow;
+            lastRow = row;
+
+            byte[] target = bytes;
+            int position = length;
+            if (position + 5 > target.length) {
+                target = Arrays.copyOf(target, Math.max(target.length * 2, position + 5));
+            }
+            while ((delta & ~0x7F) != 0) {
+                target[position++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            target[position++] = (byte) delta;
+
+            bytes = target;
+            count = count + 1;
+            length = position;
+        }
+
+        private int count() {
+            return count;
+        }
+
+        private int[] decode(int visibleRows) {
+            int end = length;
+            byte[] source = bytes;
+            int[] rows = new int[count];
+            int found = 0;
+            int row = -1;
+            int position = 0;
+            while (position < end) {
+                int delta = 0;
+                int shift = 0;
+                byte next;
+                do {
+                    next = source[position++];
+                    delta |= (next & 0x7F) << shift;
+                    shift += 7;
+                } while (next < 0);
+                row += delta;
+                if (row >= visibleRows || found == rows.length) break;
+                rows[found++] = row;
+            }
+            return found == rows.length ? rows : Arrays.copyOf(rows, found);
+        }
+
+        // Keeps the candidates (ascending) that are also in this posting, returns how many are left at the front
+        private int retain(int[] candidates, int candidateCount, int visibleRows) {
+            int end = length;
+            byte[] source = bytes;
+            int kept = 0;
+            int next = 0;
+            int row = -1;
+            int position = 0;
+            while (position < end && next < candidateCount) {
+                int delta = 0;
+                int shift = 0;
+                byte current;
+                do {
+                    current = source[position++];
+                    delta |= (current & 0x7F) << shift;
+                    shift += 7;
+                } while (current < 0);
+                row += delta;
+                if (row >= visibleRows) break;
+
+                while (next < candidateCount && candidates[next] < row) next++;
+                if (next < candidateCount && candidates[next] == row) {
+                    candidates[kept++] = row;
+                    next++;
+                }
+            }
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.demo.products.infrastructure.index;
+
+import com.example.demo.common.domain.criteria.SingleFilterOperator;
+import com.example.demo.common.infrastructure.criteria.FilterCombinationDto;
+import com.example.demo.common.infrastructure.criteria.FilterUsageTracker;
+import com.example.demo.products.infrastructure.entities.ProductEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.*;
+
+// Suggests indexes on the products table from the filters that actually reach the database. Each tracked
+// combination of top-level filters is turned into a candidate: equality columns first, most selective first,
+// then the most selective range column (a B-tree can only range scan its last used column). Selectivity is
+// measured with COUNT queries over recently seen values. Candidates already served by an existing index prefix,
+// seen too rarely or matching too much of the table are left out. The COUNT queries only run on the scheduled
+// refresh and on an explicit apply, reading the suggestions returns the last estimates.
+@Component
+@Slf4j
+public class ProductIndexAdvisor {
+
+    private static final String TABLE = "products";
+    private static final String ENTITY = ProductEntity.class.getSimpleName();
+    private static final Map<String, String> COLUMNS = Map.of("id", "id", "name", "name", "price", "price", "quantity", "quantity");
+    private static final Map<SingleFilterOperator, String> SQL_OPERATORS = Map.of(
+            SingleFilterOperator.EQUAL, " = ?",
+            SingleFilterOperator.GT, " > ?",
+            SingleFilterOperator.LT, " < ?"
+    );
+
+    private final FilterUsageTracker filterUsageTracker;
+    private final JdbcTemplate jdbcTemplate;
+    private final long minQueries;
+    private final double maxSelectivity;
+    private final int sampleQueries;
+    private final boolean autoCreate;
+    private volatile List<IndexSuggestionDto> suggestions = List.of();
+
+    public ProductIndexAdvisor(
+            FilterUsageTracker filterUsageTracker,
+            JdbcTemplate jdbcTemplate,
+            @Value("${products.index-advisor.min-queries:100}") long minQueries,
+            @Value("${products.index-advisor.max-selectivity:0.1}") double maxSelectivity,
+            @Value("${products.index-advisor.sample-queries:8}") int sampleQueries,
+            @Value("${products.index-advisor.auto-create:false}") boolean autoCreate
+    ) {
+        this.filterUsageTracker = filterUsageTracker;
+        this.jdbcTemplate = jdbcTemplate;
+        this.minQueries = minQueries;
+        this.maxSelectivity = maxSelectivity;
+        this.sampleQueries = sampleQueries;
+        this.autoCreate = autoCreate;
+    }
+
+    // Estimates of the last refresh, empty until the first one has run
+    public List<IndexSuggestionDto> suggest() {
+        return suggestions;
+    }
+
+    public synchronized List<IndexSuggestionDto> refresh() {
+        suggestions = estimate();
+        return suggestions;
+    }
+
+    private List<IndexSuggestionDto> estimate() {
+        long totalRows = Objects.requireNonNullElse(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + TABLE, Long.class), 0L);
+        if (totalRows == 0) return List.of();
+
+        List<List<String>> existingIndexes = existingIndexes();
+        Map<List<String>, IndexSuggestionDto> suggestions = new LinkedHashMap<>();
+        for (FilterCombinationDto combination : filterUsageTracker.combinations()) {
+            if (!ENTITY.equals(combination.getEntity()) || combination.getCount() < minQueries) continue;
+
+            Optional<IndexSuggestionDto> candidate = candidate(combination, totalRows);
+            if (candidate.isEmpty() || isCovered(candidate.get().getColumns(), existingIndexes)) continue;
+
+            // Different combinations can lead to the same index, it serves all of their queries
+            suggestions.merge(candidate.get().getColumns(), candidate.get(), (current, other) -> new IndexSuggestionDto(
+                    TABLE, current.getColumns(), current.getDdl(), current.getQueries() + other.getQueries(),
+                    Math.max(current.getEstimatedSelectivity(), other.getEstimatedSelectivity()), false));
+        }
+
+        return suggestions.values().stream()
+                .sorted(Comparator.comparingLong(IndexSuggestionDto::getQueries).reversed())
+                .toList();
+    }
+
+    public synchronized List<IndexSuggestionDto> apply() {
+        List<IndexSuggestionDto> created = new ArrayList<>();
+        for (IndexSuggestionDto suggestion : estimate()) {
+            jdbcTemplate.execute(suggestion.getDdl());
+            log.info("Created index on {}({}) for {} queries matching about {}% of the table", TABLE,
+                    String.join(", ", suggestion.getColumns()), suggestion.getQueries(),
+                    String.format(Locale.ROOT, "%.2f", suggestion.getEstimatedSelectivity() * 100));
+            suggestion.setCreated(true);
+            created.add(suggestion);
+        }
+        // Everything estimated is now covered by an index
+        suggestions = List.of();
+        return created;
+    }
+
+    @Scheduled(initialDelayString = "${products.index-advisor.interval:10m}", fixedDelayString = "${products.index-advisor.interval:10m}")
+    public void scheduledRefresh() {
+        if (autoCreate) {
+            apply();
+        } else {
+            refresh();
+        }
+    }
+
+    private Optional<IndexSuggestionDto> candidate(FilterCombinationDto combination, long totalRows) {
+        List<Object[]> samples = filterUsageTracker.recentValues(combination);
+        if (samples.isEmpty()) return Optional.empty();
+        if (samples.size() > sampleQueries) samples = samples.subList(0, sampleQueries);
+
+        // Filter positions per indexable column, a range like price > ? AND price < ? stays together
+        Map<String, List<Integer>> filtersByColumn = new LinkedHashMap<>();
+        Set<String> rangeColumns = new HashSet<>();
+        List<String> filters = combination.getFilters();
+        for (int i = 0; i < filters.size(); i++) {
+            String[] fieldAndOperator = filters.get(i).split(":");
+            String column = COLUMNS.get(fieldAndOperator[0]);
+            SingleFilterOperator operator = SingleFilterOperator.valueOf(fieldAndOperator[1]);
+            if (column == null || !SQL_OPERATORS.containsKey(operator)) continue;
+
+            filtersByColumn.computeIfAbsent(column, key -> new ArrayList<>()).add(i);
+            if (operator != SingleFilterOperator.EQUAL) rangeColumns.add(column);
+        }
+        if (filtersByColumn.isEmpty()) return Optional.empty();
+
+        Map<String, Double> selectivity = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> column : filtersByColumn.entrySet()) {
+            selectivity.put(column.getKey(), selectivity(combination, Map.of(column.getKey(), column.getValue()), samples, totalRows));
+        }
+
+        List<String> columns = new ArrayList<>(filtersByColumn.keySet().stream()
+                .filter(column -> !rangeColumns.contains(column))
+                .sorted(Comparator.comparing(selectivity::get))
+                .toList());
+        rangeColumns.stream().min(Comparator.comparing(selectivity::get)).ifPresent(columns::add);
+
+        Map<String, List<Integer>> indexedFilters = new LinkedHashMap<>();
+        columns.forEach(column -> indexedFilters.put(column, filtersByColumn.get(column)));
+        double estimatedSelectivity = columns.size() == 1
+                ? selectivity.get(columns.get(0))
+                : selectivity(combination, indexedFilters, samples, totalRows);
+        if (estimatedSelectivity > maxSelectivity) return Optional.empty();
+
+        String ddl = String.format("CREATE INDEX IF NOT EXISTS idx_%s_%s ON %s (%s)",
+                TABLE, String.join("_", columns), TABLE, String.join(", ", columns));
+        return Optional.of(new IndexSuggestionDto(TABLE, columns, ddl, combination.getCount(), estimatedSelectivity, false));
+    }
+
+    // Average share of the table matched by the given filters of the combination over the sampled values
+    private double selectivity(FilterCombinationDto combination, Map<String, List<Integer>> filtersByColumn,
+                               List<Object[]> samples, long totalRows) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM ").append(TABLE).append(" WHERE ");
+        List<Integer> positions = new ArrayList<>();
+        for (Map.Entry<String, List<Integer>> column : filtersByColumn.entrySet()) {
+            for (int position : column.getValue()) {
+                if (!positions.isEmpty()) sql.append(" AND ");
+                SingleFilterOperator operator = SingleFilterOperator.valueOf(combination.getFilters().get(position).split(":")[1]);
+                sql.append(column.getKey()).append(SQL_OPERATORS.get(operator));
+                positions.add(position);
+            }
+        }
+
+        long matched = 0;
+        for (Object[] values : samples) {
+            Object[] arguments = positions.stream().map(position -> values[position]).toArray();
+            matched += Objects.requireNonNullElse(jdbcTemplate.queryForObject(sql.toString(), Long.class, arguments), 0L);
+        }
+        return (double) matched / samples.size() / totalRows;
+    }
+
+    private boolean isCovered(List<String> columns, List<List<String>> existingIndexes) {
+        return existingIndexes.stream().anyMatch(index -> index.size() >= columns.size() && index.subList(0, columns.size()).equals(columns));
+    }
+
+    // Column lists of the indexes already on the table, in index order
+    private List<List<String>> existingIndexes() {
+        return jdbcTemplate.execute((ConnectionCallback<List<List<String>>>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String table = metaData.storesUpperCaseIdentifiers() ? TABLE.toUpperCase(Locale.ROOT) : TABLE;
+
+            Map<String, SortedMap<Short, String>> indexes = new HashMap<>();
+            try (ResultSet resultSet = metaData.getIndexInfo(null, null, table, false, true)) {
+                while (resultSet.next()) {
+                    String indexName = resultSet.getString("INDEX_NAME");
+                    String column = resultSet.getString("COLUMN_NAME");
+                    if (indexName == null || column == null) continue;
+                    indexes.computeIfAbsent(indexName, key -> new TreeMap<>())
+                            .put(resultSet.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+                }
+            }
+            return indexes.values().stream().map(columns -> List.copyOf(columns.values())).toList();
+        });
+    }
+}
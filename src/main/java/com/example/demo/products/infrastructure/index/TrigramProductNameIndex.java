@@ -0,0 +1,119 @@
+package com.example.demo.products.infrastructure.index;
+
+import com.example.demo.products.application.events.ProductsCreatedEvent;
+import com.example.demo.products.application.ports.ProductNameIndex;
+import com.example.demo.products.application.ports.ProductRepository;
+import com.example.demo.products.domain.models.Product;
+import com.example.demo.products.infrastructure.adapters.repositories.ProductStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// Trigram index over product names for name CONTAINS filters, loaded once the application is ready and
+// kept current through ProductsCreatedEvent
+@Component
+@Slf4j
+public class TrigramProductNameIndex implements ProductNameIndex {
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final int maxIds;
+    private final NameTrigramIndex index = new NameTrigramIndex();
+    private final List<Product> createdWhileLoading = new ArrayList<>();
+    private boolean loading;
+    private volatile boolean ready;
+    private volatile boolean inSync;
+
+    public TrigramProductNameIndex(
+            @ProductStorage ProductRepository productRepository,
+            @Value("${products.name-index.enabled:true}") boolean enabled,
+            @Value("${products.name-index.max-ids:1000}") int maxIds
+    ) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.maxIds = maxIds;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) return;
+        synchronized (this) {
+            loading = true;
+        }
+
+        // Writes aren't blocked while the table is read, products created meanwhile are held back and
+        // only added afterwards when the read didn't already see them
+        long startNanos = System.nanoTime();
+        productRepository.streamProducts(product -> index.add(product.getId(), product.getName()));
+
+        synchronized (this) {
+            for (Product product : createdWhileLoading) {
+                if (!isIndexed(product)) {
+                    index.add(product.getId(), product.getName());
+                }
+            }
+            createdWhileLoading.clear();
+            loading = false;
+            ready = true;
+        }
+        checkInSync();
+
+        log.info("Loaded {} product names into the trigram index ({} trigrams, {} posting bytes) in {} ms",
+                index.size(), index.trigramCount(), index.postingBytes(), (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    @EventListener
+    public synchronized void onProductsCreated(ProductsCreatedEvent event) {
+        if (loading) {
+            createdWhileLoading.addAll(event.getProducts());
+        } else if (ready) {
+            event.getProducts().forEach(product -> index.add(product.getId(), product.getName()));
+        }
+    }
+
+    // Products only reach the index after their commit (and never when another instance wrote them), so it
+    // only answers while it holds as many products as are committed. Nothing is deleted, equal counts mean the
+    // same products. Counted on a schedule instead of per search, local creations keep both sides in step and
+    // a write from another instance goes unnoticed for at most one interval.
+    @Scheduled(fixedDelayString = "${products.name-index.sync-check-interval:5s}")
+    public void checkInSync() {
+        if (!ready) return;
+        int indexed = index.size();
+        inSync = indexed == productRepository.countProducts();
+    }
+
+    @Override
+    public Optional<List<UUID>> findIdsByNameContaining(String fragment) {
+        if (!ready || !inSync || !NameTrigramIndex.isIndexable(fragment)) {
+            return Optional.empty();
+        }
+
+        // Past maxIds the id list costs more than letting the database run the LIKE
+        int[] rows = index.search(fragment);
+        if (rows.length > maxIds) {
+            return Optional.empty();
+        }
+
+        List<UUID> ids = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            ids.add(index.id(row));
+        }
+        return Optional.of(ids);
+    }
+
+    private boolean isIndexed(Product product) {
+        if (product.getName().length() < 3) return false; // No trigrams, can't be looked up and never matches a search either
+        for (int row : index.search(product.getName())) {
+            if (index.id(row).equals(product.getId())) return true;
+        }
+        return false;
+    }
+}
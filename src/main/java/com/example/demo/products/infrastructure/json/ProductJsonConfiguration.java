@@ -0,0 +1,23 @@
+package com.example.demo.products.infrastructure.json;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class ProductJsonConfiguration implements WebMvcConfigurer {
+
+    private final ProductListHttpMessageConverter productListHttpMessageConverter;
+
+    public ProductJsonConfiguration(ProductListHttpMessageConverter productListHttpMessageConverter) {
+        this.productListHttpMessageConverter = productListHttpMessageConverter;
+    }
+
+    // Ahead of Jackson, which would otherwise try to serialize ProductListBody as a bean
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, productListHttpMessageConverter);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.products.infrastructure.json;
+
+import com.example.demo.products.domain.models.Product;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+// Response body of a product array (/products, /products/criteria). ProductListHttpMessageConverter hands
+// its consumer to the source and writes every product as it comes, no response DTO is built.
+public final class ProductListBody {
+
+    private final Consumer<Consumer<Product>> source;
+
+    private ProductListBody(Consumer<Consumer<Product>> source) {
+        this.source = source;
+    }
+
+    public static ProductListBody of(List<Product> products) {
+        return new ProductListBody(products::forEach);
+    }
+
+    // The source runs while the response is written, e.g. a repository cursor
+    public static ProductListBody streamed(Consumer<Consumer<Product>> source) {
+        return new ProductListBody(source);
+    }
+
+    void forEach(Consumer<Product> consumer) {
+        source.accept(consumer);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.products.infrastructure.json;
+
+import com.example.demo.common.infrastructure.json.JsonOutputBuffer;
+import com.example.demo.common.infrastructure.json.JsonOutputBufferPool;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Writes ProductListBody bodies (/products, /products/criteria) with ProductJsonWriter instead of Jackson,
+// straight from the products the body's source hands over. Responses that fit under the flush threshold go
+// out in one write with a Content-Length, larger ones are streamed in threshold sized pieces.
+@Component
+public class ProductListHttpMessageConverter extends AbstractHttpMessageConverter<ProductListBody> {
+
+    private final ProductJsonWriter productJsonWriter;
+    private final JsonOutputBufferPool bufferPool;
+
+    public ProductListHttpMessageConverter(ProductJsonWriter productJsonWriter, JsonOutputBufferPool bufferPool) {
+        super(MediaType.APPLICATION_JSON);
+        this.productJsonWriter = productJsonWriter;
+        this.bufferPool = bufferPool;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ProductListBody.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected void writeInternal(ProductListBody body, HttpOutputMessage outputMessage) throws IOException {
+        JsonOutputBuffer buffer = bufferPool.acquire();
+        // Only taken once a piece has to go out, until then the headers can still get a Content-Length
+        AtomicReference<OutputStream> outputStream = new AtomicReference<>();
+
+        try {
+            buffer.writeByte('[');
+            AtomicBoolean firstProduct = new AtomicBoolean(true);
+            body.forEach(product -> {
+                if (!firstProduct.getAndSet(false)) buffer.writeByte(',');
+                productJsonWriter.write(buffer, product);
+
+                if (buffer.size() >= bufferPool.flushThreshold()) {
+                    try {
+                        if (outputStream.get() == null) outputStream.set(outputMessage.getBody());
+                        buffer.drainTo(outputStream.get());
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                }
+            });
+            buffer.writeByte(']');
+
+            if (outputStream.get() == null) {
+                outputMessage.getHeaders().setContentLength(buffer.size());
+                outputStream.set(outputMessage.getBody());
+            }
+            buffer.drainTo(outputStream.get());
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    @Override
+    protected ProductListBody readInternal(Class<? extends ProductListBody> clazz, HttpInputMessage inputMessage) {
+        throw new UnsupportedOperationException("Product lists are written only");
+    }
+}
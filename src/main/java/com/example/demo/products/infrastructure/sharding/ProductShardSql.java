@@ -0,0 +1,184 @@
+package com.example.demo.products.infrastructure.sharding;
+
+import com.example.demo.common.domain.criteria.CompoundFilter;
+import com.example.demo.common.domain.criteria.CompoundFilterOperator;
+import com.example.demo.common.domain.criteria.Filter;
+import com.example.demo.common.domain.criteria.Order;
+import com.example.demo.common.domain.criteria.SingleFilter;
+import com.example.demo.common.infrastructure.criteria.FilterValueCoercer;
+import com.example.demo.common.infrastructure.criteria.UuidOrder;
+import com.example.demo.products.domain.models.Product;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+// Criteria to SQL for the products table of a shard, with the same operators and value coercion as
+// PredicateFactory. Every ordering ends with id and names are ordered in the dialect's binary collation, so each
+// shard returns rows in exactly the order comparator() gives and the k-way merge of the shard results is globally ordered.
+public final class ProductShardSql {
+
+    public static final String SELECT = "SELECT id, name, price, quantity FROM products";
+    public static final String INSERT = "INSERT INTO products (id, name, price, quantity) VALUES (?, ?, ?, ?)";
+    public static final String SCHEMA = "CREATE TABLE IF NOT EXISTS products (id UUID PRIMARY KEY, name VARCHAR(255) NOT NULL UNIQUE, "
+            + "price DOUBLE PRECISION NOT NULL, quantity BIGINT NOT NULL)";
+    // The shard a name hashes to owns it, its primary key is what keeps names unique across shards
+    public static final String NAMES_SCHEMA = "CREATE TABLE IF NOT EXISTS product_names (name VARCHAR(255) PRIMARY KEY, id UUID NOT NULL)";
+    public static final String CLAIM_NAME = "INSERT INTO product_names (name, id) VALUES (?, ?)";
+    public static final String RELEASE_NAME = "DELETE FROM product_names WHERE name = ? AND id = ?";
+
+    // Parameters of INSERT, and of CLAIM_NAME and RELEASE_NAME
+    public static final ParameterizedPreparedStatementSetter<Product> INSERT_PARAMETERS = (statement, product) -> {
+        statement.setObject(1, product.getId());
+        statement.setString(2, product.getName());
+        statement.setObject(3, product.getPrice());
+        statement.setObject(4, product.getQuantity());
+    };
+    public static final ParameterizedPreparedStatementSetter<Product> NAME_PARAMETERS = (statement, product) -> {
+        statement.setString(1, product.getName());
+        statement.setObject(2, product.getId());
+    };
+
+    public static final RowMapper<Product> ROW_MAPPER = (resultSet, rowNumber) -> new Product(
+            resultSet.getObject("id", UUID.class),
+            resultSet.getString("name"),
+            resultSet.getDouble("price"),
+            resultSet.getLong("quantity")
+    );
+
+    public static final Comparator<Product> ID_ORDER = Comparator.comparing(Product::getId, UuidOrder.UNSIGNED);
+
+    private static final Map<String, Class<?>> COLUMN_TYPES = Map.of(
+            "id", UUID.class,
+            "name", String.class,
+            "price", Double.class,
+            "quantity", Long.class
+    );
+
+    private static final Map<String, Function<Product, Comparable<?>>> COLUMN_VALUES = Map.of(
+            "id", Product::getId,
+            "name", Product::getName,
+            "price", Product::getPrice,
+            "quantity", Product::getQuantity
+    );
+
+    private ProductShardSql() {
+    }
+
+    // Appends the WHERE clause (nothing without filters) and adds its values to parameters
+    public static String where(List<Filter> filters, List<Object> parameters) {
+        if (filters == null || filters.isEmpty()) return "";
+        return " WHERE " + conjunction(filters, CompoundFilterOperator.AND, parameters);
+    }
+
+    // Backs the keyset pages, in the same collation they are ordered by
+    public static String nameIndex(ShardDialect dialect) {
+        return "CREATE INDEX IF NOT EXISTS products_name_id ON products (" + dialect.binary("name") + ", id)";
+    }
+
+    public static Comparator<Product> nameIdOrder(ShardDialect dialect) {
+        return Comparator.comparing(Product::getName, dialect.nameOrder()).thenComparing(ID_ORDER);
+    }
+
+    public static String firstKeysetPage(ShardDialect dialect) {
+        return SELECT + " ORDER BY " + dialect.binary("name") + " ASC, id ASC LIMIT ?";
+    }
+
+    // Parameters: name, name, id, limit
+    public static String keysetPageAfter(ShardDialect dialect) {
+        return SELECT + " WHERE " + dialect.binary("name") + " > ? OR (name = ? AND id > ?) ORDER BY "
+                + dialect.binary("name") + " ASC, id ASC LIMIT ?";
+    }
+
+    // Without an order rows are sorted by id, offset and limit need some total order to mean the same on every call
+    public static String orderBy(Order order, ShardDialect dialect) {
+        if (!order.hasOrder() || column(order.orderBy().getField()).equals("id")) {
+            return " ORDER BY id " + direction(order);
+        }
+
+        String column = column(order.orderBy().getField());
+        String sortKey = column.equals("name") ? dialect.binary(column) : column;
+        return " ORDER BY " + sortKey + " " + direction(order) + ", id ASC";
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Comparator<Product> comparator(Order order, ShardDialect dialect) {
+        if (!order.hasOrder()) return ID_ORDER;
+
+        String field = column(order.orderBy().getField());
+        if (field.equals("id")) {
+            return order.orderType().isAsc() ? ID_ORDER : ID_ORDER.reversed();
+        }
+
+        Comparator<Product> byField = field.equals("name")
+                ? Comparator.comparing(Product::getName, dialect.nameOrder())
+                : Comparator.comparing((Function) COLUMN_VALUES.get(field));
+        return (order.orderType().isAsc() ? byField : byField.reversed()).thenComparing(ID_ORDER);
+    }
+
+    private static String conjunction(List<Filter> filters, CompoundFilterOperator operator, List<Object> parameters) {
+        if (filters.isEmpty()) {
+            return operator == CompoundFilterOperator.AND ? "1 = 1" : "1 = 0";
+        }
+
+        StringBuilder sql = new StringBuilder("(");
+        for (int i = 0; i < filters.size(); i++) {
+            if (i > 0) sql.append(operator == CompoundFilterOperator.AND ? " AND " : " OR ");
+            sql.append(predicate(filters.get(i), parameters));
+        }
+        return sql.append(')').toString();
+    }
+
+    private static String predicate(Filter filter, List<Object> parameters) {
+        if (filter instanceof CompoundFilter compound) {
+            return conjunction(compound.getFilters(), compound.getOperator(), parameters);
+        }
+        if (!(filter instanceof SingleFilter<?> single)) {
+            throw new IllegalArgumentException("Unsupported filter type: " + filter.getClass().getName());
+        }
+
+        String column = column(single.getField());
+        Class<?> type = COLUMN_TYPES.get(column);
+        Object value = single.getValue();
+
+        return switch (single.getOperator()) {
+            case EQUAL -> comparison(column, " = ?", FilterValueCoercer.coerce(value, type), parameters);
+            case NOT_EQUAL -> comparison(column, " <> ?", FilterValueCoercer.coerce(value, type), parameters);
+            case GT -> comparison(column, " > ?", FilterValueCoercer.coerce(value, type), parameters);
+            case LT -> comparison(column, " < ?", FilterValueCoercer.coerce(value, type), parameters);
+            case CONTAINS -> comparison("CAST(" + column + " AS VARCHAR)", " LIKE ?", String.format("%%%s%%", value), parameters);
+            case NOT_CONTAINS -> comparison("CAST(" + column + " AS VARCHAR)", " NOT LIKE ?", String.format("%%%s%%", value), parameters);
+            case IN -> in(column, " IN (", "1 = 0", FilterValueCoercer.coerceAll(value, type), parameters);
+            case NOT_IN -> in(column, " NOT IN (", "1 = 1", FilterValueCoercer.coerceAll(value, type), parameters);
+        };
+    }
+
+    private static String comparison(String column, String operator, Object value, List<Object> parameters) {
+        parameters.add(value);
+        return column + operator;
+    }
+
+    // An empty list matches nothing for IN and everything for NOT IN
+    private static String in(String column, String operator, String whenEmpty, List<Object> values, List<Object> parameters) {
+        if (values.isEmpty()) return whenEmpty;
+
+        parameters.addAll(values);
+        return column + operator + "?, ".repeat(values.size() - 1) + "?)";
+    }
+
+    // Fields are checked against the known columns, they end up in the SQL text
+    private static String column(String field) {
+        if (!COLUMN_TYPES.containsKey(field)) {
+            throw new IllegalArgumentException("Unknown product field for sharded queries: " + field);
+        }
+        return field;
+    }
+
+    private static String direction(Order order) {
+        return order.hasOrder() && !order.orderType().isAsc() ? "DESC" : "ASC";
+    }
+}
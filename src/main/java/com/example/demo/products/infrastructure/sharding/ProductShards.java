@@ -0,0 +1,143 @@
+package com.example.demo.products.infrastructure.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+// The shard pools plus the executor that queries them in parallel. A product lives on the shard picked by a
+// hash of its id and its name is owned by the shard picked by a hash of the name, so the shard count can't
+// change without moving rows. All shards run the same database.
+@Component
+@ConditionalOnProperty(name = "products.sharding.enabled", havingValue = "true")
+@Slf4j
+public class ProductShards implements AutoCloseable {
+
+    private final List<ProductShard> shards = new ArrayList<>();
+    private final ExecutorService executor;
+    private final long timeoutNanos;
+    private final ShardDialect dialect;
+
+    public ProductShards(
+            DataSourceProperties dataSourceProperties,
+            @Value("${products.sharding.shard-urls}") List<String> shardUrls,
+            @Value("${products.sharding.pool-size:10}") int poolSize,
+            @Value("${products.sharding.timeout:5s}") Duration timeout
+    ) {
+        for (int i = 0; i < shardUrls.size(); i++) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("product-shard-" + i);
+            dataSource.setJdbcUrl(shardUrls.get(i).trim());
+            dataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            dataSource.setUsername(dataSourceProperties.determineUsername());
+            dataSource.setPassword(dataSourceProperties.determinePassword());
+            dataSource.setMaximumPoolSize(poolSize);
+            shards.add(new ProductShard(i, dataSource));
+        }
+
+        this.dialect = ShardDialect.fromDatabaseProductName(shards.get(0).getJdbcTemplate().execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+        for (ProductShard shard : shards) {
+            shard.getJdbcTemplate().execute(ProductShardSql.SCHEMA);
+            shard.getJdbcTemplate().execute(ProductShardSql.nameIndex(dialect));
+            shard.getJdbcTemplate().execute(ProductShardSql.NAMES_SCHEMA);
+        }
+
+        // One task per shard per scatter, the pool bounds how many shard queries run at once overall
+        this.executor = Executors.newFixedThreadPool(shards.size() * poolSize,
+                Thread.ofPlatform().name("product-shard-query-", 0).daemon().factory());
+        this.timeoutNanos = timeout.toNanos();
+        log.info("Products sharded over {} databases", shards.size());
+    }
+
+    public List<ProductShard> all() {
+        return shards;
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public ShardDialect dialect() {
+        return dialect;
+    }
+
+    public ProductShard shardFor(UUID id) {
+        return shards.get(shardIndex(id, shards.size()));
+    }
+
+    // The shard whose product_names table decides whether the name is taken
+    public ProductShard ownerOf(String name) {
+        return shards.get(shardIndex(name, shards.size()));
+    }
+
+    // Both halves folded together, random and time-based UUIDs alike spread evenly
+    public static int shardIndex(UUID id, int shardCount) {
+        return spread(id.getMostSignificantBits() ^ id.getLeastSignificantBits(), shardCount);
+    }
+
+    // String.hashCode is specified, so every instance places a name on the same shard
+    public static int shardIndex(String name, int shardCount) {
+        return spread(name.hashCode(), shardCount);
+    }
+
+    // Murmur3 finalizer
+    private static int spread(long hash, int shardCount) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) Math.floorMod(hash, (long) shardCount);
+    }
+
+    // Runs the query on every shard in parallel, results in shard order. Any failing or timed out shard fails
+    // the whole call: a merge over the remaining shards would silently return wrong pages.
+    public <R> List<R> scatter(Function<ProductShard, R> query) {
+        List<Future<R>> futures = new ArrayList<>(shards.size());
+        for (ProductShard shard : shards) {
+            futures.add(executor.submit(() -> query.apply(shard)));
+        }
+
+        long deadline = System.nanoTime() + timeoutNanos;
+        List<R> results = new ArrayList<>(shards.size());
+        try {
+            for (Future<R> future : futures) {
+                results.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+            return results;
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof RuntimeException runtimeException
+                    ? runtimeException
+                    : new IllegalStateException("Shard query failed", ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new IllegalStateException("Shard query timed out", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shards", ex);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        shards.forEach(shard -> shard.getDataSource().close());
+    }
+}
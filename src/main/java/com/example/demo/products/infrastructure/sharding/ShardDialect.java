@@ -0,0 +1,51 @@
+package com.example.demo.products.infrastructure.sharding;
+
+import java.util.Comparator;
+
+// How the shard databases are told to compare names byte for byte. Results ordered by name are merged across
+// shards in Java, so every shard has to sort in the same fixed order, whatever collation the database defaults to,
+// and the merge has to compare with exactly that order.
+public enum ShardDialect {
+
+    // H2 compares VARCHAR as Java strings (UTF-16 code units) as long as no database collation is set
+    H2("", String::compareTo),
+    // "C" compares the UTF-8 bytes, which is code point order
+    POSTGRESQL(" COLLATE \"C\"", ShardDialect::compareCodePoints);
+
+    private final String collateClause;
+    private final Comparator<String> nameOrder;
+
+    ShardDialect(String collateClause, Comparator<String> nameOrder) {
+        this.collateClause = collateClause;
+        this.nameOrder = nameOrder;
+    }
+
+    // The column in the binary collation, for ORDER BY, range predicates and the index backing them
+    public String binary(String column) {
+        return column + collateClause;
+    }
+
+    public Comparator<String> nameOrder() {
+        return nameOrder;
+    }
+
+    public static ShardDialect fromDatabaseProductName(String databaseProductName) {
+        return switch (databaseProductName) {
+            case "H2" -> H2;
+            case "PostgreSQL" -> POSTGRESQL;
+            default -> throw new IllegalStateException("Unsupported shard database " + databaseProductName
+                    + ", no binary collation is known for it");
+        };
+    }
+
+    private static int compareCodePoints(String left, String right) {
+        int length = Math.min(left.length(), right.length());
+        for (int i = 0; i < length; ) {
+            int leftCodePoint = left.codePointAt(i);
+            int rightCodePoint = right.codePointAt(i);
+            if (leftCodePoint != rightCodePoint) return Integer.compare(leftCodePoint, rightCodePoint);
+            i += Character.charCount(leftCodePoint);
+        }
+        return Integer.compare(left.length(), right.length());
+    }
+}
@@ -0,0 +1,425 @@
+package com.example.demo.products.infrastructure.sharding;
+
+import com.example.demo.common.application.dtos.PaginationCursor;
+import com.example.demo.common.application.dtos.PaginationResponseDto;
+import com.example.demo.common.domain.criteria.Criteria;
+import com.example.demo.common.infrastructure.metrics.LatencyMetrics;
+import com.example.demo.common.infrastructure.metrics.LatencyTimer;
+import com.example.demo.common.infrastructure.sharding.KWayMerge;
+import com.example.demo.products.application.dtos.request.GetPaginatedProductsQueryDto;
+import com.example.demo.products.application.dtos.request.ProductFields;
+import com.example.demo.products.application.dtos.response.GetProductResponseDto;
+import com.example.demo.products.application.events.ProductsCreatedEvent;
+import com.example.demo.products.application.ports.ProductRepository;
+import com.example.demo.products.domain.models.Product;
+import com.example.demo.products.infrastructure.adapters.repositories.ProductStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Products partitioned by a hash of their id over ProductShards. Lookups by id and writes touch one shard,
+// everything else is scattered to all shards in parallel and gathered. Ordered reads push order, offset + limit
+// down to every shard and k-way merge the sorted shard results, so offset and limit apply to the global order.
+// Names are owned by the shard they hash to (see createProduct), lookups by name touch that shard first.
+@Repository
+@ProductStorage
+@ConditionalOnProperty(name = "products.sharding.enabled", havingValue = "true")
+@Slf4j
+public class ShardedProductRepository implements ProductRepository {
+
+    private final ProductShards shards;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String firstKeysetPageSql;
+    private final String keysetPageAfterSql;
+    private final Comparator<Product> nameIdOrder;
+    private final int streamingFetchSize;
+    private final LatencyTimer getProductsByCriteriaTimer;
+    private final LatencyTimer getPaginatedProductsTimer;
+    private final LatencyTimer getKeysetPaginatedProductsTimer;
+    private final LatencyTimer createProductTimer;
+    private final LatencyTimer createProductsTimer;
+
+    public ShardedProductRepository(
+            ProductShards shards,
+            ApplicationEventPublisher eventPublisher,
+            LatencyMetrics latencyMetrics,
+            @Value("${products.streaming.fetch-size:500}") int streamingFetchSize
+    ) {
+        this.shards = shards;
+        this.eventPublisher = eventPublisher;
+        this.firstKeysetPageSql = ProductShardSql.firstKeysetPage(shards.dialect());
+        this.keysetPageAfterSql = ProductShardSql.keysetPageAfter(shards.dialect());
+        this.nameIdOrder = ProductShardSql.nameIdOrder(shards.dialect());
+        this.streamingFetchSize = streamingFetchSize;
+        this.getProductsByCriteriaTimer = latencyMetrics.timer("repository.sharded.getProductsByCriteria");
+        this.getPaginatedProductsTimer = latencyMetrics.timer("repository.sharded.getPaginatedProducts");
+        this.getKeysetPaginatedProductsTimer = latencyMetrics.timer("repository.sharded.getKeysetPaginatedProducts");
+        this.createProductTimer = latencyMetrics.timer("repository.sharded.createProduct");
+        this.createProductsTimer = latencyMetrics.timer("repository.sharded.createProducts");
+    }
+
+    @Override
+    public List<Product> getProducts() {
+        List<Product> products = new ArrayList<>();
+        shards.scatter(shard -> shard.getJdbcTemplate().query(ProductShardSql.SELECT, ProductShardSql.ROW_MAPPER))
+                .forEach(products::addAll);
+        return products;
+    }
+
+    @Override
+    public Optional<Product> getProductById(UUID id) {
+        return shards.shardFor(id).getJdbcTemplate()
+                .query(ProductShardSql.SELECT + " WHERE id = ?", ProductShardSql.ROW_MAPPER, id)
+                .stream().findFirst();
+    }
+
+    // The owning shard has the id, the id has the shard with the row. A name claimed by a create still in
+    // flight has no row yet and isn't found.
+    @Override
+    public Optional<Product> getProductByName(String name) {
+        return shards.ownerOf(name).getJdbcTemplate()
+                .queryForList("SELECT id FROM product_names WHERE name = ?", UUID.class, name)
+                .stream().findFirst()
+                .flatMap(this::getProductById);
+    }
+
+    // One shard after the other, rows are handed over as read and nothing is buffered
+    @Override
+    public void streamProducts(Consumer<Product> consumer) {
+        PreparedStatementCreator statementCreator = connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    ProductShardSql.SELECT, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(streamingFetchSize);
+            return statement;
+        };
+        RowCallbackHandler rowHandler = resultSet -> consumer.accept(ProductShardSql.ROW_MAPPER.mapRow(resultSet, 0));
+
+        for (ProductShard shard : shards.all()) {
+            shard.getJdbcTemplate().query(statementCreator, rowHandler);
+        }
+    }
+
+    // Offset pages in id order. Every shard returns its first offset + limit + 1 rows, so deep pages get
+    // expensive: the keyset cursor is the way to walk far into the catalog.
+    @Override
+    public PaginationResponseDto<Product> getPaginatedProducts(GetPaginatedProductsQueryDto query) {
+        long start = getPaginatedProductsTimer.start();
+        try {
+            // Long arithmetic, a page number past Integer.MAX_VALUE / limit would wrap the int offset negative
+            long offset = (long) query.page * query.limit;
+            List<List<Product>> shardPages = shards.scatter(shard -> shard.getJdbcTemplate().query(
+                    ProductShardSql.SELECT + " ORDER BY id ASC LIMIT ?", ProductShardSql.ROW_MAPPER, offset + query.limit + 1));
+
+            List<Product> products = KWayMerge.merge(shardPages, ProductShardSql.ID_ORDER, offset, query.limit + 1);
+            boolean hasNext = products.size() > query.limit;
+            List<Product> page = hasNext ? products.subList(0, query.limit) : products;
+
+            if (!query.includeTotal) {
+                return new PaginationResponseDto<>(page, query.page, query.limit, null, null, hasNext, null);
+            }
+
+            long totalElements = countProducts();
+            return new PaginationResponseDto<>(
+                    page,
+                    query.page,
+                    query.limit,
+                    (int) ((totalElements + query.limit - 1) / query.limit),
+                    totalElements,
+                    hasNext,
+                    null
+            );
+        } finally {
+            getPaginatedProductsTimer.stop(start);
+        }
+    }
+
+    // (name, id) is a total order over all shards, so the cursor of the last merged row is a global position:
+    // every shard resumes right after it and the merge picks up exactly where the previous page stopped
+    @Override
+    public PaginationResponseDto<Product> getKeysetPaginatedProducts(GetPaginatedProductsQueryDto query) {
+        long start = getKeysetPaginatedProductsTimer.start();
+        try {
+            Optional<PaginationCursor> cursor = query.getDecodedCursor();
+            int rows = query.limit + 1;
+
+            List<List<Product>> shardPages = shards.scatter(shard -> cursor
+                    .map(after -> shard.getJdbcTemplate().query(keysetPageAfterSql,
+                            ProductShardSql.ROW_MAPPER, after.getKey(), after.getKey(), after.getId(), rows))
+                    .orElseGet(() -> shard.getJdbcTemplate().query(firstKeysetPageSql, ProductShardSql.ROW_MAPPER, rows)));
+
+            List<Product> products = KWayMerge.merge(shardPages, nameIdOrder, 0, rows);
+            boolean hasNext = products.size() > query.limit;
+            List<Product> page = hasNext ? products.subList(0, query.limit) : products;
+
+            String nextCursor = null;
+            if (hasNext) {
+                Product last = page.get(page.size() - 1);
+                nextCursor = new PaginationCursor(last.getName(), last.getId()).encode();
+            }
+
+            return new PaginationResponseDto<>(page, query.page, query.limit, null, null, hasNext, nextCursor);
+        } finally {
+            getKeysetPaginatedProductsTimer.stop(start);
+        }
+    }
+
+    // Names are unique across the catalog, not just per shard. Each name is owned by the shard it hashes to,
+    // the primary key of that shard's product_names decides between concurrent creates of the same name. The
+    // name is claimed first and the product written after it; a product that fails to insert gives its claim
+    // back. A crash in between leaves a claim without a product, which keeps the name taken until it is deleted.
+    @Override
+    public Optional<Product> createProduct(Product product) {
+        long start = createProductTimer.start();
+        try {
+            Product toCreate = withId(product);
+            ProductShard owner = shards.ownerOf(toCreate.getName());
+            try {
+                claimName(owner, toCreate);
+            } catch (RuntimeException ex) {
+                return Optional.empty();
+            }
+
+            try {
+                insert(shards.shardFor(toCreate.getId()), toCreate);
+            } catch (RuntimeException ex) {
+                releaseNames(owner, List.of(toCreate));
+                return Optional.empty();
+            }
+
+            eventPublisher.publishEvent(new ProductsCreatedEvent(List.of(toCreate)));
+            return Optional.of(toCreate);
+        } finally {
+            createProductTimer.stop(start);
+        }
+    }
+
+    // Same order as createProduct in two rounds: names claimed on their owning shards, then the products with a
+    // claimed name written to the shards their ids hash to. Each round is grouped by shard and written in parallel,
+    // one transaction per shard; a shard whose batch fails retries row by row, so one bad row only fails itself.
+    @Override
+    public List<Optional<Product>> createProducts(List<Product> products) {
+        long start = createProductsTimer.start();
+        try {
+            List<Product> withIds = products.stream().map(this::withId).toList();
+            // Keeps claim batches from failing on names that are known to be taken, the claims themselves decide
+            Set<String> takenNames = new HashSet<>(getExistingProductNames(withIds.stream().map(Product::getName).toList()));
+
+            List<Product> candidates = new ArrayList<>();
+            for (Product product : withIds) {
+                if (takenNames.add(product.getName())) candidates.add(product); // Not existing, nor repeated within the batch
+            }
+
+            Set<UUID> claimedIds = writeByShard(candidates, product -> shards.ownerOf(product.getName()),
+                    (shard, owned) -> writeAll(shard, owned, ProductShardSql.CLAIM_NAME, ProductShardSql.NAME_PARAMETERS, "name"));
+            List<Product> claimed = candidates.stream().filter(product -> claimedIds.contains(product.getId())).toList();
+
+            Set<UUID> insertedIds = writeByShard(claimed, product -> shards.shardFor(product.getId()),
+                    (shard, placed) -> writeAll(shard, placed, ProductShardSql.INSERT, ProductShardSql.INSERT_PARAMETERS, "product"));
+
+            List<Product> notInserted = claimed.stream().filter(product -> !insertedIds.contains(product.getId())).toList();
+            writeByShard(notInserted, product -> shards.ownerOf(product.getName()), (shard, owned) -> {
+                releaseNames(shard, owned);
+                return Set.of();
+            });
+
+            List<Optional<Product>> createdProducts = withIds.stream()
+                    .map(product -> insertedIds.contains(product.getId()) ? Optional.of(product) : Optional.<Product>empty())
+                    .toList();
+
+            List<Product> created = createdProducts.stream().flatMap(Optional::stream).toList();
+            if (!created.isEmpty()) {
+                eventPublisher.publishEvent(new ProductsCreatedEvent(created));
+            }
+            return createdProducts;
+        } finally {
+            createProductsTimer.stop(start);
+        }
+    }
+
+    @Override
+    public List<String> getExistingProductNames(Collection<String> names) {
+        if (names.isEmpty()) return List.of();
+
+        // Each name is only asked of the shard that owns it
+        Map<Integer, List<String>> byOwner = new HashMap<>();
+        for (String name : new HashSet<>(names)) {
+            byOwner.computeIfAbsent(shards.ownerOf(name).getIndex(), index -> new ArrayList<>()).add(name);
+        }
+
+        List<String> existing = new ArrayList<>();
+        shards.scatter(shard -> {
+            List<String> owned = byOwner.getOrDefault(shard.getIndex(), List.of());
+            if (owned.isEmpty()) return List.<String>of();
+
+            String sql = "SELECT name FROM product_names WHERE name IN (" + "?, ".repeat(owned.size() - 1) + "?)";
+            return shard.getJdbcTemplate().queryForList(sql, String.class, owned.toArray());
+        }).forEach(existing::addAll);
+        return existing;
+    }
+
+    // Shards keep no counter rows, each one is counted
+    @Override
+    public long countProducts() {
+        return shards.scatter(shard -> shard.getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM products", Long.class))
+                .stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public List<Product> getProductsByCriteria(Criteria criteria) {
+        long start = getProductsByCriteriaTimer.start();
+        try {
+            return findByCriteria(criteria);
+        } finally {
+            getProductsByCriteriaTimer.stop(start);
+        }
+    }
+
+    // There are no JPA specifications over the shards, both criteria paths run the same scatter-gather
+    @Override
+    public List<Product> getProductsByCriteriaSpecification(Criteria criteria) {
+        return getProductsByCriteria(criteria);
+    }
+
+    @Override
+    public void streamProductViews(ProductFields fields, Consumer<Product> consumer) {
+        streamProducts(product -> consumer.accept(fields.select(product)));
+    }
+
+    @Override
+    public PaginationResponseDto<GetProductResponseDto> getPaginatedProductViews(GetPaginatedProductsQueryDto query, ProductFields fields) {
+        PaginationResponseDto<Product> page = getPaginatedProducts(query);
+        return new PaginationResponseDto<>(
+                page.getContent().stream().map(product -> new GetProductResponseDto(product, fields)).toList(),
+                page.getPageNumber(),
+                page.getPageSize(),
+                page.getTotalPages(),
+                page.getTotalElements(),
+                page.isHasNext(),
+                page.getNextCursor()
+        );
+    }
+
+    @Override
+    public List<Product> getProductViewsByCriteria(Criteria criteria, ProductFields fields) {
+        long start = getProductsByCriteriaTimer.start();
+        try {
+            return findByCriteria(criteria).stream().map(fields::select).toList();
+        } finally {
+            getProductsByCriteriaTimer.stop(start);
+        }
+    }
+
+    // Each shard sorts and cuts at offset + limit, the merge skips the global offset and stops at the limit
+    private List<Product> findByCriteria(Criteria criteria) {
+        if (criteria.getCriteriaJoins() != null && !criteria.getCriteriaJoins().isEmpty()) {
+            throw new IllegalArgumentException("Joins are not supported on sharded products");
+        }
+
+        int offset = criteria.getOffset() == null ? 0 : criteria.getOffset();
+        int limit = criteria.getLimit() == null ? Integer.MAX_VALUE : criteria.getLimit();
+
+        List<Object> parameters = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(ProductShardSql.SELECT)
+                .append(ProductShardSql.where(criteria.getFilters(), parameters))
+                .append(ProductShardSql.orderBy(criteria.getOrder(), shards.dialect()));
+        if (criteria.getLimit() != null) {
+            sql.append(" LIMIT ?");
+            parameters.add((long) offset + limit); // Both can be close to Integer.MAX_VALUE
+        }
+
+        String shardSql = sql.toString();
+        Object[] shardParameters = parameters.toArray();
+        List<List<Product>> shardResults = shards.scatter(shard ->
+                shard.getJdbcTemplate().query(shardSql, ProductShardSql.ROW_MAPPER, shardParameters));
+
+        return KWayMerge.merge(shardResults, ProductShardSql.comparator(criteria.getOrder(), shards.dialect()), offset, limit);
+    }
+
+    // Groups the products by the shard placement picks and runs write on every shard in parallel, returns the
+    // ids written
+    private Set<UUID> writeByShard(List<Product> products, Function<Product, ProductShard> placement,
+                                   BiFunction<ProductShard, List<Product>, Set<UUID>> write) {
+        if (products.isEmpty()) return Set.of();
+
+        Map<Integer, List<Product>> byShard = new HashMap<>();
+        for (Product product : products) {
+            byShard.computeIfAbsent(placement.apply(product).getIndex(), index -> new ArrayList<>()).add(product);
+        }
+
+        Set<UUID> written = new HashSet<>();
+        shards.scatter(shard -> write.apply(shard, byShard.getOrDefault(shard.getIndex(), List.of())))
+                .forEach(written::addAll);
+        return written;
+    }
+
+    // One batch in one transaction, row by row when the batch fails
+    private Set<UUID> writeAll(ProductShard shard, List<Product> products, String sql,
+                               ParameterizedPreparedStatementSetter<Product> parameters, String kind) {
+        if (products.isEmpty()) return Set.of();
+
+        Set<UUID> written = new HashSet<>();
+        try {
+            shard.getTransactionTemplate().executeWithoutResult(status ->
+                    shard.getJdbcTemplate().batchUpdate(sql, products, products.size(), parameters));
+            products.forEach(product -> written.add(product.getId()));
+        } catch (RuntimeException ex) {
+            for (Product product : products) {
+                try {
+                    shard.getJdbcTemplate().update(sql, statement -> parameters.setValues(statement, product));
+                    written.add(product.getId());
+                } catch (RuntimeException rowException) {
+                    log.warn("Rejected {} '{}' on shard {}: {}", kind, product.getName(), shard.getIndex(), rowException.getMessage());
+                }
+            }
+        }
+        return written;
+    }
+
+    private void claimName(ProductShard owner, Product product) {
+        owner.getJdbcTemplate().update(ProductShardSql.CLAIM_NAME, product.getName(), product.getId());
+    }
+
+    // Only the claims these products made, a name claimed again by someone else since stays theirs. A claim that
+    // can't be given back just keeps its name taken, the products were not created either way.
+    private void releaseNames(ProductShard owner, List<Product> products) {
+        if (products.isEmpty()) return;
+
+        try {
+            owner.getJdbcTemplate().batchUpdate(ProductShardSql.RELEASE_NAME, products, products.size(), ProductShardSql.NAME_PARAMETERS);
+        } catch (RuntimeException ex) {
+            log.warn("Could not release {} names on shard {}: {}", products.size(), owner.getIndex(), ex.getMessage());
+        }
+    }
+
+    private void insert(ProductShard shard, Product product) {
+        shard.getJdbcTemplate().update(ProductShardSql.INSERT, product.getId(), product.getName(), product.getPrice(), product.getQuantity());
+    }
+
+    // Ids are assigned here, the shard is picked from the id before anything is written
+    private Product withId(Product product) {
+        return product.getId() != null
+                ? product
+                : new Product(UUID.randomUUID(), product.getName(), product.getPrice(), product.getQuantity());
+    }
+}
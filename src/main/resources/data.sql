@@ -3,4 +3,9 @@ INSERT INTO products (id, name, price, quantity) VALUES (UUID(),'Coffee', 1.99,
 INSERT INTO products (id, name, price, quantity) VALUES (UUID(),'Vegetable Oil', 5.99, 7);
 INSERT INTO products (id, name, price, quantity) VALUES (UUID(),'Cookies', 0.99, 10);
 INSERT INTO products (id, name, price, quantity) VALUES (UUID(),'Ice Cream', 2.99, 20);
-INSERT INTO products (id, name, price, quantity) VALUES (UUID(),'Water', 2.99, 0);
\ No newline at end of file
+INSERT INTO products (id, name, price, quantity) VALUES (UUID(),'Water', 2.99, 0);
+
+-- Exact product count served as totalElements by paginated reads, kept in step with every insert. The count is
+-- spread over ProductCounterEntity.STRIPES rows (0-15) that are summed on read, the current total starts in stripe 0.
+MERGE INTO product_counters (name, stripe, counter_value) KEY (name, stripe)
+    SELECT 'products', X, CASE WHEN X = 0 THEN (SELECT COUNT(*) FROM products) ELSE 0 END FROM SYSTEM_RANGE(0, 15);
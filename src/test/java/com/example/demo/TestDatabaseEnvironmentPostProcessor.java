@@ -0,0 +1,20 @@
+package com.example.demo;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+import java.util.UUID;
+
+// Every test context gets its own in-memory database. Contexts with different properties are cached side by
+// side, on a shared database the second one would run data.sql again and fail on the unique product names.
+public class TestDatabaseEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        environment.getPropertySources().addFirst(new MapPropertySource("testDatabase",
+                Map.of("DATABASE_NAME", "test-" + UUID.randomUUID())));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.common.domain.criteria;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// serialize() is the criteria result cache key: different filters must never share one
+class CriteriaSerializeTests {
+
+    @Test
+    void listValuesDoNotCollideWithJoinedStrings() {
+        assertThat(key(new SingleFilter<>("name", SingleFilterOperator.IN, List.of("a,b"))))
+                .isNotEqualTo(key(new SingleFilter<>("name", SingleFilterOperator.IN, List.of("a", "b"))));
+        assertThat(key(new SingleFilter<>("name", SingleFilterOperator.IN, List.of("a", "b"))))
+                .isNotEqualTo(key(new SingleFilter<>("name", SingleFilterOperator.EQUAL, "[a, b]")));
+    }
+
+    @Test
+    void separatorsInsideValuesDoNotCollide() {
+        assertThat(key(new SingleFilter<>("name", SingleFilterOperator.EQUAL, "x.=.y")))
+                .isNotEqualTo(key(new SingleFilter<>("name.=.x", SingleFilterOperator.EQUAL, "y")));
+        assertThat(key(new SingleFilter<>("name", SingleFilterOperator.EQUAL, "a"),
+                new SingleFilter<>("name", SingleFilterOperator.EQUAL, "b")))
+                .isNotEqualTo(key(new SingleFilter<>("name", SingleFilterOperator.EQUAL, "a1:b")));
+    }
+
+    @Test
+    void valueTypesAreKeptApart() {
+        assertThat(key(new SingleFilter<>("quantity", SingleFilterOperator.EQUAL, 5L)))
+                .isNotEqualTo(key(new SingleFilter<>("quantity", SingleFilterOperator.EQUAL, "5")));
+        assertThat(key(new SingleFilter<>("name", SingleFilterOperator.EQUAL, null)))
+                .isNotEqualTo(key(new SingleFilter<>("name", SingleFilterOperator.EQUAL, "null")));
+    }
+
+    @Test
+    void topLevelFilterOrderDoesNotChangeTheKey() {
+        SingleFilter<Double> minPrice = new SingleFilter<>("price", SingleFilterOperator.GT, 1.0);
+        SingleFilter<Long> hasStock = new SingleFilter<>("quantity", SingleFilterOperator.GT, 0L);
+
+        assertThat(key(minPrice, hasStock)).isEqualTo(key(hasStock, minPrice));
+    }
+
+    private static String key(Filter... filters) {
+        return new Criteria(new ArrayList<>(List.of(filters)), Order.none()).serialize();
+    }
+}
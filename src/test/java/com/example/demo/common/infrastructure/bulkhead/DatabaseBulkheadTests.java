@@ -0,0 +1,83 @@
+package com.example.demo.common.infrastructure.bulkhead;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Streams and short queries draw from separate shares of the pool, a slow stream never holds a query permit
+class DatabaseBulkheadTests {
+
+    @Test
+    void streamsAreCarvedOutOfThePermits() {
+        DatabaseBulkhead bulkhead = bulkhead(5, 2, List.of());
+
+        DatabaseBulkheadStatsDto stats = bulkhead.stats();
+        assertThat(stats.getPermits()).isEqualTo(3);
+        assertThat(stats.getStreamPermits()).isEqualTo(2);
+    }
+
+    @Test
+    void replicaPoolsOnlyAddQueryPermits() {
+        DatabaseBulkhead bulkhead = bulkhead(5, 2, List.of("jdbc:h2:mem:replica-1", "jdbc:h2:mem:replica-2"));
+
+        assertThat(bulkhead.stats().getPermits()).isEqualTo(3 + 2 * 4);
+        assertThat(bulkhead.stats().getStreamPermits()).isEqualTo(2);
+    }
+
+    @Test
+    void openStreamsLeaveQueryPermitsAlone() {
+        DatabaseBulkhead bulkhead = bulkhead(3, 1, List.of());
+
+        bulkhead.acquireStream();
+        assertThatThrownBy(bulkhead::acquireStream).isInstanceOf(DatabaseBusyException.class);
+
+        bulkhead.acquire();
+        bulkhead.acquire();
+        assertThatThrownBy(bulkhead::acquire).isInstanceOf(DatabaseBusyException.class);
+
+        bulkhead.releaseStream();
+        assertThatThrownBy(bulkhead::acquire).isInstanceOf(DatabaseBusyException.class);
+        bulkhead.acquireStream();
+
+        DatabaseBulkheadStatsDto stats = bulkhead.stats();
+        assertThat(stats.getAvailablePermits()).isZero();
+        assertThat(stats.getAvailableStreamPermits()).isZero();
+        assertThat(stats.getAcquired()).isEqualTo(4);
+        assertThat(stats.getRejected()).isEqualTo(3);
+    }
+
+    @Test
+    void busyQueriesDoNotBlockStreams() {
+        DatabaseBulkhead bulkhead = bulkhead(3, 1, List.of());
+        bulkhead.acquire();
+        bulkhead.acquire();
+
+        bulkhead.acquireStream();
+        assertThat(bulkhead.stats().getAvailableStreamPermits()).isZero();
+    }
+
+    @Test
+    void streamPermitsMustLeaveRoomForQueries() {
+        assertThatThrownBy(() -> bulkhead(2, 2, List.of())).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> bulkhead(2, 0, List.of())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void disabledBulkheadNeverRejects() {
+        DatabaseBulkhead bulkhead = new DatabaseBulkhead(false, 2, 1, Duration.ofMillis(1), List.of(), 4);
+
+        bulkhead.acquireStream();
+        bulkhead.acquireStream();
+        bulkhead.acquire();
+        bulkhead.acquire();
+        assertThat(bulkhead.stats().getRejected()).isZero();
+    }
+
+    private static DatabaseBulkhead bulkhead(int permits, int streamPermits, List<String> replicaUrls) {
+        return new DatabaseBulkhead(true, permits, streamPermits, Duration.ofMillis(10), replicaUrls, 4);
+    }
+}
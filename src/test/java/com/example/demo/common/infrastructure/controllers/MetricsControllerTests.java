@@ -0,0 +1,81 @@
+package com.example.demo.common.infrastructure.controllers;
+
+import com.example.demo.common.infrastructure.metrics.LatencyMetrics;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The latency timers as JSON and as Prometheus text, each on its own path. The scheduled rotation is pushed far
+// out, the tests rotate by hand after a request has been timed.
+@SpringBootTest(properties = "metrics.latency.interval=1h")
+@AutoConfigureMockMvc
+class MetricsControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LatencyMetrics latencyMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void latenciesAreJsonForAnyAccept() throws Exception {
+        timeOneRequest();
+
+        for (String accept : new String[]{MediaType.ALL_VALUE, MediaType.APPLICATION_JSON_VALUE}) {
+            String body = mockMvc.perform(get("/internal/metrics").header("Accept", accept))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andReturn().getResponse().getContentAsString();
+
+            JsonNode byId = timer(objectMapper.readTree(body), "usecase.getProductById");
+            assertThat(byId.get("count").asLong()).isPositive();
+            assertThat(byId.get("windowSeconds").asDouble()).isPositive();
+            assertThat(byId.get("p99Millis").asDouble()).isGreaterThanOrEqualTo(byId.get("p50Millis").asDouble());
+        }
+    }
+
+    @Test
+    void latenciesAreNotServedAsText() throws Exception {
+        mockMvc.perform(get("/internal/metrics").header("Accept", MediaType.TEXT_PLAIN_VALUE))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    void prometheusTextHasItsOwnPath() throws Exception {
+        timeOneRequest();
+
+        String body = mockMvc.perform(get("/internal/metrics/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/plain;version=0.0.4;charset=utf-8"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body).startsWith("# HELP app_latency_seconds ");
+        assertThat(body).contains("app_latency_seconds{timer=\"usecase.getProductById\",quantile=\"0.99\"} ");
+        assertThat(body).containsPattern("app_latency_rate_per_second\\{timer=\"usecase.getProductById\"} \\d+\\.\\d{3}\n");
+    }
+
+    private void timeOneRequest() throws Exception {
+        mockMvc.perform(get("/products/00000000-0000-0000-0000-000000000000"));
+        latencyMetrics.rotate();
+    }
+
+    private static JsonNode timer(JsonNode snapshots, String name) {
+        for (JsonNode snapshot : snapshots) {
+            if (snapshot.get("name").asText().equals(name)) return snapshot;
+        }
+        throw new AssertionError("No timer " + name + " in " + snapshots);
+    }
+}
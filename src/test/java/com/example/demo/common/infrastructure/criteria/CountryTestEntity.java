@@ -0,0 +1,32 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import jakarta.persistence.*;
+
+import java.util.UUID;
+
+@Entity
+@Table(name = "criteria_test_countries")
+public class CountryTestEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "code", nullable = false)
+    private String code;
+
+    protected CountryTestEntity() {
+    }
+
+    public CountryTestEntity(String code) {
+        this.code = code;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
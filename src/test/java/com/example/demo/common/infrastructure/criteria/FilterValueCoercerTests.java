@@ -0,0 +1,38 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FilterValueCoercerTests {
+
+    @Test
+    void collectionsAreCoercedElementByElement() {
+        assertThat(FilterValueCoercer.coerceAll(List.of("1", 2, 3.0), Long.class)).containsExactly(1L, 2L, 3L);
+        assertThat(FilterValueCoercer.coerceAll(List.of("Widget, large", "Bolt"), String.class))
+                .containsExactly("Widget, large", "Bolt");
+    }
+
+    @Test
+    void scalarsAreOneValue() {
+        UUID id = UUID.randomUUID();
+
+        assertThat(FilterValueCoercer.coerceAll(id, UUID.class)).containsExactly(id);
+        assertThat(FilterValueCoercer.coerceAll(7L, Long.class)).containsExactly(7L);
+        assertThat(FilterValueCoercer.coerceAll(2.5, Double.class)).containsExactly(2.5);
+        assertThat(FilterValueCoercer.coerceAll(id.toString(), UUID.class)).containsExactly(id);
+    }
+
+    @Test
+    void commaSeparatedStringsOnlySplitForTypesWithoutCommas() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        assertThat(FilterValueCoercer.coerceAll("0, 10", Long.class)).containsExactly(0L, 10L);
+        assertThat(FilterValueCoercer.coerceAll(first + "," + second, UUID.class)).containsExactly(first, second);
+        assertThat(FilterValueCoercer.coerceAll("Widget, large", String.class)).containsExactly("Widget, large");
+    }
+}
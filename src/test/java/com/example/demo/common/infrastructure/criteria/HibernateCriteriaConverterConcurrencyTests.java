@@ -0,0 +1,150 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import com.example.demo.common.domain.criteria.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HibernateCriteriaConverterConcurrencyTests {
+
+    private static final int QUERIES = 4000;
+    private static final int THREADS = 32;
+    private static final List<String> COUNTRY_CODES = List.of("AR", "CL", "UY");
+    private static final int REGIONS_PER_COUNTRY = 4;
+    private static final int WAREHOUSES_PER_REGION = 3;
+
+    @Autowired
+    private HibernateCriteriaConverter<WarehouseTestEntity> converter;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeAll
+    void seedWarehouses() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (String countryCode : COUNTRY_CODES) {
+                CountryTestEntity country = new CountryTestEntity(countryCode);
+                entityManager.persist(country);
+
+                for (int r = 0; r < REGIONS_PER_COUNTRY; r++) {
+                    RegionTestEntity region = new RegionTestEntity(regionName(countryCode, r), country);
+                    entityManager.persist(region);
+
+                    for (int w = 0; w < WAREHOUSES_PER_REGION; w++) {
+                        entityManager.persist(new WarehouseTestEntity(region.getName() + "-w" + w, region));
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    void convertsMultiLevelJoinCriteriaFromManyThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> queries = new ArrayList<>();
+            for (int i = 0; i < QUERIES; i++) {
+                int queryNumber = i;
+                queries.add(executor.submit(() -> runQuery(queryNumber)));
+            }
+
+            for (Future<?> query : queries) {
+                query.get(30, TimeUnit.SECONDS); // Rethrows any assertion failure from the worker
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        QueryPlanCacheStats stats = converter.planCacheStats();
+        assertThat(stats.getHits()).isPositive();
+        assertThat(stats.getSize()).isLessThanOrEqualTo(stats.getMaxSize());
+    }
+
+    private void runQuery(int queryNumber) {
+        String countryCode = COUNTRY_CODES.get(queryNumber % COUNTRY_CODES.size());
+        String regionName = regionName(countryCode, queryNumber % REGIONS_PER_COUNTRY);
+        String otherRegionName = regionName(countryCode, (queryNumber + 1) % REGIONS_PER_COUNTRY);
+
+        Criteria criteria;
+        int expectedRows;
+        switch (queryNumber % 3) {
+            case 0 -> {
+                // Deepest path declared first, the intermediate "region" join has to be created on the way
+                criteria = new Criteria(
+                        new ArrayList<>(List.of(
+                                new SingleFilter<>("region.name", SingleFilterOperator.EQUAL, regionName),
+                                new SingleFilter<>("region.country.code", SingleFilterOperator.EQUAL, countryCode)
+                        )),
+                        Order.none(),
+                        List.of(
+                                new CriteriaJoin("region.country", JoinTypeCriteria.INNER),
+                                new CriteriaJoin("region", JoinTypeCriteria.INNER)
+                        )
+                );
+                expectedRows = WAREHOUSES_PER_REGION;
+            }
+            case 1 -> {
+                criteria = new Criteria(
+                        new ArrayList<>(List.of(
+                                new CompoundFilter(CompoundFilterOperator.OR, List.of(
+                                        new SingleFilter<>("region.name", SingleFilterOperator.EQUAL, regionName),
+                                        new SingleFilter<>("region.name", SingleFilterOperator.EQUAL, otherRegionName)
+                                )),
+                                new SingleFilter<>("region.country.code", SingleFilterOperator.EQUAL, countryCode)
+                        )),
+                        Order.asc("name"),
+                        List.of(
+                                new CriteriaJoin("region", JoinTypeCriteria.INNER),
+                                new CriteriaJoin("region.country", JoinTypeCriteria.INNER)
+                        )
+                );
+                expectedRows = WAREHOUSES_PER_REGION * 2;
+            }
+            default -> {
+                criteria = new Criteria(
+                        new ArrayList<>(List.of(
+                                new SingleFilter<>("region.country.code", SingleFilterOperator.EQUAL, countryCode)
+                        )),
+                        Order.desc("region.name"),
+                        List.of(new CriteriaJoin("region.country", JoinTypeCriteria.LEFT))
+                );
+                expectedRows = WAREHOUSES_PER_REGION * REGIONS_PER_COUNTRY;
+            }
+        }
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            List<WarehouseTestEntity> warehouses = converter.convert(criteria, WarehouseTestEntity.class).getResultList();
+
+            assertThat(warehouses).hasSize(expectedRows);
+            assertThat(warehouses).allMatch(warehouse -> warehouse.getRegion().getCountry().getCode().equals(countryCode));
+        });
+    }
+
+    private static String regionName(String countryCode, int index) {
+        return countryCode + "-region-" + index;
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import com.example.demo.common.domain.criteria.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Criteria of the same shape share one compiled plan and still bind their own values. Two plans at most, so the
+// third shape evicts one. Counters are compared before and after each step.
+@SpringBootTest(properties = "criteria.plan-cache.max-size=2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HibernateCriteriaConverterPlanCacheTests {
+
+    @Autowired
+    private HibernateCriteriaConverter<WarehouseTestEntity> converter;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeAll
+    void seedWarehouses() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            seed("BR", 2);
+            seed("PY", 3);
+        });
+    }
+
+    @Test
+    void sameShapeWithOtherValuesReusesThePlan() {
+        QueryPlanCacheStats before = converter.planCacheStats();
+
+        assertThat(warehouses(byCountry("BR"))).hasSize(2).allMatch(warehouse -> countryCode(warehouse).equals("BR"));
+        assertThat(warehouses(byCountry("PY"))).hasSize(3).allMatch(warehouse -> countryCode(warehouse).equals("PY"));
+
+        assertCounted(before, 1, 1);
+    }
+
+    @Test
+    void pagesAndInListsOfTheSameShapeBindTheirOwnValues() {
+        QueryPlanCacheStats before = converter.planCacheStats();
+
+        List<String> firstPage = names(warehouses(pageOfCountry("PY", 2, 0)));
+        List<String> secondPage = names(warehouses(pageOfCountry("PY", 2, 2)));
+        assertThat(firstPage).containsExactly("PY-w0", "PY-w1");
+        assertThat(secondPage).containsExactly("PY-w2");
+        assertCounted(before, 1, 1);
+
+        before = converter.planCacheStats();
+        assertThat(warehouses(inCountries(List.of("BR")))).hasSize(2);
+        assertThat(warehouses(inCountries(List.of("BR", "PY")))).hasSize(5);
+        assertCounted(before, 1, 1);
+    }
+
+    @Test
+    void evictedShapeIsCompiledAgain() {
+        warehouses(byName("BR-w0"));
+        warehouses(byCountry("BR"));
+        QueryPlanCacheStats before = converter.planCacheStats();
+
+        // A third shape pushes out the least recently used one, the name filter
+        warehouses(pageOfCountry("BR", 1, 0));
+        assertThat(converter.planCacheStats().getEvictions()).isGreaterThan(before.getEvictions());
+
+        assertThat(names(warehouses(byName("BR-w1")))).containsExactly("BR-w1");
+        QueryPlanCacheStats after = converter.planCacheStats();
+        assertThat(after.getMisses()).isEqualTo(before.getMisses() + 2);
+        assertThat(after.getSize()).isEqualTo(2);
+    }
+
+    private void seed(String countryCode, int warehouses) {
+        CountryTestEntity country = new CountryTestEntity(countryCode);
+        entityManager.persist(country);
+        RegionTestEntity region = new RegionTestEntity(countryCode + "-region", country);
+        entityManager.persist(region);
+        for (int w = 0; w < warehouses; w++) {
+            entityManager.persist(new WarehouseTestEntity(countryCode + "-w" + w, region));
+        }
+    }
+
+    private List<WarehouseTestEntity> warehouses(Criteria criteria) {
+        // Region and country are eager, still readable once the transaction is over
+        return readOnlyTransaction.execute(status -> converter.convert(criteria, WarehouseTestEntity.class).getResultList());
+    }
+
+    private void assertCounted(QueryPlanCacheStats before, long misses, long hits) {
+        QueryPlanCacheStats after = converter.planCacheStats();
+        assertThat(after.getMisses() - before.getMisses()).as("misses").isEqualTo(misses);
+        assertThat(after.getHits() - before.getHits()).as("hits").isEqualTo(hits);
+    }
+
+    private static Criteria byCountry(String countryCode) {
+        return new Criteria(filters(new SingleFilter<>("region.country.code", SingleFilterOperator.EQUAL, countryCode)),
+                Order.none(), List.of(new CriteriaJoin("region.country", JoinTypeCriteria.INNER)));
+    }
+
+    private static Criteria pageOfCountry(String countryCode, int limit, int offset) {
+        return new Criteria(filters(new SingleFilter<>("region.country.code", SingleFilterOperator.EQUAL, countryCode)),
+                Order.asc("name"), List.of(new CriteriaJoin("region.country", JoinTypeCriteria.INNER)), limit, offset);
+    }
+
+    private static Criteria inCountries(List<String> countryCodes) {
+        return new Criteria(filters(new SingleFilter<>("region.country.code", SingleFilterOperator.IN, countryCodes)),
+                Order.none(), List.of(new CriteriaJoin("region.country", JoinTypeCriteria.INNER)));
+    }
+
+    private static Criteria byName(String name) {
+        return new Criteria(filters(new SingleFilter<>("name", SingleFilterOperator.EQUAL, name)), Order.none());
+    }
+
+    private static List<Filter> filters(Filter filter) {
+        return new ArrayList<>(List.of(filter));
+    }
+
+    private static String countryCode(WarehouseTestEntity warehouse) {
+        return warehouse.getRegion().getCountry().getCode();
+    }
+
+    private static List<String> names(List<WarehouseTestEntity> warehouses) {
+        return warehouses.stream().map(WarehouseTestEntity::getName).toList();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Counters and LRU order of the plan cache, plans are plain strings compiled from their key
+class QueryPlanCacheTests {
+
+    private final List<String> compiled = new ArrayList<>();
+
+    @Test
+    void hitsAndMissesAreCounted() {
+        QueryPlanCache<String, String> cache = new QueryPlanCache<>(4);
+
+        assertThat(cache.get("a", this::compile)).isEqualTo("plan-a");
+        assertThat(cache.get("a", this::compile)).isEqualTo("plan-a");
+        assertThat(cache.get("b", this::compile)).isEqualTo("plan-b");
+        assertThat(cache.get("a", this::compile)).isEqualTo("plan-a");
+
+        assertThat(compiled).containsExactly("a", "b");
+        assertStats(cache, 2, 2, 0, 2);
+    }
+
+    @Test
+    void leastRecentlyUsedPlanIsEvicted() {
+        QueryPlanCache<String, String> cache = new QueryPlanCache<>(2);
+        cache.get("a", this::compile);
+        cache.get("b", this::compile);
+        cache.get("a", this::compile); // b is now the least recently used
+
+        cache.get("c", this::compile);
+        assertStats(cache, 1, 3, 1, 2);
+
+        cache.get("a", this::compile);
+        cache.get("b", this::compile);
+        assertThat(compiled).containsExactly("a", "b", "c", "b");
+        assertStats(cache, 2, 4, 2, 2);
+    }
+
+    @Test
+    void clearKeepsTheCounters() {
+        QueryPlanCache<String, String> cache = new QueryPlanCache<>(2);
+        cache.get("a", this::compile);
+        cache.get("a", this::compile);
+
+        cache.clear();
+        assertStats(cache, 1, 1, 0, 0);
+
+        cache.get("a", this::compile);
+        assertStats(cache, 1, 2, 0, 1);
+    }
+
+    @Test
+    void sizeMustBePositive() {
+        assertThatThrownBy(() -> new QueryPlanCache<>(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private String compile(String key) {
+        compiled.add(key);
+        return "plan-" + key;
+    }
+
+    private static void assertStats(QueryPlanCache<?, ?> cache, long hits, long misses, long evictions, int size) {
+        QueryPlanCacheStats stats = cache.stats();
+        assertThat(stats.getHits()).as("hits").isEqualTo(hits);
+        assertThat(stats.getMisses()).as("misses").isEqualTo(misses);
+        assertThat(stats.getEvictions()).as("evictions").isEqualTo(evictions);
+        assertThat(stats.getSize()).as("size").isEqualTo(size);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import jakarta.persistence.*;
+
+import java.util.UUID;
+
+@Entity
+@Table(name = "criteria_test_regions")
+public class RegionTestEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "country_id")
+    private CountryTestEntity country;
+
+    protected RegionTestEntity() {
+    }
+
+    public RegionTestEntity(String name, CountryTestEntity country) {
+        this.name = name;
+        this.country = country;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CountryTestEntity getCountry() {
+        return country;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.common.infrastructure.criteria;
+
+import jakarta.persistence.*;
+
+import java.util.UUID;
+
+@Entity
+@Table(name = "criteria_test_warehouses")
+public class WarehouseTestEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "region_id")
+    private RegionTestEntity region;
+
+    protected WarehouseTestEntity() {
+    }
+
+    public WarehouseTestEntity(String name, RegionTestEntity region) {
+        this.name = name;
+        this.region = region;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RegionTestEntity getRegion() {
+        return region;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.demo.common.infrastructure.datasource;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Primary and two replicas are separate H2 databases here, each with a marker row naming itself,
+// so the marker read back tells where a statement was routed
+@SpringBootTest(properties = {
+        "datasource.replicas.urls=" + ReadWriteRoutingDataSourceTests.REPLICA_A + "," + ReadWriteRoutingDataSourceTests.REPLICA_B,
+        "datasource.routing.balancing=round-robin",
+        "datasource.routing.sticky-window=300ms"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadWriteRoutingDataSourceTests {
+
+    static final String REPLICA_A = "jdbc:h2:mem:replica-a;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_B = "jdbc:h2:mem:replica-b;DB_CLOSE_DELAY=-1";
+    private static final long STICKY_WINDOW_MILLIS = 300;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private LastWriteCookieFilter lastWriteCookieFilter;
+
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate readWriteTransaction;
+
+    @BeforeAll
+    void createMarkers() {
+        createMarker(jdbcTemplate, "primary"); // Outside a transaction, so this goes to the primary
+        createMarker(replica(REPLICA_A), "replica-a");
+        createMarker(replica(REPLICA_B), "replica-b");
+
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void readOnlyTransactionsAreSpreadOverTheReplicas() {
+        long replicaReads = ReadRoutingContext.replicaReads();
+
+        Set<String> servedBy = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            servedBy.add(readOnlyTransaction.execute(status -> marker()));
+        }
+
+        assertThat(servedBy).containsExactlyInAnyOrder("replica-a", "replica-b");
+        assertThat(ReadRoutingContext.replicaReads() - replicaReads).isEqualTo(4L);
+    }
+
+    @Test
+    void readWriteTransactionsAndPlainStatementsGoToThePrimary() {
+        String servedBy = readWriteTransaction.execute(status -> marker());
+        assertThat(servedBy).isEqualTo("primary");
+        assertThat(marker()).isEqualTo("primary");
+    }
+
+    @Test
+    void onlyTheWritingClientReadsFromThePrimaryRightAfterItsWrite() throws Exception {
+        AtomicReference<String> readAfterWrite = new AtomicReference<>();
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        lastWriteCookieFilter.doFilter(new MockHttpServletRequest(), writeResponse, (request, response) -> {
+            write();
+            readAfterWrite.set(readOnlyTransaction.execute(status -> marker()));
+        });
+        Cookie lastWrite = writeResponse.getCookie(LastWriteCookieFilter.COOKIE_NAME);
+
+        assertThat(readAfterWrite.get()).isEqualTo("primary");
+        assertThat(lastWrite).isNotNull();
+
+        MockHttpServletRequest sameClient = new MockHttpServletRequest();
+        sameClient.setCookies(lastWrite);
+        assertThat(readInRequest(sameClient)).isEqualTo("primary");
+        assertThat(readInRequest(new MockHttpServletRequest())).startsWith("replica-");
+
+        waitOutStickyWindow();
+        assertThat(readInRequest(sameClient)).startsWith("replica-");
+    }
+
+    @Test
+    void writesOutsideARequestDontKeepReadsOnThePrimary() {
+        write();
+
+        String servedBy = readOnlyTransaction.execute(status -> marker());
+        assertThat(servedBy).startsWith("replica-");
+    }
+
+    private String readInRequest(MockHttpServletRequest request) throws Exception {
+        AtomicReference<String> servedBy = new AtomicReference<>();
+        lastWriteCookieFilter.doFilter(request, new MockHttpServletResponse(),
+                (filteredRequest, response) -> servedBy.set(readOnlyTransaction.execute(status -> marker())));
+        return servedBy.get();
+    }
+
+    private void write() {
+        readWriteTransaction.executeWithoutResult(status -> jdbcTemplate.update("UPDATE routing_marker SET name = name"));
+    }
+
+    private String marker() {
+        List<String> names = jdbcTemplate.queryForList("SELECT name FROM routing_marker", String.class);
+        return names.get(0);
+    }
+
+    // Same credentials as the replica pools, H2 creates the database for the first user that connects
+    private JdbcTemplate replica(String url) {
+        return new JdbcTemplate(new DriverManagerDataSource(url, dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword()));
+    }
+
+    private static void createMarker(JdbcTemplate target, String name) {
+        target.execute("CREATE TABLE IF NOT EXISTS routing_marker (name VARCHAR(32))");
+        target.update("DELETE FROM routing_marker");
+        target.update("INSERT INTO routing_marker (name) VALUES (?)", name);
+    }
+
+    private static void waitOutStickyWindow() throws InterruptedException {
+        Thread.sleep(STICKY_WINDOW_MILLIS + 100);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.demo.common.infrastructure.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+// 10 second intervals and a 30 second window, rotations are called by hand instead of on the schedule.
+// Latencies are recorded with a start that lies in the past, so each sample is that far back plus a few microseconds.
+class LatencyMetricsTests {
+
+    private final LatencyMetrics metrics = new LatencyMetrics(Duration.ofSeconds(10), Duration.ofSeconds(30));
+    private final LatencyTimer timer = metrics.timer("test.operation");
+
+    @Test
+    void timersAreRegisteredOncePerName() {
+        assertThat(metrics.timer("test.operation")).isSameAs(timer);
+        metrics.timer("another.operation");
+
+        assertThat(metrics.snapshots()).extracting(LatencySnapshotDto::getName)
+                .containsExactly("another.operation", "test.operation");
+    }
+
+    @Test
+    void snapshotIsEmptyUntilTheFirstRotation() {
+        record(10, 5);
+
+        assertThat(timer.snapshot().getCount()).isZero();
+        metrics.rotate();
+        assertThat(timer.snapshot().getCount()).isEqualTo(10);
+    }
+
+    @Test
+    void windowGrowsToItsSizeAndThenDropsTheOldestInterval() {
+        record(10, 1);
+        metrics.rotate();
+        LatencySnapshotDto first = timer.snapshot();
+        assertThat(first.getWindowSeconds()).isEqualTo(10.0);
+        assertThat(first.getRatePerSecond()).isEqualTo(1.0);
+        assertThat(first.getP50Millis()).isCloseTo(1.0, withinPercentage(5));
+
+        record(10, 100);
+        metrics.rotate();
+        LatencySnapshotDto second = timer.snapshot();
+        assertThat(second.getWindowSeconds()).isEqualTo(20.0);
+        assertThat(second.getCount()).isEqualTo(20);
+        assertThat(second.getP50Millis()).isCloseTo(1.0, withinPercentage(5));
+        assertThat(second.getP99Millis()).isCloseTo(100.0, withinPercentage(5));
+        assertThat(second.getMaxMillis()).isCloseTo(100.0, withinPercentage(5));
+
+        metrics.rotate();
+        assertThat(timer.snapshot().getWindowSeconds()).isEqualTo(30.0);
+        assertThat(timer.snapshot().getCount()).isEqualTo(20);
+
+        // The first interval leaves the window, the rate stays over the full window
+        metrics.rotate();
+        LatencySnapshotDto rolled = timer.snapshot();
+        assertThat(rolled.getWindowSeconds()).isEqualTo(30.0);
+        assertThat(rolled.getCount()).isEqualTo(10);
+        assertThat(rolled.getRatePerSecond()).isCloseTo(1.0 / 3, withinPercentage(0.1));
+        assertThat(rolled.getP50Millis()).isCloseTo(100.0, withinPercentage(5));
+        assertThat(rolled.getTotalCount()).isEqualTo(20);
+        assertThat(rolled.getTotalSeconds()).isCloseTo(1.01, withinPercentage(5));
+    }
+
+    @Test
+    void recycledHistogramsStartEmpty() {
+        record(10, 1);
+        metrics.rotate();
+        record(10, 100);
+        metrics.rotate();
+        metrics.rotate();
+        metrics.rotate(); // The first interval's histogram goes back to the recorder
+
+        record(5, 10);
+        metrics.rotate(); // ...and comes back holding only the new samples
+
+        LatencySnapshotDto snapshot = timer.snapshot();
+        assertThat(snapshot.getCount()).isEqualTo(5);
+        assertThat(snapshot.getP50Millis()).isCloseTo(10.0, withinPercentage(5));
+        assertThat(snapshot.getMaxMillis()).isCloseTo(10.0, withinPercentage(5));
+        assertThat(snapshot.getTotalCount()).isEqualTo(25);
+
+        metrics.rotate();
+        metrics.rotate();
+        metrics.rotate();
+        assertThat(timer.snapshot().getCount()).isZero();
+        assertThat(timer.snapshot().getTotalCount()).isEqualTo(25);
+    }
+
+    @Test
+    void prometheusTextHasASummaryAndARatePerTimer() {
+        record(10, 2);
+        metrics.rotate();
+
+        String text = metrics.prometheus();
+
+        assertThat(text).contains("# TYPE app_latency_seconds summary\n");
+        assertThat(text).containsPattern("app_latency_seconds\\{timer=\"test.operation\",quantile=\"0.5\"} 0\\.002\\d{3}\n");
+        assertThat(text).contains("app_latency_seconds_count{timer=\"test.operation\"} 10\n");
+        assertThat(text).contains("# TYPE app_latency_rate_per_second gauge\n");
+        assertThat(text).contains("app_latency_rate_per_second{timer=\"test.operation\"} 1.000\n");
+    }
+
+    private void record(int samples, long millis) {
+        for (int i = 0; i < samples; i++) {
+            timer.stop(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.demo.products.infrastructure.adapters.repositories;
+
+import com.example.demo.common.infrastructure.cache.CacheStatsDto;
+import com.example.demo.products.application.ports.ProductRepository;
+import com.example.demo.products.domain.models.Product;
+import com.example.demo.products.infrastructure.cache.CriteriaResultCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Lookups by id and name through the cache: misses are cached too until a creation replaces them, entries are
+// refreshed in the background and dropped once expired. Timing cases run on a separate cache over a stub.
+@SpringBootTest
+@AutoConfigureMockMvc
+class CachingProductRepositoryTests {
+
+    @Autowired
+    private CachingProductRepository cachingProductRepository;
+
+    @Autowired
+    private CriteriaResultCache criteriaResultCache;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void cachedMissIsReplacedByTheCreationEvent() {
+        assertThat(cachingProductRepository.getProductByName("cache-created-later")).isEmpty();
+        CacheStatsDto byName = stats("productsByName");
+        assertThat(cachingProductRepository.getProductByName("cache-created-later")).isEmpty();
+        assertThat(stats("productsByName").getLoadCount()).isEqualTo(byName.getLoadCount());
+
+        Product created = cachingProductRepository.createProduct(new Product(null, "cache-created-later", 5.0, 1L)).orElseThrow();
+        CacheStatsDto byId = stats("productsById");
+
+        assertThat(cachingProductRepository.getProductByName("cache-created-later")).contains(created);
+        assertThat(cachingProductRepository.getProductById(created.getId())).contains(created);
+        assertThat(stats("productsByName").getLoadCount()).isEqualTo(byName.getLoadCount());
+        assertThat(stats("productsById").getLoadCount()).isEqualTo(byId.getLoadCount());
+    }
+
+    @Test
+    void loadByIdAlsoFillsTheNameCache() {
+        Product soap = cachingProductRepository.getProductByName("Soap").orElseThrow();
+        CachingProductRepository cache = cache(new StubStorage(Map.of("Soap", soap)), Duration.ofMinutes(10), Duration.ofMinutes(1));
+
+        assertThat(cache.getProductById(soap.getId())).contains(soap);
+        assertThat(cache.getProductByName("Soap")).contains(soap);
+        assertThat(cache.stats().get(1).getLoadCount()).isZero();
+    }
+
+    @Test
+    void statsEndpointListsEveryCache() throws Exception {
+        cachingProductRepository.getProductByName("Coffee");
+        cachingProductRepository.getProductByName("Coffee");
+
+        String body = mockMvc.perform(get("/internal/caches/products"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode caches = objectMapper.readTree(body);
+        assertThat(caches).extracting(cache -> cache.get("name").asText())
+                .containsExactly("productsById", "productsByName", "criteriaResults");
+        JsonNode byName = caches.get(1);
+        assertThat(byName.get("hitCount").asLong()).isPositive();
+        assertThat(byName.get("size").asLong()).isPositive();
+        assertThat(byName.get("hitRatio").asDouble()).isBetween(0.0, 1.0);
+    }
+
+    @Test
+    void staleEntriesAreServedWhileTheyRefresh() throws InterruptedException {
+        StubStorage storage = new StubStorage(Map.of("Soap", product("Soap", 1.0)));
+        CachingProductRepository cache = cache(storage, Duration.ofMinutes(10), Duration.ofMillis(50));
+        assertThat(cache.getProductByName("Soap")).map(Product::getPrice).contains(1.0);
+
+        storage.put(product("Soap", 2.0));
+        CountDownLatch reloading = storage.holdLoads();
+        Thread.sleep(100);
+
+        // The first read past the refresh interval still gets the old product and starts the reload
+        assertThat(cache.getProductByName("Soap")).map(Product::getPrice).contains(1.0);
+        reloading.countDown();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!cache.getProductByName("Soap").map(Product::getPrice).orElseThrow().equals(2.0) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(cache.getProductByName("Soap")).map(Product::getPrice).contains(2.0);
+    }
+
+    @Test
+    void expiredEntriesAreLoadedAgain() throws InterruptedException {
+        StubStorage storage = new StubStorage(Map.of());
+        CachingProductRepository cache = cache(storage, Duration.ofMillis(50), Duration.ofMinutes(10));
+        assertThat(cache.getProductByName("Soap")).isEmpty();
+        assertThat(cache.getProductByName("Soap")).isEmpty();
+        assertThat(storage.loads.get()).isEqualTo(1);
+
+        storage.put(product("Soap", 1.0));
+        Thread.sleep(100);
+
+        assertThat(cache.getProductByName("Soap")).isPresent();
+        assertThat(storage.loads.get()).isEqualTo(2);
+    }
+
+    private CachingProductRepository cache(StubStorage storage, Duration expireAfterWrite, Duration refreshAfterWrite) {
+        return new CachingProductRepository(storage.proxy(), criteriaResultCache, 100, expireAfterWrite, refreshAfterWrite);
+    }
+
+    private CacheStatsDto stats(String name) {
+        return cachingProductRepository.stats().stream().filter(cache -> cache.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private static Product product(String name, double price) {
+        return new Product(UUID.nameUUIDFromBytes(name.getBytes()), name, price, 1L);
+    }
+
+    // Storage below the cache, answers lookups by name and id from a map and counts name lookups
+    private static class StubStorage {
+        private final Map<String, Product> products = new ConcurrentHashMap<>();
+        private final AtomicInteger loads = new AtomicInteger();
+        private volatile CountDownLatch held;
+
+        StubStorage(Map<String, Product> products) {
+            this.products.putAll(products);
+        }
+
+        void put(Product product) {
+            products.put(product.getName(), product);
+        }
+
+        // Name lookups wait until the latch is counted down
+        CountDownLatch holdLoads() {
+            held = new CountDownLatch(1);
+            return held;
+        }
+
+        ProductRepository proxy() {
+            return (ProductRepository) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ProductRepository.class},
+                    (proxy, method, arguments) -> switch (method.getName()) {
+                        case "getProductByName" -> {
+                            loads.incrementAndGet();
+                            if (held != null) held.await(5, TimeUnit.SECONDS);
+                            yield Optional.ofNullable(products.get((String) arguments[0]));
+                        }
+                        case "getProductById" -> products.values().stream()
+                                .filter(product -> product.getId().equals(arguments[0]))
+                                .findFirst();
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.demo.products.infrastructure.adapters.repositories;
+
+import com.example.demo.common.application.dtos.PaginationResponseDto;
+import com.example.demo.products.application.dtos.request.GetPaginatedProductsQueryDto;
+import com.example.demo.products.application.dtos.request.ProductFields;
+import com.example.demo.products.domain.models.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// totalElements comes from the striped product counter, it has to match the table under concurrent inserts
+@SpringBootTest
+class ProductCounterTests {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private ProductRepositoryAdapter productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void counterMatchesTheTableAfterConcurrentCreates() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int writer = thread;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 20; i++) {
+                        productRepository.createProduct(product("counter-single-" + writer + "-" + i));
+                    }
+
+                    // One name repeats across writers, its chunk fails and is retried row by row
+                    List<Product> batch = new ArrayList<>(IntStream.range(0, 30)
+                            .mapToObj(i -> product("counter-batch-" + writer + "-" + i))
+                            .toList());
+                    batch.add(product("counter-batch-shared"));
+                    productRepository.createProducts(batch);
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(totalElements()).isEqualTo(countRows());
+    }
+
+    @Test
+    void rejectedRowsAreNotCounted() {
+        productRepository.createProduct(product("counter-duplicate"));
+        long before = totalElements();
+
+        assertThat(productRepository.createProduct(product("counter-duplicate"))).isEmpty();
+        List<Optional<Product>> created = productRepository.createProducts(List.of(product("counter-duplicate"), product("counter-fresh")));
+
+        assertThat(created.get(0)).isEmpty();
+        assertThat(created.get(1)).isPresent();
+        assertThat(totalElements()).isEqualTo(before + 1);
+        assertThat(totalElements()).isEqualTo(countRows());
+    }
+
+    @Test
+    void hasNextWithAndWithoutTotals() {
+        long rows = countRows();
+        int limit = 5;
+        int lastPage = (int) ((rows - 1) / limit);
+
+        PaginationResponseDto<Product> first = productRepository.getPaginatedProducts(query(limit, 0, true));
+        assertThat(first.isHasNext()).isEqualTo(rows > limit);
+        assertThat(first.getTotalElements()).isEqualTo(rows);
+        assertThat(first.getTotalPages()).isEqualTo(lastPage + 1);
+
+        PaginationResponseDto<Product> last = productRepository.getPaginatedProducts(query(limit, lastPage, false));
+        assertThat(last.isHasNext()).isFalse();
+        assertThat(last.getContent()).hasSize((int) (rows - (long) lastPage * limit));
+        assertThat(last.getTotalElements()).isNull();
+        assertThat(last.getTotalPages()).isNull();
+
+        // The projected views page the same way
+        var views = productRepository.getPaginatedProductViews(query(limit, lastPage, false), ProductFields.all());
+        assertThat(views.isHasNext()).isFalse();
+        assertThat(views.getTotalElements()).isNull();
+        assertThat(productRepository.getPaginatedProductViews(query(limit, 0, false), ProductFields.all()).isHasNext())
+                .isEqualTo(rows > limit);
+    }
+
+    private long totalElements() {
+        return productRepository.getPaginatedProducts(query(1, 0, true)).getTotalElements();
+    }
+
+    private long countRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Long.class);
+    }
+
+    private static GetPaginatedProductsQueryDto query(int limit, int page, boolean includeTotal) {
+        return new GetPaginatedProductsQueryDto(limit, page, null, false, null, includeTotal);
+    }
+
+    private static Product product(String name) {
+        return new Product(null, name, 9.5, 2L);
+    }
+}
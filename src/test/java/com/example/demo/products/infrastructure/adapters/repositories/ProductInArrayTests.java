@@ -0,0 +1,118 @@
+package com.example.demo.products.infrastructure.adapters.repositories;
+
+import com.example.demo.common.domain.criteria.Criteria;
+import com.example.demo.common.domain.criteria.Order;
+import com.example.demo.common.domain.criteria.SingleFilter;
+import com.example.demo.common.domain.criteria.SingleFilterOperator;
+import com.example.demo.products.domain.models.Product;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// IN lists past criteria.in.array-threshold are bound as one array parameter (column = ANY(?)) on both the
+// compiled criteria path and the Specification path, for every id and number type of the products table
+@SpringBootTest(properties = {
+        "criteria.in.array-threshold=1000",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.demo.products.infrastructure.adapters.repositories.RecordingStatementInspector",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductInArrayTests {
+
+    private static final int PRODUCTS = 1200;
+    private static final int MISSING_VALUES = 900;
+
+    @Autowired
+    private ProductRepositoryAdapter productRepository;
+
+    private List<Product> products;
+    private List<Product> expected;
+
+    @BeforeAll
+    void seedProducts() {
+        List<Product> toCreate = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            toCreate.add(new Product(null, "in-array-" + i, 100_000 + i + 0.25, 5_000_000L + i));
+        }
+        products = productRepository.createProducts(toCreate).stream().map(Optional::orElseThrow).toList();
+
+        // Every other product, the rest of the list matches nothing
+        expected = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i += 2) {
+            expected.add(products.get(i));
+        }
+    }
+
+    @Test
+    void uuidValues() {
+        List<Object> values = valuesOf(Product::getId);
+        for (int i = 0; i < MISSING_VALUES; i++) {
+            values.add(UUID.randomUUID());
+        }
+
+        assertMatchesBothPaths("id", values);
+    }
+
+    @Test
+    void doubleValues() {
+        List<Object> values = valuesOf(Product::getPrice);
+        for (int i = 0; i < MISSING_VALUES; i++) {
+            values.add(200_000 + i + 0.75);
+        }
+
+        assertMatchesBothPaths("price", values);
+    }
+
+    @Test
+    void longValues() {
+        List<Object> values = valuesOf(Product::getQuantity);
+        for (int i = 0; i < MISSING_VALUES; i++) {
+            values.add(6_000_000L + i);
+        }
+
+        assertMatchesBothPaths("quantity", values);
+    }
+
+    private List<Object> valuesOf(Function<Product, Object> field) {
+        return new ArrayList<>(expected.stream().map(field).toList());
+    }
+
+    private void assertMatchesBothPaths(String field, List<Object> values) {
+        assertThat(values.size()).isGreaterThan(1000);
+
+        RecordingStatementInspector.STATEMENTS.clear();
+        assertThat(productRepository.getProductsByCriteria(criteria(field, values)))
+                .containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(lastProductsQuery()).contains("any(");
+
+        RecordingStatementInspector.STATEMENTS.clear();
+        assertThat(productRepository.getProductsByCriteriaSpecification(criteria(field, values)))
+                .containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(lastProductsQuery()).contains("any(");
+    }
+
+    private static Criteria criteria(String field, List<Object> values) {
+        return new Criteria(new ArrayList<>(List.of(
+                new SingleFilter<>(field, SingleFilterOperator.IN, values)
+        )), Order.none());
+    }
+
+    private static String lastProductsQuery() {
+        return RecordingStatementInspector.STATEMENTS.stream()
+                .map(statement -> statement.toLowerCase(Locale.ROOT).replaceAll("\\s+", " "))
+                .filter(statement -> statement.contains(" from products "))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.demo.products.infrastructure.adapters.repositories;
+
+import com.example.demo.common.domain.criteria.Criteria;
+import com.example.demo.common.domain.criteria.Filter;
+import com.example.demo.common.domain.criteria.Order;
+import com.example.demo.common.domain.criteria.SingleFilter;
+import com.example.demo.common.domain.criteria.SingleFilterOperator;
+import com.example.demo.products.application.events.ProductsCreatedEvent;
+import com.example.demo.products.domain.models.Product;
+import com.example.demo.products.infrastructure.entities.ProductEntity;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs against the adapter, below CachingProductRepository, so every hit here comes from Hibernate's caches
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ProductSecondLevelCacheTests {
+
+    @Autowired
+    private ProductRepositoryAdapter productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void productByIdIsServedFromTheEntityRegion() {
+        Product product = productRepository.createProduct(product("l2-by-id", 11.0)).orElseThrow();
+
+        statistics.clear();
+        assertThat(productRepository.getProductById(product.getId())).contains(product);
+        assertThat(productRepository.getProductById(product.getId())).contains(product);
+
+        assertThat(statistics.getDomainDataRegionStatistics(ProductEntity.CACHE_REGION).getHitCount()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void repeatedCriteriaQueryIsServedFromTheQueryCache() {
+        productRepository.createProduct(product("l2-criteria", 12.25));
+        Criteria criteria = priceEquals(12.25);
+
+        assertThat(productRepository.getProductsByCriteria(criteria)).hasSize(1);
+
+        statistics.clear();
+        assertThat(productRepository.getProductsByCriteria(criteria)).hasSize(1);
+
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void insertThroughHibernateInvalidatesCachedCriteriaResults() {
+        productRepository.createProduct(product("l2-hibernate-1", 13.5));
+        Criteria criteria = priceEquals(13.5);
+        assertThat(productRepository.getProductsByCriteria(criteria)).hasSize(1);
+
+        productRepository.createProduct(product("l2-hibernate-2", 13.5));
+
+        statistics.clear();
+        assertThat(productRepository.getProductsByCriteria(criteria)).hasSize(2);
+        assertThat(statistics.getQueryCacheHitCount()).isZero();
+    }
+
+    @Test
+    void insertThroughJdbcInvalidatesCachedCriteriaResults() {
+        productRepository.createProduct(product("l2-jdbc-1", 14.75));
+        Criteria criteria = priceEquals(14.75);
+        assertThat(productRepository.getProductsByCriteria(criteria)).hasSize(1);
+
+        // Same path as the bulk import: plain JDBC insert, then the creation event
+        Product imported = new Product(UUID.randomUUID(), "l2-jdbc-2", 14.75, 1L);
+        jdbcTemplate.update("INSERT INTO products (id, name, price, quantity) VALUES (?, ?, ?, ?)",
+                imported.getId(), imported.getName(), imported.getPrice(), imported.getQuantity());
+        eventPublisher.publishEvent(new ProductsCreatedEvent(List.of(imported)));
+
+        statistics.clear();
+        assertThat(productRepository.getProductsByCriteria(criteria)).hasSize(2);
+        assertThat(statistics.getQueryCacheHitCount()).isZero();
+    }
+
+    private static Product product(String name, double price) {
+        return new Product(null, name, price, 1L);
+    }
+
+    private static Criteria priceEquals(double price) {
+        List<Filter> filters = new ArrayList<>(List.of(new SingleFilter<>("price", SingleFilterOperator.EQUAL, price)));
+        return new Criteria(filters, Order.none());
+    }
+}
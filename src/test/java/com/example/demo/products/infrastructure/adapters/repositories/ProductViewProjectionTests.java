@@ -0,0 +1,78 @@
+package com.example.demo.products.infrastructure.adapters.repositories;
+
+import com.example.demo.common.domain.criteria.Criteria;
+import com.example.demo.common.domain.criteria.Order;
+import com.example.demo.common.domain.criteria.SingleFilter;
+import com.example.demo.common.domain.criteria.SingleFilterOperator;
+import com.example.demo.products.application.dtos.request.ProductFields;
+import com.example.demo.products.domain.models.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Sparse fieldsets select straight into Product, unselected fields are null literals in the
+// constructor call and their columns are not read
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.demo.products.infrastructure.adapters.repositories.RecordingStatementInspector",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+class ProductViewProjectionTests {
+
+    @Autowired
+    private ProductRepositoryAdapter productRepository;
+
+    @Test
+    void unselectedFieldsAreNullAndNotSelected() {
+        Product product = productRepository.createProduct(new Product(null, "projection-sparse", 21.5, 4L)).orElseThrow();
+
+        List<Product> views = viewsOf(21.5, ProductFields.parse("price, name"));
+
+        assertThat(views).containsExactly(new Product(null, product.getName(), product.getPrice(), null));
+        String selectList = lastSelectList();
+        assertThat(selectList).contains("name").contains("price");
+        assertThat(selectList.contains("quantity")).isFalse();
+        assertThat(selectList.contains(".id")).isFalse();
+    }
+
+    @Test
+    void everyFieldWithoutASelection() {
+        Product product = productRepository.createProduct(new Product(null, "projection-all", 22.5, 5L)).orElseThrow();
+
+        assertThat(viewsOf(22.5, ProductFields.parse(null))).containsExactly(product);
+        assertThat(lastSelectList()).contains("quantity");
+    }
+
+    @Test
+    void sameCriteriaWithAnotherSelectionGetsItsOwnPlan() {
+        Product product = productRepository.createProduct(new Product(null, "projection-plans", 23.5, 6L)).orElseThrow();
+
+        assertThat(viewsOf(23.5, ProductFields.parse("name")))
+                .containsExactly(new Product(null, product.getName(), null, null));
+        assertThat(viewsOf(23.5, ProductFields.parse("id,quantity")))
+                .containsExactly(new Product(product.getId(), null, null, product.getQuantity()));
+    }
+
+    private List<Product> viewsOf(double price, ProductFields fields) {
+        RecordingStatementInspector.STATEMENTS.clear();
+        Criteria criteria = new Criteria(new ArrayList<>(List.of(
+                new SingleFilter<>("price", SingleFilterOperator.EQUAL, price)
+        )), Order.none());
+        return productRepository.getProductViewsByCriteria(criteria, fields);
+    }
+
+    // Select list of the last products query, between SELECT and FROM
+    private static String lastSelectList() {
+        String sql = RecordingStatementInspector.STATEMENTS.stream()
+                .map(statement -> statement.toLowerCase(Locale.ROOT).replaceAll("\\s+", " "))
+                .filter(statement -> statement.contains(" from products "))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+        return sql.substring(sql.indexOf("select "), sql.indexOf(" from products "));
+    }
+}
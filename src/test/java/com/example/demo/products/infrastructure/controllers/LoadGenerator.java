@@ -0,0 +1,274 @@
+package com.example.demo.products.infrastructure.controllers;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Drives the product endpoints of a running server from virtual threads and records latencies in HDR histograms.
+//
+// Closed loop: every worker sends its next request when the previous one returns. With a target rate the
+// histogram backfills the requests a stalled worker should have sent (coordinated omission correction).
+// Open loop: requests start on a fixed schedule whatever the response times are, and latency is measured
+// from the intended start, so queueing in front of the server is part of the result.
+class LoadGenerator {
+
+    enum Endpoint { LIST, PAGINATED, CRITERIA, CREATE }
+
+    private static final int SEED_BATCH_SIZE = 500;
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final URI baseUri;
+    private final int seedProducts;
+    private final Map<Endpoint, Integer> mix;
+    private final HttpClient client;
+    private final AtomicLong createdProducts = new AtomicLong();
+
+    LoadGenerator(URI baseUri, int seedProducts, Map<Endpoint, Integer> mix) {
+        this.baseUri = baseUri;
+        this.seedProducts = seedProducts;
+        this.mix = mix;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    void seed() throws Exception {
+        for (int from = 0; from < seedProducts; from += SEED_BATCH_SIZE) {
+            StringBuilder body = new StringBuilder("[");
+            for (int i = from; i < Math.min(from + SEED_BATCH_SIZE, seedProducts); i++) {
+                if (i > from) body.append(',');
+                body.append(productJson("seed-" + i, i));
+            }
+            body.append(']');
+
+            HttpResponse<Void> response = client.send(post("/products/batch", body.toString()), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Seeding products failed with status " + response.statusCode());
+            }
+        }
+    }
+
+    Results closedLoop(int concurrency, Duration duration, double rate) {
+        Results results = new Results();
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + duration.toNanos();
+        // Each worker is expected to send one request every concurrency / rate seconds
+        long expectedIntervalNanos = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) * concurrency / rate) : 0;
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int worker = 0; worker < concurrency; worker++) {
+                workers.submit(() -> {
+                    long nextStart = System.nanoTime();
+                    while (System.nanoTime() < deadline) {
+                        if (expectedIntervalNanos > 0) {
+                            sleepUntil(nextStart);
+                            nextStart += expectedIntervalNanos;
+                        }
+
+                        Endpoint endpoint = nextEndpoint();
+                        long start = System.nanoTime();
+                        int status = send(endpoint);
+                        results.record(endpoint, System.nanoTime() - start, expectedIntervalNanos, status);
+                    }
+                });
+            }
+        }
+
+        results.elapsedNanos = System.nanoTime() - startNanos;
+        return results;
+    }
+
+    Results openLoop(double rate, Duration duration) {
+        if (rate <= 0) throw new IllegalArgumentException("Open loop load needs a rate");
+
+        Results results = new Results();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + duration.toNanos();
+
+        // Every request gets its own virtual thread, concurrency is whatever the response times make it
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long intendedStart = startNanos; intendedStart < deadline; intendedStart += intervalNanos) {
+                sleepUntil(intendedStart);
+                long scheduledAt = intendedStart;
+                requests.submit(() -> {
+                    Endpoint endpoint = nextEndpoint();
+                    int status = send(endpoint);
+                    results.record(endpoint, System.nanoTime() - scheduledAt, 0, status);
+                });
+            }
+        }
+
+        results.elapsedNanos = System.nanoTime() - startNanos;
+        return results;
+    }
+
+    // HTTP status, or 0 when the request failed before a response
+    private int send(Endpoint endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        HttpRequest request = switch (endpoint) {
+            case LIST -> get("/products");
+            case PAGINATED -> get("/products/paginated?limit=20&page=" + random.nextInt(Math.max(1, seedProducts / 20)));
+            case CRITERIA -> {
+                int minPrice = random.nextInt(1, 1000);
+                yield get("/products/criteria?hasStock=true&minPrice=" + minPrice + "&maxPrice=" + (minPrice + 10));
+            }
+            case CREATE -> post("/products", productJson("load-" + UUID.randomUUID(), createdProducts.incrementAndGet()));
+        };
+
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception ex) {
+            return 0;
+        }
+    }
+
+    private Endpoint nextEndpoint() {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<Endpoint, Integer> entry : mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) return entry.getKey();
+        }
+        throw new IllegalStateException("Empty request mix");
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static String productJson(String name, long seed) {
+        return String.format(Locale.ROOT, "{\"name\":\"%s\",\"price\":%.2f,\"quantity\":%d}", name, 1 + seed % 1000 + 0.99, seed % 25);
+    }
+
+    private static void sleepUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) weights.put(Endpoint.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+        }
+        return weights;
+    }
+
+    static class Results {
+
+        private final Map<Endpoint, Histogram> histograms = new LinkedHashMap<>();
+        private final Map<Endpoint, AtomicLong> errors = new LinkedHashMap<>();
+        // Requests actually sent, the corrected histograms also hold the backfilled samples
+        private final Map<Endpoint, LongAdder> completed = new LinkedHashMap<>();
+        private final LongAdder completedAll = new LongAdder();
+        private final Histogram all = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+        private final AtomicLong rejected = new AtomicLong();
+        private long elapsedNanos;
+
+        Results() {
+            for (Endpoint endpoint : Endpoint.values()) {
+                histograms.put(endpoint, new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3));
+                errors.put(endpoint, new AtomicLong());
+                completed.put(endpoint, new LongAdder());
+            }
+        }
+
+        void record(Endpoint endpoint, long latencyNanos, long expectedIntervalNanos, int status) {
+            completed.get(endpoint).increment();
+            completedAll.increment();
+
+            long latency = Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS);
+            if (expectedIntervalNanos > 0) {
+                histograms.get(endpoint).recordValueWithExpectedInterval(latency, expectedIntervalNanos);
+                all.recordValueWithExpectedInterval(latency, expectedIntervalNanos);
+            } else {
+                histograms.get(endpoint).recordValue(latency);
+                all.recordValue(latency);
+            }
+
+            // 503 is the database bulkhead shedding load, counted apart from real failures
+            if (status == 503) {
+                rejected.incrementAndGet();
+            } else if (status == 0 || status >= 400) {
+                errors.get(endpoint).incrementAndGet();
+            }
+        }
+
+        long errors() {
+            return errors.values().stream().mapToLong(AtomicLong::get).sum();
+        }
+
+        long rejected() {
+            return rejected.get();
+        }
+
+        long requests() {
+            return completedAll.sum();
+        }
+
+        // Successful responses per second, rejected and failed requests don't count
+        double goodput() {
+            return (requests() - errors() - rejected()) / (elapsedNanos / 1e9);
+        }
+
+        Histogram latencies() {
+            return all;
+        }
+
+        void print() {
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf(Locale.ROOT, "%-10s %9s %7s %10s %9s %9s %9s %9s %9s%n",
+                    "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+
+            histograms.forEach((endpoint, histogram) -> {
+                long requests = completed.get(endpoint).sum();
+                if (requests > 0) {
+                    System.out.println(row(endpoint.name().toLowerCase(Locale.ROOT), histogram, requests, errors.get(endpoint).get(), seconds));
+                }
+            });
+            System.out.println(row("all", all, requests(), errors(), seconds));
+            System.out.printf(Locale.ROOT, "rejected with 503: %d%n", rejected());
+        }
+
+        // Requests and req/s count sent requests only, percentiles come from the (possibly corrected) histogram
+        private static String row(String name, Histogram histogram, long requests, long errors, double seconds) {
+            return String.format(Locale.ROOT, "%-10s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f",
+                    name, requests, errors, requests / seconds,
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+        }
+
+        static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
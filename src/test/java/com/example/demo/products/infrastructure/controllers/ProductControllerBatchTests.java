@@ -0,0 +1,144 @@
+package com.example.demo.products.infrastructure.controllers;
+
+import com.example.demo.products.domain.models.Product;
+import com.example.demo.products.infrastructure.adapters.repositories.ProductRepositoryAdapter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// POST /products/batch reports every item on its own, against the seeded catalog (data.sql). Chunks of two
+// so batches span several chunks.
+@SpringBootTest(properties = "products.batch.chunk-size=2")
+@AutoConfigureMockMvc
+class ProductControllerBatchTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRepositoryAdapter productRepository;
+
+    @Test
+    void batchWithoutFailuresIsCreated() throws Exception {
+        JsonNode body = postBatch("""
+                [
+                  {"name": "batch-created-1", "price": 1.5, "quantity": 1},
+                  {"name": "batch-created-2", "price": 2.5, "quantity": 0},
+                  {"name": "batch-created-3", "price": 3.5, "quantity": 3}
+                ]""", status().isCreated());
+
+        assertThat(body.get("created").asInt()).isEqualTo(3);
+        assertThat(body.get("failed").asInt()).isZero();
+        for (int i = 0; i < 3; i++) {
+            JsonNode item = body.get("items").get(i);
+            assertThat(item.get("index").asInt()).isEqualTo(i);
+            assertThat(item.get("created").asBoolean()).isTrue();
+            assertThat(item.get("product").get("name").asText()).isEqualTo("batch-created-" + (i + 1));
+            assertThat(productRepository.getProductByName("batch-created-" + (i + 1))).isPresent();
+        }
+    }
+
+    @Test
+    void invalidItemsFailAloneWithTheirViolations() throws Exception {
+        JsonNode body = postBatch("""
+                [
+                  {"name": "batch-valid", "price": 1.0, "quantity": 1},
+                  {"name": "ab", "price": -1.0, "quantity": 1},
+                  null,
+                  {"name": "batch-negative-quantity", "price": 1.0, "quantity": -5}
+                ]""", status().isMultiStatus());
+
+        assertThat(body.get("created").asInt()).isEqualTo(1);
+        assertThat(body.get("failed").asInt()).isEqualTo(3);
+        assertCreated(body.get("items").get(0), 0);
+        assertFailed(body.get("items").get(1), 1, "Product name length must be min 3 characters max 50 characters, "
+                + "Product price must be greater than zero");
+        assertFailed(body.get("items").get(2), 2, "Product can't be null");
+        assertFailed(body.get("items").get(3), 3, "Product quantity must be equal or greater than zero");
+        assertThat(productRepository.getProductByName("batch-negative-quantity")).isEmpty();
+    }
+
+    @Test
+    void namesRepeatedInTheBatchOnlyCreateTheFirst() throws Exception {
+        JsonNode body = postBatch("""
+                [
+                  {"name": "batch-repeated", "price": 1.0, "quantity": 1},
+                  {"name": "batch-single", "price": 1.0, "quantity": 1},
+                  {"name": "batch-repeated", "price": 2.0, "quantity": 2}
+                ]""", status().isMultiStatus());
+
+        assertCreated(body.get("items").get(0), 0);
+        assertCreated(body.get("items").get(1), 1);
+        assertFailed(body.get("items").get(2), 2, "Product name is repeated in the batch");
+        assertThat(productRepository.getProductByName("batch-repeated"))
+                .hasValueSatisfying(product -> assertThat(product.getPrice()).isEqualTo(1.0));
+    }
+
+    @Test
+    void namesThatAlreadyExistFail() throws Exception {
+        JsonNode body = postBatch("""
+                [
+                  {"name": "Soap", "price": 9.0, "quantity": 9},
+                  {"name": "batch-new-next-to-soap", "price": 1.0, "quantity": 1}
+                ]""", status().isMultiStatus());
+
+        assertFailed(body.get("items").get(0), 0, "Product name already exists");
+        assertCreated(body.get("items").get(1), 1);
+        assertThat(productRepository.getProductByName("Soap"))
+                .hasValueSatisfying(product -> assertThat(product.getPrice()).isNotEqualTo(9.0));
+    }
+
+    @Test
+    void failingChunkIsRetriedRowByRow() {
+        // The existing name gets past the use case's check (as when another request creates it first) and fails
+        // the JDBC batch of its chunk, only that row is lost
+        long before = productRepository.countProducts();
+
+        List<Optional<Product>> created = productRepository.createProducts(List.of(
+                new Product(null, "batch-chunk-before", 1.0, 1L),
+                new Product(null, "Coffee", 1.0, 1L),
+                new Product(null, "batch-chunk-after", 1.0, 1L)
+        ));
+
+        assertThat(created.get(0)).hasValueSatisfying(product -> assertThat(product.getName()).isEqualTo("batch-chunk-before"));
+        assertThat(created.get(1)).isEmpty();
+        assertThat(created.get(2)).hasValueSatisfying(product -> assertThat(product.getName()).isEqualTo("batch-chunk-after"));
+        assertThat(productRepository.getProductByName("batch-chunk-before")).isPresent();
+        assertThat(productRepository.countProducts()).isEqualTo(before + 2);
+    }
+
+    private JsonNode postBatch(String json, ResultMatcher expectedStatus) throws Exception {
+        String body = mockMvc.perform(post("/products/batch").contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(expectedStatus)
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static void assertCreated(JsonNode item, int index) {
+        assertThat(item.get("index").asInt()).isEqualTo(index);
+        assertThat(item.get("created").asBoolean()).isTrue();
+        assertThat(item.get("product").get("id").asText()).isNotEmpty();
+    }
+
+    private static void assertFailed(JsonNode item, int index, String error) {
+        assertThat(item.get("index").asInt()).isEqualTo(index);
+        assertThat(item.get("created").asBoolean()).isFalse();
+        assertThat(item.get("error").asText()).isEqualTo(error);
+    }
+}
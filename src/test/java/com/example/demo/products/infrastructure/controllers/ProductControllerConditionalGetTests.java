@@ -0,0 +1,104 @@
+package com.example.demo.products.infrastructure.controllers;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Conditional GETs against the catalog version: a matching If-None-Match is answered without touching the database
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class ProductControllerConditionalGetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void productsNotModifiedRunsNoSql() throws Exception {
+        statistics.clear();
+        String etag = etagOf("/products");
+        assertThat(statistics.getPrepareStatementCount()).isPositive();
+
+        assertNotModifiedWithoutSql("/products", etag);
+    }
+
+    @Test
+    void paginatedProductsNotModifiedRunsNoSql() throws Exception {
+        String etag = etagOf("/products/paginated?limit=10&page=0");
+
+        assertNotModifiedWithoutSql("/products/paginated?limit=10&page=0", etag);
+    }
+
+    @Test
+    void criteriaEtagDependsOnTheQuery() throws Exception {
+        String etag = etagOf("/products/criteria?minPrice=1&orderBy=price");
+
+        assertNotModifiedWithoutSql("/products/criteria?minPrice=1&orderBy=price", etag);
+        mockMvc.perform(get("/products/criteria?minPrice=2&orderBy=price")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void createdProductChangesTheEtag() throws Exception {
+        String etag = etagOf("/products");
+
+        mockMvc.perform(post("/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"etag-product\",\"price\":10.5,\"quantity\":3}"))
+                .andExpect(status().isCreated());
+
+        String newEtag = mockMvc.perform(get("/products")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(newEtag).isNotEqualTo(etag);
+    }
+
+    private String etagOf(String url) throws Exception {
+        String etag = mockMvc.perform(get(url).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"").doesNotStartWith("W/");
+        return etag;
+    }
+
+    private void assertNotModifiedWithoutSql(String url, String etag) throws Exception {
+        statistics.clear();
+
+        mockMvc.perform(get(url)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryExecutionCount()).isZero();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.products.infrastructure.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Limit handling and ordering of GET /products/criteria against the seeded catalog (data.sql, six products)
+@SpringBootTest(properties = "products.criteria.max-limit=3")
+@AutoConfigureMockMvc
+class ProductControllerCriteriaTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void limitAboveTheCapIsRejected() throws Exception {
+        mockMvc.perform(get("/products/criteria?limit=4"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void requestWithoutLimitGetsTheCapAndIsMarkedTruncated() throws Exception {
+        String body = mockMvc.perform(get("/products/criteria"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Has-More", "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(objectMapper.readTree(body)).hasSize(3);
+    }
+
+    @Test
+    void lastPageIsNotMarkedTruncated() throws Exception {
+        mockMvc.perform(get("/products/criteria?name=Soap&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Has-More", "false"));
+    }
+
+    @Test
+    void orderTypeWithoutOrderByIsRejected() throws Exception {
+        mockMvc.perform(get("/products/criteria?orderType=desc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void pagesOverEqualSortValuesDoNotRepeatRows() throws Exception {
+        // Ice Cream and Water share a price, the id tie-breaker keeps their order fixed between pages
+        String path = "/products/criteria?minPrice=2.98&maxPrice=3&orderBy=price&limit=1&offset=";
+        JsonNode first = objectMapper.readTree(mockMvc.perform(get(path + 0)).andReturn().getResponse().getContentAsString());
+        JsonNode second = objectMapper.readTree(mockMvc.perform(get(path + 1)).andReturn().getResponse().getContentAsString());
+
+        assertThat(first.get(0).get("name").asText()).isNotEqualTo(second.get(0).get("name").asText());
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.demo.products.infrastructure.controllers;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// End-to-end throughput and tail latency of the product endpoints. Excluded from `test`, run with
+// ./gradlew loadTest -Dloadtest.concurrency=128 -Dloadtest.mode=open -Dloadtest.rate=5000 ...
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductControllerLoadTests {
+
+    private final int seedProducts = Integer.getInteger("loadtest.products", 10_000);
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 64);
+    private final Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 5));
+    private final Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 30));
+    private final String mode = System.getProperty("loadtest.mode", "closed");
+    private final double rate = Double.parseDouble(System.getProperty("loadtest.rate", "0")); // Requests per second, 0 = as fast as possible (closed loop only)
+    private final String mix = System.getProperty("loadtest.mix", "list=1,paginated=4,criteria=4,create=1");
+
+    @LocalServerPort
+    private int port;
+
+    private LoadGenerator loadGenerator;
+
+    @BeforeAll
+    void seedProducts() throws Exception {
+        loadGenerator = new LoadGenerator(URI.create("http://localhost:" + port), seedProducts, LoadGenerator.parseMix(mix));
+        loadGenerator.seed();
+    }
+
+    @Test
+    void productEndpointsUnderLoad() {
+        System.out.printf(Locale.ROOT, "Load test: %s loop, %d workers, rate %s, mix %s, %d seeded products%n",
+                mode, concurrency, rate > 0 ? rate + "/s" : "unbounded", mix, seedProducts);
+
+        run(warmup); // JIT, pools and caches warm up, results are thrown away
+
+        LoadGenerator.Results results = run(duration);
+        results.print();
+
+        assertThat(results.errors()).isZero();
+    }
+
+    private LoadGenerator.Results run(Duration runFor) {
+        return mode.equals("open") ? loadGenerator.openLoop(rate, runFor) : loadGenerator.closedLoop(concurrency, runFor, rate);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.products.infrastructure.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The NDJSON stream gets its own async timeout, the global one stays finite for everything else
+@SpringBootTest(properties = {
+        "products.streaming.timeout=45m",
+        "spring.mvc.async.request-timeout=15s"
+})
+@AutoConfigureMockMvc
+class ProductControllerStreamingTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void streamUsesTheStreamingTimeout() throws Exception {
+        MvcResult result = mockMvc.perform(get("/products").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(45 * 60 * 1000L);
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.products.infrastructure.controllers;
+
+import com.example.demo.DemoApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Same closed loop load against the application on platform threads and on virtual threads, each in its own
+// context and database. Run with ./gradlew loadTest --tests '*ThreadModeLoadTests*' (-Dloadtest.concurrency=2000 ...)
+@Tag("load")
+class ThreadModeLoadTests {
+
+    private final int seedProducts = Integer.getInteger("loadtest.products", 10_000);
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 1_000);
+    private final Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 5));
+    private final Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 30));
+    private final String mix = System.getProperty("loadtest.mix", "paginated=4,criteria=4,create=1");
+
+    @Test
+    void platformAndVirtualThreadsUnderLoad() throws Exception {
+        Map<String, LoadGenerator.Results> resultsByMode = new LinkedHashMap<>();
+        resultsByMode.put("platform", run("platform", false));
+        resultsByMode.put("virtual", run("virtual", true));
+
+        System.out.printf(Locale.ROOT, "%n%d concurrent clients, mix %s%n", concurrency, mix);
+        System.out.printf(Locale.ROOT, "%-10s %10s %9s %9s %9s %9s %9s%n",
+                "threads", "ok req/s", "rejected", "errors", "p50 ms", "p99 ms", "p99.9 ms");
+        resultsByMode.forEach((mode, results) -> System.out.printf(Locale.ROOT, "%-10s %10.1f %9d %9d %9.2f %9.2f %9.2f%n",
+                mode, results.goodput(), results.rejected(), results.errors(),
+                LoadGenerator.Results.millis(results.latencies().getValueAtPercentile(50)),
+                LoadGenerator.Results.millis(results.latencies().getValueAtPercentile(99)),
+                LoadGenerator.Results.millis(results.latencies().getValueAtPercentile(99.9))));
+
+        resultsByMode.values().forEach(results -> assertThat(results.goodput()).isPositive());
+    }
+
+    private LoadGenerator.Results run(String mode, boolean virtualThreads) throws Exception {
+        SpringApplicationBuilder application = new SpringApplicationBuilder(DemoApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:thread-mode-" + mode,
+                        "spring.jpa.show-sql=false"
+                );
+        if (virtualThreads) {
+            application.profiles("virtual-threads");
+        }
+
+        try (ConfigurableApplicationContext context = application.run()) {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            LoadGenerator loadGenerator = new LoadGenerator(URI.create("http://localhost:" + port), seedProducts, LoadGenerator.parseMix(mix));
+            loadGenerator.seed();
+
+            loadGenerator.closedLoop(concurrency, warmup, 0);
+            LoadGenerator.Results results = loadGenerator.closedLoop(concurrency, duration, 0);
+
+            System.out.printf(Locale.ROOT, "%n%s threads:%n", mode);
+            results.print();
+            return results;
+        }
+    }
+}
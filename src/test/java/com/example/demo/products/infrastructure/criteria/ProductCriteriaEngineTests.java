@@ -0,0 +1,142 @@
+package com.example.demo.products.infrastructure.criteria;
+
+import com.example.demo.common.domain.criteria.*;
+import com.example.demo.products.domain.models.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCriteriaEngineTests {
+
+    private static final Product APPLE = product("apple", 1.5, 10L);
+    private static final Product BANANA = product("banana", 0.5, 0L);
+    private static final Product CHERRY = product("cherry", 7.25, 3L);
+    private static final Product UNNAMED = product(null, 2.0, 5L);
+    private static final List<Product> PRODUCTS = List.of(APPLE, BANANA, CHERRY, UNNAMED);
+
+    // Below the threshold and above it, the parallel path must give the same answer
+    private final ProductCriteriaEngine sequentialEngine = new ProductCriteriaEngine(Integer.MAX_VALUE);
+    private final ProductCriteriaEngine parallelEngine = new ProductCriteriaEngine(1);
+
+    @Test
+    void comparisonsOnPrimitiveFields() {
+        assertThat(apply(Order.none(), new SingleFilter<>("price", SingleFilterOperator.GT, 1.0),
+                new SingleFilter<>("quantity", SingleFilterOperator.GT, 0L)))
+                .containsExactly(APPLE, CHERRY, UNNAMED);
+        assertThat(apply(Order.none(), new SingleFilter<>("quantity", SingleFilterOperator.EQUAL, "0")))
+                .containsExactly(BANANA);
+    }
+
+    @Test
+    void compoundFiltersAndStringOperators() {
+        CompoundFilter appleOrCheap = new CompoundFilter(CompoundFilterOperator.OR, List.of(
+                new SingleFilter<>("name", SingleFilterOperator.CONTAINS, "ppl"),
+                new SingleFilter<>("price", SingleFilterOperator.LT, 1.0)
+        ));
+
+        assertThat(apply(Order.none(), appleOrCheap)).containsExactly(APPLE, BANANA);
+        assertThat(apply(Order.none(), new SingleFilter<>("name", SingleFilterOperator.NOT_CONTAINS, "an")))
+                .containsExactly(APPLE, CHERRY);
+    }
+
+    @Test
+    void inAcceptsListsAndCommaSeparatedValues() {
+        assertThat(apply(Order.none(), new SingleFilter<>("name", SingleFilterOperator.IN, List.of("cherry", "apple"))))
+                .containsExactly(APPLE, CHERRY);
+        assertThat(apply(Order.none(), new SingleFilter<>("quantity", SingleFilterOperator.NOT_IN, "0, 10")))
+                .containsExactly(CHERRY, UNNAMED);
+        assertThat(apply(Order.none(), new SingleFilter<>("id", SingleFilterOperator.IN, List.of(BANANA.getId().toString()))))
+                .containsExactly(BANANA);
+    }
+
+    @Test
+    void inTakesAScalarAsOneValueAndNeverSplitsNames() {
+        assertThat(apply(Order.none(), new SingleFilter<>("id", SingleFilterOperator.IN, CHERRY.getId())))
+                .containsExactly(CHERRY);
+        assertThat(apply(Order.none(), new SingleFilter<>("quantity", SingleFilterOperator.IN, 3L)))
+                .containsExactly(CHERRY);
+        assertThat(apply(Order.none(), new SingleFilter<>("name", SingleFilterOperator.IN, "apple, cherry")))
+                .isEmpty();
+    }
+
+    @Test
+    void nullFilterValuesMeanIsNullAndIsNotNull() {
+        assertThat(apply(Order.none(), new SingleFilter<>("name", SingleFilterOperator.EQUAL, null)))
+                .containsExactly(UNNAMED);
+        assertThat(apply(Order.none(), new SingleFilter<>("name", SingleFilterOperator.NOT_EQUAL, null)))
+                .containsExactly(APPLE, BANANA, CHERRY);
+    }
+
+    @Test
+    void nullValuesAreRejectedWhereTheyHaveNoMeaning() {
+        assertThatThrownBy(() -> apply(Order.none(), new SingleFilter<>("name", SingleFilterOperator.GT, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> apply(Order.none(), new SingleFilter<>("price", SingleFilterOperator.EQUAL, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> apply(Order.none(), new SingleFilter<>("missing", SingleFilterOperator.EQUAL, "x")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void ordersThenPages() {
+        Criteria criteria = new Criteria(new ArrayList<>(), Order.desc("price"), 2, 1);
+
+        assertThat(sequentialEngine.apply(criteria, PRODUCTS)).containsExactly(UNNAMED, APPLE);
+        assertThat(parallelEngine.apply(criteria, PRODUCTS)).containsExactly(UNNAMED, APPLE);
+
+        // Null names sort last
+        assertThat(apply(Order.asc("name"))).containsExactly(APPLE, BANANA, CHERRY, UNNAMED);
+    }
+
+    @Test
+    void equalSortValuesAndUnorderedPagesFollowTheDatabaseIdOrder() {
+        // Signed, 8000... would sort before 0000...; the database compares UUIDs unsigned
+        Product low = new Product(UUID.fromString("00000000-0000-0000-0000-000000000002"), "low", 4.0, 1L);
+        Product middle = new Product(UUID.fromString("7fffffff-ffff-ffff-ffff-ffffffffffff"), "middle", 4.0, 1L);
+        Product high = new Product(UUID.fromString("80000000-0000-0000-0000-000000000001"), "high", 4.0, 1L);
+        Product cheap = new Product(UUID.fromString("ffffffff-0000-0000-0000-000000000000"), "cheap", 1.0, 1L);
+        List<Product> products = List.of(high, cheap, middle, low);
+
+        assertPages(new Criteria(new ArrayList<>(), Order.asc("price"), 2, 1), products, low, middle);
+        assertPages(new Criteria(new ArrayList<>(), Order.desc("price"), 2, 1), products, middle, high);
+        assertPages(new Criteria(new ArrayList<>(), Order.none(), 2, 1), products, middle, high);
+        assertPages(new Criteria(new ArrayList<>(), Order.desc("id"), 2, 0), products, cheap, high);
+        assertPages(new Criteria(new ArrayList<>(List.of(
+                new SingleFilter<>("id", SingleFilterOperator.GT, middle.getId().toString())
+        )), Order.none(), 10, 0), products, high, cheap);
+    }
+
+    @Test
+    void parallelFilteringKeepsEncounterOrder() {
+        List<Product> products = IntStream.range(0, 5000)
+                .mapToObj(i -> product("product-" + i, (double) i, (long) (i % 7)))
+                .toList();
+        Criteria criteria = new Criteria(new ArrayList<>(List.of(
+                new SingleFilter<>("quantity", SingleFilterOperator.EQUAL, 3L)
+        )), Order.none());
+
+        assertThat(parallelEngine.apply(criteria, products)).isEqualTo(sequentialEngine.apply(criteria, products));
+    }
+
+    private void assertPages(Criteria criteria, List<Product> products, Product... expected) {
+        assertThat(sequentialEngine.apply(criteria, products)).containsExactly(expected);
+        assertThat(parallelEngine.apply(criteria, products)).containsExactly(expected);
+    }
+
+    private List<Product> apply(Order order, Filter... filters) {
+        Criteria criteria = new Criteria(new ArrayList<>(List.of(filters)), order);
+        List<Product> sequential = sequentialEngine.apply(criteria, PRODUCTS);
+        assertThat(parallelEngine.apply(criteria, PRODUCTS)).isEqualTo(sequential);
+        return sequential;
+    }
+
+    private static Product product(String name, double price, long quantity) {
+        return new Product(UUID.randomUUID(), name, price, quantity);
+    }
+}
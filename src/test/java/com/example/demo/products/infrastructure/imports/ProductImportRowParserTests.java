@@ -0,0 +1,87 @@
+package com.example.demo.products.infrastructure.imports;
+
+import com.example.demo.products.domain.models.Product;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// CSV fields follow RFC 4180 on a single line, anything the parser or the validator refuses is rejected, never thrown
+class ProductImportRowParserTests {
+
+    private static final ValidatorFactory VALIDATOR_FACTORY = Validation.buildDefaultValidatorFactory();
+
+    // Same modules as the application's mapper, the request DTO is bound through its constructor
+    private final ProductImportRowParser parser = new ProductImportRowParser(
+            Jackson2ObjectMapperBuilder.json().build(), VALIDATOR_FACTORY.getValidator());
+
+    @AfterAll
+    static void closeValidatorFactory() {
+        VALIDATOR_FACTORY.close();
+    }
+
+    @Test
+    void plainCsvRow() {
+        assertThat(csv("Soap bar,1.5,10")).hasValueSatisfying(product -> {
+            assertThat(product.getId()).isNotNull();
+            assertThat(product.getName()).isEqualTo("Soap bar");
+            assertThat(product.getPrice()).isEqualTo(1.5);
+            assertThat(product.getQuantity()).isEqualTo(10L);
+        });
+    }
+
+    @Test
+    void quotedFieldsKeepCommasAndEscapedQuotes() {
+        assertThat(csv("\"Soap, large\",1.5,10")).map(Product::getName).contains("Soap, large");
+        assertThat(csv("\"The \"\"good\"\" soap\",1.5,10")).map(Product::getName).contains("The \"good\" soap");
+        assertThat(csv("\"\"\"quoted\"\"\",1.5,10")).map(Product::getName).contains("\"quoted\"");
+        assertThat(csv("\"Soap\",\"1.5\",\"10\"")).map(Product::getPrice).contains(1.5);
+    }
+
+    @Test
+    void numbersAreTrimmed() {
+        assertThat(csv("Soap bar, 1.5 , 10 ")).hasValueSatisfying(product -> {
+            assertThat(product.getPrice()).isEqualTo(1.5);
+            assertThat(product.getQuantity()).isEqualTo(10L);
+        });
+    }
+
+    @Test
+    void malformedCsvRowsAreRejected() {
+        assertThat(csv("\"Soap, large,1.5,10")).isEmpty(); // Unterminated quote
+        assertThat(csv("Soap, large,1.5,10")).isEmpty(); // Unquoted comma, four columns
+        assertThat(csv("Soap bar,1.5")).isEmpty();
+        assertThat(csv("Soap bar,cheap,10")).isEmpty();
+        assertThat(csv("Soap bar,1.5,1.5")).isEmpty();
+    }
+
+    @Test
+    void rowsBreakingTheCreateConstraintsAreRejected() {
+        assertThat(csv("ab,1.5,10")).isEmpty();
+        assertThat(csv("Soap bar,0,10")).isEmpty();
+        assertThat(csv("Soap bar,1.5,-1")).isEmpty();
+        assertThat(csv(",1.5,10")).isEmpty();
+    }
+
+    @Test
+    void ndjsonRows() {
+        assertThat(ndjson("{\"name\": \"Soap, large\", \"price\": 1.5, \"quantity\": 10}"))
+                .map(Product::getName).contains("Soap, large");
+        assertThat(ndjson("{\"name\": \"Soap bar\", \"price\": -1, \"quantity\": 10}")).isEmpty();
+        assertThat(ndjson("{\"name\": \"Soap bar\"")).isEmpty();
+        assertThat(ndjson("[\"Soap bar\", 1.5, 10]")).isEmpty();
+    }
+
+    private Optional<Product> csv(String line) {
+        return parser.parse(line, 1, ProductImportFormat.CSV);
+    }
+
+    private Optional<Product> ndjson(String line) {
+        return parser.parse(line, 1, ProductImportFormat.NDJSON);
+    }
+}
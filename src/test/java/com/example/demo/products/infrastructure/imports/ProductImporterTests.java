@@ -0,0 +1,165 @@
+package com.example.demo.products.infrastructure.imports;
+
+import com.example.demo.products.application.events.ProductsCreatedEvent;
+import com.example.demo.products.infrastructure.adapters.repositories.JpaProductImportCheckpointRepository;
+import com.example.demo.products.infrastructure.adapters.repositories.ProductRepositoryAdapter;
+import com.example.demo.products.infrastructure.entities.ProductImportCheckpointEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Imports temporary files into the seeded catalog (data.sql) in chunks of three rows
+@SpringBootTest(properties = "products.import.chunk-size=3")
+class ProductImporterTests {
+
+    @TempDir
+    private Path directory;
+
+    @Autowired
+    private ProductImporter productImporter;
+
+    @Autowired
+    private ProductRepositoryAdapter productRepository;
+
+    @Autowired
+    private JpaProductImportCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Test
+    void csvHeaderAndBlankLinesAreSkipped() throws Exception {
+        Path file = write("catalog.csv",
+                "name,price,quantity",
+                "import-csv-1,1.5,1",
+                "",
+                "\"import-csv, quoted\",2.5,2",
+                "import-csv-missing-column,3.5",
+                "   ",
+                "import-csv-3,4.5,3");
+
+        ProductImportResult result = productImporter.importFile(file, ProductImportFormat.CSV);
+
+        // The header isn't counted, blank lines are
+        assertThat(result.getCommittedLines()).isEqualTo(6);
+        assertThat(result.getImportedRows()).isEqualTo(3);
+        assertThat(result.getRejectedRows()).isEqualTo(1);
+        assertThat(productRepository.getProductByName("import-csv, quoted"))
+                .hasValueSatisfying(product -> assertThat(product.getPrice()).isEqualTo(2.5));
+        assertThat(productRepository.getProductByName("import-csv-3")).isPresent();
+        assertThat(productRepository.getProductByName("import-csv-missing-column")).isEmpty();
+        assertThat(checkpoint(result)).isEqualTo(6);
+    }
+
+    @Test
+    void ndjsonRowsAreImported() throws Exception {
+        Path file = write("catalog.ndjson",
+                "{\"name\": \"import-ndjson-1\", \"price\": 1.0, \"quantity\": 1}",
+                "{\"name\": \"import-ndjson-2\", \"price\": -1.0, \"quantity\": 1}",
+                "not json");
+
+        ProductImportResult result = productImporter.importFile(file, ProductImportFormat.NDJSON);
+
+        assertThat(result.getImportedRows()).isEqualTo(1);
+        assertThat(result.getRejectedRows()).isEqualTo(2);
+        assertThat(productRepository.getProductByName("import-ndjson-1")).isPresent();
+    }
+
+    @Test
+    void interruptedImportResumesAfterTheLastCommittedChunk() throws Exception {
+        Path file = write("resumed.csv", IntStream.rangeClosed(1, 7).mapToObj(i -> "import-resumed-" + i + ",1.0,1").toArray(String[]::new));
+        long before = productRepository.countProducts();
+
+        // The first chunk's event arrives on the importing thread right after its commit, the interrupt stops the
+        // import before the next chunk is taken
+        Thread importing = Thread.currentThread();
+        AtomicBoolean armed = new AtomicBoolean(true);
+        ApplicationListener<?> interrupter = ApplicationListener.<ProductsCreatedEvent>forPayload(event -> {
+            if (Thread.currentThread() == importing && armed.compareAndSet(true, false)) {
+                importing.interrupt();
+            }
+        });
+        context.addApplicationListener(interrupter);
+        try {
+            assertThatThrownBy(() -> productImporter.importFile(file, ProductImportFormat.CSV)).isInstanceOf(InterruptedException.class);
+        } finally {
+            context.removeApplicationListener(interrupter);
+        }
+        assertThat(productRepository.countProducts()).isEqualTo(before + 3);
+
+        ProductImportResult result = productImporter.importFile(file, ProductImportFormat.CSV);
+
+        assertThat(result.getResumedAfterLine()).isEqualTo(3);
+        assertThat(result.getImportedRows()).isEqualTo(4);
+        assertThat(result.getRejectedRows()).isZero();
+        assertThat(result.getCommittedLines()).isEqualTo(7);
+        assertThat(productRepository.countProducts()).isEqualTo(before + 7);
+        for (int i = 1; i <= 7; i++) {
+            assertThat(productRepository.getProductByName("import-resumed-" + i)).isPresent();
+        }
+    }
+
+    @Test
+    void completedImportIsNotRepeated() throws Exception {
+        Path file = write("repeated.csv", "import-repeated-1,1.0,1", "import-repeated-2,1.0,1");
+        productImporter.importFile(file, ProductImportFormat.CSV);
+
+        ProductImportResult result = productImporter.importFile(file, ProductImportFormat.CSV);
+
+        assertThat(result.getResumedAfterLine()).isEqualTo(2);
+        assertThat(result.getImportedRows()).isZero();
+        assertThat(result.getRejectedRows()).isZero();
+    }
+
+    @Test
+    void chunkWithAnExistingNameIsImportedRowByRow() throws Exception {
+        Path file = write("existing.csv",
+                "import-existing-1,1.0,1",
+                "Soap,99.0,99",
+                "import-existing-2,1.0,1",
+                "import-existing-3,1.0,1");
+        long before = productRepository.countProducts();
+
+        ProductImportResult result = productImporter.importFile(file, ProductImportFormat.CSV);
+
+        assertThat(result.getImportedRows()).isEqualTo(3);
+        assertThat(result.getRejectedRows()).isEqualTo(1);
+        assertThat(productRepository.countProducts()).isEqualTo(before + 3);
+        assertThat(productRepository.getProductByName("import-existing-2")).isPresent();
+        assertThat(productRepository.getProductByName("Soap"))
+                .hasValueSatisfying(product -> assertThat(product.getPrice()).isNotEqualTo(99.0));
+        assertThat(checkpoint(result)).isEqualTo(4);
+    }
+
+    @Test
+    void readFailureIsReportedWithTheCommittedLine() throws IOException {
+        // Opens, but can't be read as a file
+        Path unreadable = Files.createDirectory(directory.resolve("unreadable.csv"));
+
+        assertThatThrownBy(() -> productImporter.importFile(unreadable, ProductImportFormat.CSV))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("committed up to line 0")
+                .hasCauseInstanceOf(IOException.class);
+    }
+
+    private Path write(String name, String... lines) throws IOException {
+        return Files.write(directory.resolve(name), List.of(lines));
+    }
+
+    private long checkpoint(ProductImportResult result) {
+        return checkpointRepository.findById(result.getFileKey()).map(ProductImportCheckpointEntity::getCommittedLines).orElseThrow();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.demo.products.infrastructure.index;
+
+import com.example.demo.common.domain.criteria.Criteria;
+import com.example.demo.common.domain.criteria.Filter;
+import com.example.demo.common.domain.criteria.Order;
+import com.example.demo.common.domain.criteria.SingleFilter;
+import com.example.demo.common.domain.criteria.SingleFilterOperator;
+import com.example.demo.products.application.events.ProductsCreatedEvent;
+import com.example.demo.products.application.ports.ProductRepository;
+import com.example.demo.products.domain.models.Product;
+import com.example.demo.products.infrastructure.adapters.repositories.ProductRepositoryAdapter;
+import com.example.demo.products.infrastructure.criteria.ProductCriteriaEngine;
+import com.example.demo.products.infrastructure.sharding.ProductShards;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Whatever the index answers has to be the page the database returns for the same criteria
+@SpringBootTest(properties = {
+        "products.columnar-index.enabled=true",
+        "products.columnar-index.max-sort-rows=25"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ColumnarProductIndexTests {
+
+    @Autowired
+    private ColumnarProductIndex index;
+
+    @Autowired
+    private ProductRepositoryAdapter productRepository;
+
+    @Autowired
+    private ProductCriteriaEngine criteriaEngine;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectProvider<ProductShards> shards;
+
+    @BeforeAll
+    void seedProducts() {
+        // Three prices and two quantities, so most pages cut through rows with equal sort values
+        List<Product> products = IntStream.range(0, 24)
+                .mapToObj(i -> new Product(null, "columnar-" + i, 700.0 + i % 3, 900L + i % 2))
+                .toList();
+        productRepository.createProducts(products);
+    }
+
+    @Test
+    void pagesMatchTheDatabase() {
+        Filter seeded = new SingleFilter<>("price", SingleFilterOperator.GT, 699.0);
+
+        assertSameAsDatabase(new Criteria(filters(seeded), Order.none(), 5, 3));
+        assertSameAsDatabase(new Criteria(filters(seeded), Order.asc("price"), 7, 2));
+        assertSameAsDatabase(new Criteria(filters(seeded), Order.desc("price"), 10, 0));
+        assertSameAsDatabase(new Criteria(filters(seeded), Order.desc("quantity"), 6, 9));
+        assertSameAsDatabase(new Criteria(filters(seeded), Order.asc("name"), 4, 4));
+        assertSameAsDatabase(new Criteria(filters(seeded, new SingleFilter<>("quantity", SingleFilterOperator.EQUAL, 901L)),
+                Order.none(), 4, 2));
+        assertSameAsDatabase(new Criteria(filters(seeded, new SingleFilter<>("name", SingleFilterOperator.NOT_EQUAL, "columnar-3")),
+                Order.asc("quantity"), 8, 1));
+    }
+
+    @Test
+    void unpagedCriteriaWithoutAnOrderReturnEveryMatch() {
+        Criteria criteria = new Criteria(filters(new SingleFilter<>("quantity", SingleFilterOperator.EQUAL, 900L)), Order.none());
+
+        assertThat(index.findByCriteria(criteria)).hasValueSatisfying(products ->
+                assertThat(products).containsExactlyInAnyOrderElementsOf(productRepository.getProductsByCriteria(criteria)));
+    }
+
+    @Test
+    void sortsPastMaxSortRowsAreLeftToTheDatabase() {
+        Filter matchesAll = new SingleFilter<>("quantity", SingleFilterOperator.GT, -1L);
+
+        assertThat(index.findByCriteria(new Criteria(filters(matchesAll), Order.none(), 5, 0))).isEmpty();
+        assertThat(index.findByCriteria(new Criteria(filters(matchesAll), Order.asc("price"), 5, 0))).isEmpty();
+        assertThat(index.findByCriteria(new Criteria(filters(matchesAll), Order.none()))).isPresent();
+    }
+
+    @Test
+    void productsCreatedWhileLoadingAreAppendedOnce() {
+        Product createdMeanwhile = new Product(UUID.randomUUID(), "columnar-created-while-loading", 800.0, 1L);
+        ColumnarProductIndex[] loading = new ColumnarProductIndex[1];
+        loading[0] = new ColumnarProductIndex(streamingWithCreation(loading, createdMeanwhile), criteriaEngine,
+                jdbcTemplate, shards, true, 10_000);
+
+        loading[0].load();
+
+        Criteria all = new Criteria(new ArrayList<>(), Order.none());
+        List<Product> expected = new ArrayList<>(productRepository.getProductsByCriteria(all));
+        expected.add(createdMeanwhile);
+        assertThat(loading[0].findByCriteria(all)).hasValueSatisfying(products ->
+                assertThat(products).containsExactlyInAnyOrderElementsOf(expected));
+    }
+
+    // Streams the real table, halfway through a creation event arrives with a new product and one the
+    // stream has already passed
+    @SuppressWarnings("unchecked")
+    private ProductRepository streamingWithCreation(ColumnarProductIndex[] index, Product createdMeanwhile) {
+        return (ProductRepository) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ProductRepository.class},
+                (proxy, method, arguments) -> {
+                    if (!method.getName().equals("streamProducts")) throw new UnsupportedOperationException(method.getName());
+
+                    Consumer<Product> consumer = (Consumer<Product>) arguments[0];
+                    List<Product> streamed = new ArrayList<>();
+                    productRepository.streamProducts(product -> {
+                        consumer.accept(product);
+                        streamed.add(product);
+                        if (streamed.size() == 10) {
+                            index[0].onProductsCreated(new ProductsCreatedEvent(List.of(createdMeanwhile, streamed.get(0))));
+                        }
+                    });
+                    return null;
+                });
+    }
+
+    private void assertSameAsDatabase(Criteria criteria) {
+        assertThat(index.findByCriteria(criteria)).hasValueSatisfying(products ->
+                assertThat(products).containsExactlyElementsOf(productRepository.getProductsByCriteria(criteria)));
+    }
+
+    private static List<Filter> filters(Filter... filters) {
+        return new ArrayList<>(List.of(filters));
+    }
+}
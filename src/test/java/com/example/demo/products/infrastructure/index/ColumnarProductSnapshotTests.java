@@ -0,0 +1,142 @@
+package com.example.demo.products.infrastructure.index;
+
+import com.example.demo.products.domain.models.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Every bitset scan must keep exactly the rows the same comparison keeps on the products themselves,
+// including the partial last word and words that earlier filters already emptied
+class ColumnarProductSnapshotTests {
+
+    // Two full words and a partial third one
+    private static final List<Product> PRODUCTS = IntStream.range(0, 150)
+            .mapToObj(i -> product("product-" + i, (i % 10) * 1.5, (long) (i % 7)))
+            .toList();
+
+    private final ColumnarProductSnapshot snapshot = ColumnarProductSnapshot.empty().append(PRODUCTS);
+
+    @Test
+    void allRowsCoversExactlyTheSnapshot() {
+        long[] rows = snapshot.allRows();
+
+        assertThat(rows).hasSize(3);
+        assertThat(ColumnarProductSnapshot.cardinality(rows)).isEqualTo(150);
+        assertThat(snapshot.materialize(rows)).containsExactlyElementsOf(PRODUCTS);
+    }
+
+    @Test
+    void priceScans() {
+        long[] rows = snapshot.allRows();
+        snapshot.retainPriceGreaterThan(rows, 3.0);
+        assertMatches(rows, product -> product.getPrice() > 3.0);
+
+        rows = snapshot.allRows();
+        snapshot.retainPriceLessThan(rows, 3.0);
+        assertMatches(rows, product -> product.getPrice() < 3.0);
+
+        rows = snapshot.allRows();
+        snapshot.retainPriceEqualTo(rows, 4.5, true);
+        assertMatches(rows, product -> product.getPrice() == 4.5);
+
+        rows = snapshot.allRows();
+        snapshot.retainPriceEqualTo(rows, 4.5, false);
+        assertMatches(rows, product -> product.getPrice() != 4.5);
+    }
+
+    @Test
+    void quantityScans() {
+        long[] rows = snapshot.allRows();
+        snapshot.retainQuantityGreaterThan(rows, 4L);
+        assertMatches(rows, product -> product.getQuantity() > 4L);
+
+        rows = snapshot.allRows();
+        snapshot.retainQuantityLessThan(rows, 2L);
+        assertMatches(rows, product -> product.getQuantity() < 2L);
+
+        rows = snapshot.allRows();
+        snapshot.retainQuantityEqualTo(rows, 3L, true);
+        assertMatches(rows, product -> product.getQuantity() == 3L);
+
+        rows = snapshot.allRows();
+        snapshot.retainQuantityEqualTo(rows, 3L, false);
+        assertMatches(rows, product -> product.getQuantity() != 3L);
+    }
+
+    @Test
+    void nameScans() {
+        long[] rows = snapshot.allRows();
+        snapshot.retainNameEqualTo(rows, "product-130", true);
+        assertMatches(rows, product -> product.getName().equals("product-130"));
+
+        rows = snapshot.allRows();
+        snapshot.retainNameEqualTo(rows, "product-130", false);
+        assertMatches(rows, product -> !product.getName().equals("product-130"));
+
+        rows = snapshot.allRows();
+        snapshot.retainNameEqualTo(rows, "missing", true);
+        assertThat(ColumnarProductSnapshot.cardinality(rows)).isZero();
+
+        rows = snapshot.allRows();
+        snapshot.retainNameEqualTo(rows, "missing", false);
+        assertThat(ColumnarProductSnapshot.cardinality(rows)).isEqualTo(150);
+    }
+
+    @Test
+    void filtersNarrowTheSameBitset() {
+        long[] rows = snapshot.allRows();
+        snapshot.retainPriceGreaterThan(rows, 100.0); // Empties every word
+        snapshot.retainQuantityEqualTo(rows, 3L, false);
+        assertThat(ColumnarProductSnapshot.cardinality(rows)).isZero();
+
+        rows = snapshot.allRows();
+        snapshot.retainPriceGreaterThan(rows, 3.0);
+        snapshot.retainQuantityLessThan(rows, 5L);
+        snapshot.retainNameEqualTo(rows, "product-9", false);
+        assertMatches(rows, product -> product.getPrice() > 3.0 && product.getQuantity() < 5L
+                && !product.getName().equals("product-9"));
+    }
+
+    @Test
+    void appendsAreInvisibleToPublishedSnapshots() {
+        ColumnarProductSnapshot first = ColumnarProductSnapshot.empty().append(PRODUCTS.subList(0, 10));
+        ColumnarProductSnapshot second = first.append(PRODUCTS.subList(10, 20));
+
+        assertThat(first.size()).isEqualTo(10);
+        assertThat(first.materialize(first.allRows())).containsExactlyElementsOf(PRODUCTS.subList(0, 10));
+        assertThat(second.materialize(second.allRows())).containsExactlyElementsOf(PRODUCTS.subList(0, 20));
+
+        // The name is in the shared dictionary, but past the size of the first snapshot
+        long[] rows = first.allRows();
+        first.retainNameEqualTo(rows, "product-15", true);
+        assertThat(ColumnarProductSnapshot.cardinality(rows)).isZero();
+    }
+
+    @Test
+    void appendsGrowPastTheInitialCapacityAndSkipKnownNames() {
+        List<Product> many = IntStream.range(0, 3000).mapToObj(i -> product("bulk-" + i, 1.0, 1L)).toList();
+        ColumnarProductSnapshot small = ColumnarProductSnapshot.empty().append(many.subList(0, 1000));
+
+        List<Product> rest = new ArrayList<>(many.subList(1000, 3000));
+        rest.add(product("bulk-5", 99.0, 99L)); // Already indexed, skipped
+        ColumnarProductSnapshot grown = small.append(rest);
+
+        assertThat(grown.size()).isEqualTo(3000);
+        assertThat(grown.materialize(grown.allRows())).containsExactlyElementsOf(many);
+        assertThat(small.materialize(small.allRows())).containsExactlyElementsOf(many.subList(0, 1000));
+    }
+
+    private void assertMatches(long[] rows, Predicate<Product> expected) {
+        assertThat(snapshot.materialize(rows)).containsExactlyElementsOf(PRODUCTS.stream().filter(expected).toList());
+    }
+
+    private static Product product(String name, double price, long quantity) {
+        return new Product(UUID.randomUUID(), name, price, quantity);
+    }
+}
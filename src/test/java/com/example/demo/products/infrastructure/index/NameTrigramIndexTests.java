@@ -0,0 +1,162 @@
+package com.example.demo.products.infrastructure.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Searches must give exactly the rows of name LIKE '%fragment%', whatever the trigram postings hold
+class NameTrigramIndexTests {
+
+    @Test
+    void fragmentsShorterThanATrigramAreNotIndexable() {
+        NameTrigramIndex index = indexOf("Coffee", "Ice Cream");
+
+        assertThat(NameTrigramIndex.isIndexable("")).isFalse();
+        assertThat(NameTrigramIndex.isIndexable("Co")).isFalse();
+        assertThat(NameTrigramIndex.isIndexable("Cof")).isTrue();
+        assertThatThrownBy(() -> index.search("Co")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void likeWildcardsAreNotIndexable() {
+        assertThat(NameTrigramIndex.isIndexable("Ice%")).isFalse();
+        assertThat(NameTrigramIndex.isIndexable("Ice_Cream")).isFalse();
+        assertThat(NameTrigramIndex.isIndexable("Ice\\Cream")).isFalse();
+    }
+
+    @Test
+    void namesShorterThanATrigramAreStoredButNeverMatch() {
+        NameTrigramIndex index = indexOf("ab", "abc");
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.search("abc")).containsExactly(1);
+    }
+
+    @Test
+    void fragmentOfExactlyOneTrigram() {
+        NameTrigramIndex index = indexOf("Soap", "Coffee", "Vegetable Oil");
+
+        assertThat(index.search("off")).containsExactly(1);
+        assertThat(index.search("Soap")).containsExactly(0);
+        assertThat(index.search("xyz")).isEmpty();
+    }
+
+    @Test
+    void fragmentsCrossingTrigramBoundaries() {
+        NameTrigramIndex index = indexOf("abcdef", "abcXbcdY", "bcdefg");
+
+        // Every window of the fragment is in row 1 too, but not next to each other
+        assertThat(index.search("abcd")).containsExactly(0);
+        assertThat(index.search("bcde")).containsExactly(0, 2);
+        assertThat(index.search("cXbc")).containsExactly(1);
+        assertThat(index.search("abcdefg")).isEmpty();
+    }
+
+    @Test
+    void repeatedTrigramsInNameAndFragment() {
+        NameTrigramIndex index = indexOf("aaaa", "aaab", "baaa");
+
+        assertThat(index.search("aaa")).containsExactly(0, 1, 2);
+        assertThat(index.search("aaaa")).containsExactly(0);
+        assertThat(index.search("aaaaa")).isEmpty();
+    }
+
+    @Test
+    void unicodeNamesAreMatchedByCodeUnitsLikeTheDatabase() {
+        NameTrigramIndex index = indexOf("Café crème", "Cafe creme", "Ünïcödé", "Pizza 🍕 slice", "日本茶の缶");
+
+        assertThat(index.search("é c")).containsExactly(0);
+        assertThat(index.search("Caf")).containsExactly(0, 1);
+        assertThat(index.search("nïc")).containsExactly(2);
+        // A surrogate pair is two chars, windows over it work like any others
+        assertThat(index.search("a 🍕")).containsExactly(3);
+        assertThat(index.search("🍕 sl")).containsExactly(3);
+        assertThat(index.search("本茶の")).containsExactly(4);
+        // Case sensitive, as LIKE is on the default collation
+        assertThat(index.search("CAFÉ")).isEmpty();
+    }
+
+    @Test
+    void rowsFarApartDecodeFromMultiByteDeltas() {
+        List<String> names = new ArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int row = 0; row < 100_000; row++) {
+            boolean match = row % 20_011 == 7;
+            names.add(match ? "needle-" + row : "hay-" + row);
+            if (match) expected.add(row);
+        }
+        NameTrigramIndex index = indexOf(names.toArray(String[]::new));
+
+        assertThat(index.search("needle")).containsExactly(expected.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    @Test
+    void readersSeeConsistentResultsWhileRowsAreAppended() throws Exception {
+        NameTrigramIndex index = new NameTrigramIndex();
+        int rows = 50_000;
+        int readers = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(readers + 1);
+        CountDownLatch started = new CountDownLatch(readers);
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int reader = 0; reader < readers; reader++) {
+                results.add(executor.submit(() -> {
+                    started.countDown();
+                    int searches = 0;
+                    int lastCount = 0;
+                    while (writing.get() || searches == 0) {
+                        int[] found = index.search("match");
+                        // Ascending, only real matches, and never fewer than an earlier search saw
+                        for (int i = 0; i < found.length; i++) {
+                            if (i > 0 && found[i] <= found[i - 1]) throw new AssertionError("Rows out of order");
+                            if (found[i] % 3 != 0) throw new AssertionError("Row " + found[i] + " doesn't match");
+                        }
+                        if (found.length < lastCount) throw new AssertionError("Rows disappeared");
+                        lastCount = found.length;
+                        searches++;
+                    }
+                    return searches;
+                }));
+            }
+
+            started.await();
+            Future<?> writer = executor.submit(() -> {
+                for (int row = 0; row < rows; row++) {
+                    index.add(UUID.randomUUID(), row % 3 == 0 ? "match-" + row : "other-" + row);
+                }
+                writing.set(false);
+            });
+            writer.get(30, TimeUnit.SECONDS);
+
+            for (Future<Integer> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS)).isPositive();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(index.size()).isEqualTo(rows);
+        assertThat(index.search("match")).hasSize((rows + 2) / 3);
+    }
+
+    private static NameTrigramIndex indexOf(String... names) {
+        NameTrigramIndex index = new NameTrigramIndex();
+        for (String name : names) {
+            index.add(UUID.randomUUID(), name);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.demo.products.infrastructure.index;
+
+import com.example.demo.common.domain.criteria.Filter;
+import com.example.demo.common.domain.criteria.SingleFilter;
+import com.example.demo.common.domain.criteria.SingleFilterOperator;
+import com.example.demo.common.infrastructure.criteria.FilterUsageTracker;
+import com.example.demo.products.domain.models.Product;
+import com.example.demo.products.infrastructure.adapters.repositories.ProductRepositoryAdapter;
+import com.example.demo.products.infrastructure.entities.ProductEntity;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+// Suggestions from tracked filters against H2. Besides the seeded catalog (data.sql) there are 200 products with
+// four prices (about a quarter of the table each) and a distinct quantity each. Every test tracks its own filters.
+// The property gives the class a context, and so a table, of its own, the selectivities depend on the row count.
+@SpringBootTest(properties = "products.index-advisor.sample-queries=4")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductIndexAdvisorTests {
+
+    private static final int MIN_QUERIES = 5;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductRepositoryAdapter productRepository;
+
+    private FilterUsageTracker tracker;
+    private ProductIndexAdvisor advisor;
+
+    @BeforeAll
+    void seedProducts() {
+        productRepository.createProducts(IntStream.range(0, 200)
+                .mapToObj(i -> new Product(null, "advisor-" + i, 100.5 + i % 4, 1000L + i))
+                .toList());
+    }
+
+    @BeforeEach
+    void setUp() {
+        tracker = new FilterUsageTracker(true, 32);
+        advisor = new ProductIndexAdvisor(tracker, jdbcTemplate, MIN_QUERIES, 0.1, 4, false);
+    }
+
+    @Test
+    void equalityColumnsComeFirstMostSelectiveFirst() {
+        // Tracked as price:EQUAL, quantity:EQUAL, the far more selective quantity leads the index
+        track(MIN_QUERIES, i -> List.of(filter("price", SingleFilterOperator.EQUAL, 100.5 + i % 4),
+                filter("quantity", SingleFilterOperator.EQUAL, 1000L + i)));
+
+        List<IndexSuggestionDto> suggestions = advisor.refresh();
+
+        assertThat(suggestions).singleElement().satisfies(suggestion -> {
+            assertThat(suggestion.getColumns()).containsExactly("quantity", "price");
+            assertThat(suggestion.getDdl()).isEqualTo("CREATE INDEX IF NOT EXISTS idx_products_quantity_price ON products (quantity, price)");
+            assertThat(suggestion.getQueries()).isEqualTo(MIN_QUERIES);
+            assertThat(suggestion.getEstimatedSelectivity()).isPositive().isLessThan(0.01);
+            assertThat(suggestion.isCreated()).isFalse();
+        });
+        assertThat(advisor.suggest()).isEqualTo(suggestions);
+    }
+
+    @Test
+    void rangeColumnComesAfterTheEqualityColumns() {
+        // The price equality alone matches a quarter of the table, still it goes first
+        track(MIN_QUERIES, i -> List.of(filter("price", SingleFilterOperator.EQUAL, 101.5),
+                filter("quantity", SingleFilterOperator.GT, 1010L),
+                filter("quantity", SingleFilterOperator.LT, 1030L)));
+
+        assertThat(advisor.refresh()).singleElement()
+                .satisfies(suggestion -> assertThat(suggestion.getColumns()).containsExactly("price", "quantity"));
+    }
+
+    @Test
+    void onlyTheMostSelectiveRangeColumnIsIndexed() {
+        track(MIN_QUERIES, i -> List.of(filter("price", SingleFilterOperator.GT, 100.0),
+                filter("quantity", SingleFilterOperator.GT, 1010L),
+                filter("quantity", SingleFilterOperator.LT, 1020L)));
+
+        assertThat(advisor.refresh()).singleElement().satisfies(suggestion -> {
+            assertThat(suggestion.getColumns()).containsExactly("quantity");
+            assertThat(suggestion.getEstimatedSelectivity()).isCloseTo(9.0 / 206, offset(1e-9));
+        });
+    }
+
+    @Test
+    void rarelySeenCombinationsAreLeftOut() {
+        track(MIN_QUERIES - 1, i -> List.of(filter("quantity", SingleFilterOperator.EQUAL, 1000L + i)));
+
+        assertThat(advisor.refresh()).isEmpty();
+    }
+
+    @Test
+    void combinationsMatchingTooMuchOfTheTableAreLeftOut() {
+        track(MIN_QUERIES, i -> List.of(filter("price", SingleFilterOperator.EQUAL, 100.5 + i % 4)));
+        track(MIN_QUERIES, i -> List.of(filter("quantity", SingleFilterOperator.GT, 1000L)));
+
+        assertThat(advisor.refresh()).isEmpty();
+    }
+
+    @Test
+    void indexesAlreadyServingACandidateAsPrefixHideIt() {
+        // The primary key and the unique name constraint are indexes as well
+        track(MIN_QUERIES, i -> List.of(filter("name", SingleFilterOperator.EQUAL, "advisor-" + i)));
+        track(MIN_QUERIES, i -> List.of(filter("quantity", SingleFilterOperator.EQUAL, 1000L + i)));
+        track(MIN_QUERIES, i -> List.of(filter("price", SingleFilterOperator.EQUAL, 100.5),
+                filter("quantity", SingleFilterOperator.EQUAL, 1000L + i)));
+
+        jdbcTemplate.execute("CREATE INDEX idx_advisor_test ON products (quantity, price, name)");
+        try {
+            assertThat(advisor.refresh()).isEmpty();
+        } finally {
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_advisor_test");
+        }
+
+        // Only a prefix counts, an index starting with another column serves none of them
+        jdbcTemplate.execute("CREATE INDEX idx_advisor_test ON products (price, quantity)");
+        try {
+            assertThat(advisor.refresh()).extracting(IndexSuggestionDto::getColumns)
+                    .containsExactlyInAnyOrder(List.of("quantity"), List.of("quantity", "price"));
+        } finally {
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_advisor_test");
+        }
+    }
+
+    @Test
+    void combinationsLeadingToTheSameIndexAreMerged() {
+        track(MIN_QUERIES, i -> List.of(filter("quantity", SingleFilterOperator.EQUAL, 1000L + i)));
+        track(MIN_QUERIES + 2, i -> List.of(filter("quantity", SingleFilterOperator.GT, 1100L + i),
+                filter("quantity", SingleFilterOperator.LT, 1105L + i)));
+
+        assertThat(advisor.refresh()).singleElement().satisfies(suggestion -> {
+            assertThat(suggestion.getColumns()).containsExactly("quantity");
+            assertThat(suggestion.getQueries()).isEqualTo(2 * MIN_QUERIES + 2);
+        });
+    }
+
+    @Test
+    void applyCreatesTheSuggestedIndexes() {
+        track(MIN_QUERIES, i -> List.of(filter("price", SingleFilterOperator.EQUAL, 100.5 + i % 4),
+                filter("quantity", SingleFilterOperator.EQUAL, 1000L + i)));
+        advisor.refresh();
+
+        try {
+            assertThat(advisor.apply()).singleElement().satisfies(created -> {
+                assertThat(created.getColumns()).containsExactly("quantity", "price");
+                assertThat(created.isCreated()).isTrue();
+            });
+            assertThat(advisor.suggest()).isEmpty();
+
+            // The new index covers the combination from now on
+            assertThat(advisor.refresh()).isEmpty();
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = 'IDX_PRODUCTS_QUANTITY_PRICE'", Long.class))
+                    .isEqualTo(1L);
+        } finally {
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_products_quantity_price");
+        }
+    }
+
+    private void track(int queries, IntFunction<List<Filter>> filters) {
+        for (int i = 0; i < queries; i++) {
+            tracker.record(ProductEntity.class, filters.apply(i));
+        }
+    }
+
+    private static Filter filter(String field, SingleFilterOperator operator, Object value) {
+        return new SingleFilter<>(field, operator, value);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.products.infrastructure.index;
+
+import com.example.demo.products.domain.models.Product;
+import com.example.demo.products.infrastructure.adapters.repositories.ProductRepositoryAdapter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The index is only compared with the table on the schedule (disabled here by a long interval), searches
+// themselves never count the products
+@SpringBootTest(properties = "products.name-index.sync-check-interval=1h")
+class TrigramProductNameIndexTests {
+
+    @Autowired
+    private TrigramProductNameIndex nameIndex;
+
+    @Autowired
+    private ProductRepositoryAdapter productRepository;
+
+    @Test
+    void productsCreatedLocallyKeepTheIndexAnswering() {
+        Product first = productRepository.createProduct(new Product(null, "trigram-local-1", 1.0, 1L)).orElseThrow();
+        Product second = productRepository.createProduct(new Product(null, "trigram-local-2", 1.0, 1L)).orElseThrow();
+
+        assertThat(nameIndex.findIdsByNameContaining("trigram-local"))
+                .hasValueSatisfying(ids -> assertThat(ids).containsExactlyInAnyOrder(first.getId(), second.getId()));
+
+        nameIndex.checkInSync();
+        assertThat(nameIndex.findIdsByNameContaining("trigram-local")).isPresent();
+    }
+
+    @Test
+    void productsCreatedElsewhereStopTheIndexAtTheNextCheck() {
+        // Not a bean, so creation events never reach it, like an index on another instance
+        TrigramProductNameIndex index = new TrigramProductNameIndex(productRepository, true, 1000);
+        index.load();
+        assertThat(index.findIdsByNameContaining("Coffee")).isPresent();
+
+        productRepository.createProduct(new Product(null, "trigram-elsewhere", 1.0, 1L));
+        assertThat(index.findIdsByNameContaining("Coffee")).isPresent();
+
+        index.checkInSync();
+        assertThat(index.findIdsByNameContaining("Coffee")).isEmpty();
+        assertThat(index.findIdsByNameContaining("trigram-elsewhere")).isEmpty();
+    }
+
+    @Test
+    void disabledIndexNeverAnswers() {
+        TrigramProductNameIndex index = new TrigramProductNameIndex(productRepository, false, 1000);
+        index.load();
+        index.checkInSync();
+
+        assertThat(index.findIdsByNameContaining("Coffee")).isEmpty();
+    }
+}
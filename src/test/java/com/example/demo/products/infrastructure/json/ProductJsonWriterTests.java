@@ -0,0 +1,158 @@
+package com.example.demo.products.infrastructure.json;
+
+import com.example.demo.common.infrastructure.json.JsonOutputBuffer;
+import com.example.demo.common.infrastructure.json.JsonOutputBufferPool;
+import com.example.demo.products.application.dtos.response.GetProductResponseDto;
+import com.example.demo.products.domain.models.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// ProductJsonWriter has to give byte for byte what Jackson writes for the same products as GetProductResponseDto
+class ProductJsonWriterTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ProductJsonWriter productJsonWriter = new ProductJsonWriter();
+
+    @Test
+    void negativeNumbers() throws Exception {
+        assertSameAsJackson(
+                product("negative", -1.5, -5L),
+                product("negative cents", -0.01, -1L),
+                product("negative large", -1234567.89, Long.MIN_VALUE),
+                product("negative zero", -0.0, 0L)
+        );
+    }
+
+    @Test
+    void largeNumbers() throws Exception {
+        assertSameAsJackson(
+                product("ten million", 1e7, Long.MAX_VALUE),
+                product("above ten million", 12345678.9, 10_000_000L),
+                product("just below ten million", 9999999.99, 9_999_999L),
+                product("largest", Double.MAX_VALUE, 1L),
+                product("infinity", Double.POSITIVE_INFINITY, 1L),
+                product("negative infinity", Double.NEGATIVE_INFINITY, 1L),
+                product("not a number", Double.NaN, 1L)
+        );
+    }
+
+    @Test
+    void smallNumbers() throws Exception {
+        assertSameAsJackson(
+                product("one cent", 0.01, 0L),
+                product("below a cent", 0.009, 0L),
+                product("a thousandth", 0.001, 0L),
+                product("below a thousandth", 0.0001, 0L),
+                product("tiny", 1e-10, 0L),
+                product("smallest", Double.MIN_VALUE, 0L),
+                product("zero", 0.0, 0L)
+        );
+    }
+
+    @Test
+    void numbersThatAreNotWholeCents() throws Exception {
+        assertSameAsJackson(
+                product("binary fraction", 0.1 + 0.2, 1L),
+                product("three decimals", 19.999, 1L),
+                product("round", 100.0, 1L),
+                product("price", 19.99, 1L),
+                product("one decimal", 5.5, 1L)
+        );
+    }
+
+    @Test
+    void unicodeNames() throws Exception {
+        assertSameAsJackson(
+                product("Café crème", 1.0, 1L),
+                product("Ünïcödé ß", 1.0, 1L),
+                product("日本茶の缶", 1.0, 1L),
+                product("Pizza 🍕 and 😀", 1.0, 1L),
+                product("non\u00a0breaking line\u2028separator", 1.0, 1L)
+        );
+    }
+
+    @Test
+    void controlCharactersQuotesAndBackslashes() throws Exception {
+        assertSameAsJackson(
+                product("line\nfeed\rreturn\ttab", 1.0, 1L),
+                product("back\bspace form\ffeed", 1.0, 1L),
+                product("nul\u0000 unit\u001f separator", 1.0, 1L),
+                product("escape\u001b and delete\u007f", 1.0, 1L),
+                product("\"quoted\" and \\back\\slashed\\", 1.0, 1L),
+                product("</script> & 'single'", 1.0, 1L)
+        );
+    }
+
+    @Test
+    void nullFieldsAreLeftOut() throws Exception {
+        UUID id = UUID.randomUUID();
+        assertSameAsJackson(
+                new Product(null, "no id", 1.0, 1L),
+                new Product(id, null, 1.0, 1L),
+                new Product(id, "no price", null, 1L),
+                new Product(id, "no quantity", 1.0, null),
+                new Product(null, null, null, 2L),
+                new Product(id, null, null, null),
+                new Product(null, null, null, null)
+        );
+    }
+
+    @Test
+    void converterOutputMatchesJacksonAcrossFlushes() throws Exception {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            products.add(product("product \"" + i + "\" ü", -i - 0.25, (long) i * 1_000_003));
+        }
+        // A tiny threshold makes the converter write the array in many pieces
+        ProductListHttpMessageConverter converter = new ProductListHttpMessageConverter(productJsonWriter, new JsonOutputBufferPool(1, 64));
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(ProductListBody.streamed(products::forEach), MediaType.APPLICATION_JSON, outputMessage);
+
+        assertThat(outputMessage.getBodyAsString(StandardCharsets.UTF_8)).isEqualTo(jackson(products));
+        assertThat(outputMessage.getHeaders().getContentLength()).isEqualTo(-1L);
+    }
+
+    @Test
+    void smallResponsesGetAContentLength() throws Exception {
+        List<Product> products = List.of(product("Soap", 3.99, 3L), product("Coffee", 1.99, 5L));
+        ProductListHttpMessageConverter converter = new ProductListHttpMessageConverter(productJsonWriter, new JsonOutputBufferPool(1, 65536));
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(ProductListBody.of(products), MediaType.APPLICATION_JSON, outputMessage);
+
+        String expected = jackson(products);
+        assertThat(outputMessage.getBodyAsString(StandardCharsets.UTF_8)).isEqualTo(expected);
+        assertThat(outputMessage.getHeaders().getContentLength()).isEqualTo((long) expected.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private void assertSameAsJackson(Product... products) throws Exception {
+        for (Product product : products) {
+            JsonOutputBuffer buffer = new JsonOutputBuffer(16);
+            productJsonWriter.write(buffer, product);
+            ByteArrayOutputStream written = new ByteArrayOutputStream();
+            buffer.drainTo(written);
+
+            assertThat(written.toString(StandardCharsets.UTF_8))
+                    .isEqualTo(objectMapper.writeValueAsString(new GetProductResponseDto(product)));
+        }
+    }
+
+    private String jackson(List<Product> products) throws Exception {
+        return objectMapper.writeValueAsString(products.stream().map(GetProductResponseDto::new).toList());
+    }
+
+    private static Product product(String name, Double price, Long quantity) {
+        return new Product(UUID.randomUUID(), name, price, quantity);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.demo.products.infrastructure.sharding;
+
+import com.example.demo.common.application.dtos.PaginationResponseDto;
+import com.example.demo.common.domain.criteria.Criteria;
+import com.example.demo.common.domain.criteria.Filter;
+import com.example.demo.common.domain.criteria.Order;
+import com.example.demo.common.domain.criteria.SingleFilter;
+import com.example.demo.common.domain.criteria.SingleFilterOperator;
+import com.example.demo.products.application.dtos.request.GetPaginatedProductsQueryDto;
+import com.example.demo.products.domain.models.Product;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Three local H2 databases as shards. Every merged read is checked against the same data sorted in memory.
+@SpringBootTest(properties = {
+        "products.sharding.enabled=true",
+        "products.sharding.shard-urls=jdbc:h2:mem:sharded-test-0;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:sharded-test-1;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:sharded-test-2;DB_CLOSE_DELAY=-1"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ShardedProductRepositoryTests {
+
+    private static final int PRODUCTS = 60;
+
+    @Autowired
+    private ShardedProductRepository repository;
+
+    @Autowired
+    private ProductShards shards;
+
+    private List<Product> products;
+
+    @BeforeAll
+    void seedProducts() {
+        // Few distinct prices, so sorting by price leans on the id tie-breaker
+        Random random = new Random(42);
+        List<Product> toCreate = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            toCreate.add(new Product(UUID.randomUUID(), "sharded-" + random.nextInt(1000) + "-" + i, 5.0 * (i % 7), (long) i));
+        }
+        Collections.shuffle(toCreate, random);
+
+        List<Optional<Product>> created = repository.createProducts(toCreate);
+        assertThat(created).allMatch(Optional::isPresent);
+        products = toCreate;
+    }
+
+    @Test
+    void everyProductIsStoredOnTheShardItsIdHashesTo() {
+        int stored = 0;
+        for (ProductShard shard : shards.all()) {
+            List<UUID> ids = shard.getJdbcTemplate().queryForList("SELECT id FROM products", UUID.class);
+            assertThat(ids).isNotEmpty().allMatch(id -> ProductShards.shardIndex(id, shards.size()) == shard.getIndex());
+            stored += ids.size();
+        }
+        assertThat(stored).isEqualTo(PRODUCTS);
+
+        Product any = products.get(17);
+        assertThat(repository.getProductById(any.getId())).contains(any);
+    }
+
+    @Test
+    void criteriaHonorsOrderOffsetAndLimitAcrossShards() {
+        List<Filter> filters = new ArrayList<>(List.of(new SingleFilter<>("price", SingleFilterOperator.GT, 5.0)));
+        Criteria criteria = new Criteria(filters, Order.desc("price"), 10, 5);
+
+        List<Product> expected = products.stream()
+                .filter(product -> product.getPrice() > 5.0)
+                .sorted(Comparator.comparing(Product::getPrice).reversed().thenComparing(ProductShardSql.ID_ORDER))
+                .skip(5)
+                .limit(10)
+                .toList();
+
+        assertThat(repository.getProductsByCriteria(criteria)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void offsetPagesFollowTheGlobalIdOrder() {
+        PaginationResponseDto<Product> page = repository.getPaginatedProducts(new GetPaginatedProductsQueryDto(10, 2, null, null, null, true));
+
+        List<Product> expected = products.stream().sorted(ProductShardSql.ID_ORDER).skip(20).limit(10).toList();
+        assertThat(page.getContent()).containsExactlyElementsOf(expected);
+        assertThat(page.getTotalElements()).isEqualTo(PRODUCTS);
+        assertThat(page.isHasNext()).isTrue();
+    }
+
+    @Test
+    void keysetCursorWalksTheWholeCatalogOnce() {
+        List<Product> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            PaginationResponseDto<Product> page = repository.getKeysetPaginatedProducts(
+                    new GetPaginatedProductsQueryDto(7, 0, cursor, true, null, false));
+            walked.addAll(page.getContent());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(walked).containsExactlyElementsOf(products.stream().sorted(ProductShardSql.nameIdOrder(shards.dialect())).toList());
+    }
+
+    @Test
+    void namesAreUniqueAcrossShards() {
+        Product existing = products.get(3);
+        Product sameName = new Product(null, existing.getName(), 1.0, 1L);
+
+        assertThat(repository.createProduct(sameName)).isEmpty();
+
+        // The claim lives on the shard the name hashes to, whichever shard the product itself went to
+        for (ProductShard shard : shards.all()) {
+            Integer claims = shard.getJdbcTemplate().queryForObject(
+                    "SELECT COUNT(*) FROM product_names WHERE name = ?", Integer.class, existing.getName());
+            assertThat(claims).isEqualTo(shard.getIndex() == shards.ownerOf(existing.getName()).getIndex() ? 1 : 0);
+        }
+    }
+}